@@ -0,0 +1,133 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Shared secrets for the server processes, kept in data/ so every process
+ * started from the same folder knows them and nobody else does.
+ *
+ * The admin token (data/admin.token) is for moving clinics between servers;
+ * send it as X-Admin-Token. The API token (data/api.token) is what clients
+ * must send as "Authorization: Bearer ..." when a server or router is bound
+ * to more than this machine. Each is made on first use.
+ *
+ * Server processes prove to each other that they share the admin token with
+ * challenge() and answer(), so the token itself never crosses the connection.
+ */
+public class AccessTokens {
+    public static final String ADMIN_HEADER = "X-Admin-Token";
+    private static final String ADMIN_FILE = "data/admin.token";
+    private static final String API_FILE = "data/api.token";
+
+    private static String admin;
+    private static String api;
+
+    public static synchronized String admin() {
+        if (admin == null) {
+            admin = loadOrCreate(ADMIN_FILE);
+        }
+        return admin;
+    }
+
+    public static synchronized String api() {
+        if (api == null) {
+            api = loadOrCreate(API_FILE);
+        }
+        return api;
+    }
+
+    public static boolean isAdmin(String given) {
+        return matches(admin(), given);
+    }
+
+    // Accepts "Bearer <token>"; the admin token will do as well
+    public static boolean isApiClient(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return false;
+        }
+        String given = authorization.substring("Bearer ".length());
+        return matches(api(), given) || matches(admin(), given);
+    }
+
+    // The Authorization header value for a request to a server
+    public static String bearer() {
+        return "Bearer " + api();
+    }
+
+    // A fresh random challenge for the other side to answer
+    public static String challenge() {
+        return randomHex();
+    }
+
+    // What a process holding the admin token answers to a challenge
+    public static String answer(String challenge) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(admin().getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return hex(mac.doFinal(challenge.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available: " + e.getMessage(), e);
+        }
+    }
+
+    public static boolean isAnswer(String challenge, String given) {
+        return matches(answer(challenge), given);
+    }
+
+    // Takes as long whatever the guess, so the token can't be found a byte at a time
+    private static boolean matches(String expected, String given) {
+        return given != null && MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+            given.trim().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String loadOrCreate(String path) {
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        String token = randomHex();
+        try {
+            // CREATE_NEW: if another process made it first, use theirs
+            Files.write(file.toPath(), token.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE_NEW);
+            file.setReadable(false, false);
+            file.setReadable(true, true);
+            file.setWritable(false, false);
+            file.setWritable(true, true);
+            System.out.println("Created " + path);
+            return token;
+        } catch (FileAlreadyExistsException e) {
+            // made by another process
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create " + path + ": " + e.getMessage(), e);
+        }
+        try {
+            String saved = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim();
+            if (saved.isEmpty()) {
+                throw new IllegalStateException(path + " is empty; delete it to make a new one");
+            }
+            return saved;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String randomHex() {
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return hex(random);
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder text = new StringBuilder();
+        for (byte b : bytes) {
+            text.append(String.format("%02x", b));
+        }
+        return text.toString();
+    }
+}
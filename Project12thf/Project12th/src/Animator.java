@@ -0,0 +1,126 @@
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import javax.swing.JComponent;
+import javax.swing.Timer;
+
+/**
+ * Runs every GUI animation (blinking, counting up, spinners) from one Swing
+ * timer.
+ *
+ * An animation belongs to a component and is called with the milliseconds
+ * since it started. It answers how long until it next needs to run, or DONE.
+ * The timer wakes up only when the earliest animation is due, and not at
+ * all for animations whose component isn't showing (another card, a closed
+ * dialog), so a screen with nothing moving costs no CPU. Each component that
+ * was animated in a frame is repainted once, however many of its animations
+ * ran. Animations of a component that is removed from its window, or whose
+ * window is disposed, are dropped.
+ *
+ * EDT only, like the components it animates.
+ */
+public class Animator {
+    public static final long DONE = -1;
+    private static final int MIN_FRAME_MS = 15;
+
+    public interface Animation {
+        long step(long elapsedMillis);
+    }
+
+    public final class Handle {
+        final JComponent owner;
+        final Animation animation;
+        final long started;
+        long due;
+
+        Handle(JComponent owner, Animation animation, long now) {
+            this.owner = owner;
+            this.animation = animation;
+            this.started = now;
+            this.due = now;
+        }
+
+        public void stop() {
+            animations.remove(this);
+        }
+    }
+
+    private final ArrayList<Handle> animations = new ArrayList<>();
+    private final Timer timer;
+    // Wakes the timer when a component with animations comes on screen again,
+    // and forgets them when it goes away
+    private final HierarchyListener showingListener = e -> {
+        if ((e.getChangeFlags() & (HierarchyEvent.SHOWING_CHANGED | HierarchyEvent.DISPLAYABILITY_CHANGED)) == 0) {
+            return;
+        }
+        if (!e.getComponent().isDisplayable()) {
+            // Gone for good, not just a hidden card
+            animations.removeIf(handle -> handle.owner == e.getComponent());
+        }
+        schedule();
+    };
+
+    public Animator() {
+        timer = new Timer(0, e -> frame());
+        timer.setRepeats(false);
+    }
+
+    public Handle start(JComponent owner, Animation animation) {
+        Handle handle = new Handle(owner, animation, System.currentTimeMillis());
+        animations.add(handle);
+        boolean listening = false;
+        for (HierarchyListener listener : owner.getHierarchyListeners()) {
+            listening |= listener == showingListener;
+        }
+        if (!listening) {
+            owner.addHierarchyListener(showingListener);
+        }
+        schedule();
+        return handle;
+    }
+
+    public int getActiveCount() {
+        return animations.size();
+    }
+
+    private void frame() {
+        long now = System.currentTimeMillis();
+        LinkedHashSet<JComponent> stepped = new LinkedHashSet<>();
+        for (Handle handle : new ArrayList<>(animations)) {
+            if (!animations.contains(handle)) {
+                continue; // stopped by an earlier animation in this frame
+            }
+            if (!handle.owner.isShowing() || handle.due > now) {
+                continue;
+            }
+            long next = handle.animation.step(now - handle.started);
+            stepped.add(handle.owner);
+            if (next < 0) {
+                animations.remove(handle);
+            } else {
+                handle.due = now + Math.max(next, MIN_FRAME_MS);
+            }
+        }
+        for (JComponent component : stepped) {
+            component.repaint();
+        }
+        schedule();
+    }
+
+    // Sleep until the earliest animation on screen is due, or stop
+    private void schedule() {
+        long earliest = Long.MAX_VALUE;
+        for (Handle handle : animations) {
+            if (handle.owner.isShowing()) {
+                earliest = Math.min(earliest, handle.due);
+            }
+        }
+        if (earliest == Long.MAX_VALUE) {
+            timer.stop();
+            return;
+        }
+        timer.setInitialDelay((int) Math.max(0, earliest - System.currentTimeMillis()));
+        timer.restart();
+    }
+}
@@ -7,7 +7,7 @@ public class Appointment implements Serializable {
     private Patient patient;
     private Doctor doctor;
     private Date date;
-    private String status;
+    private volatile String status; // read without the lock by isActive()
     private String reason;
     private boolean hasCheckup;
 
@@ -89,16 +89,45 @@ public class Appointment implements Serializable {
         System.out.println("Appointment ID: " + appointmentId + " has been scheduled for " + patient.getName() + " with Dr. " + doctor.getName() + " on " + dateFormat.format(date));
     }
 
-    public void cancelAppointment() {
+    public synchronized void cancelAppointment() {
+        if (isActive()) {
+            // Give the slot back so the doctor can be booked again
+            doctor.releaseTimeSlot(getSlotDate(), getSlotTime());
+        }
         this.status = "CANCELLED";
         System.out.println("Appointment ID: " + appointmentId + " has been cancelled.");
     }
 
-    public void rescheduleAppointment(Date newDate) {
+    // False, and nothing changes, if the appointment is cancelled or completed
+    public synchronized boolean rescheduleAppointment(Date newDate) {
         SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
+        if (!isActive()) {
+            // Booking a slot for it would hold that slot with nothing to release it
+            System.out.println("Error: Appointment ID: " + appointmentId + " is " + status.toLowerCase() + " and cannot be rescheduled.");
+            return false;
+        }
+        // Move the booked slot along with the appointment
+        doctor.releaseTimeSlot(getSlotDate(), getSlotTime());
         this.date = newDate;
         this.status = "RESCHEDULED";
+        doctor.bookTimeSlot(getSlotDate(), getSlotTime());
         System.out.println("Appointment ID: " + appointmentId + " has been rescheduled to " + dateFormat.format(newDate));
+        return true;
+    }
+
+    // An appointment holds its doctor's slot until it is cancelled or completed
+    public boolean isActive() {
+        return !status.equals("CANCELLED") && !status.equals("COMPLETED");
+    }
+
+    // Date of the doctor's booked slot, e.g. "20/10/2026"
+    public String getSlotDate() {
+        return new SimpleDateFormat("dd/MM/yyyy").format(date);
+    }
+
+    // Time of the doctor's booked slot, e.g. "09:00 AM"
+    public String getSlotTime() {
+        return new SimpleDateFormat("hh:mm a").format(date);
     }
 
     public boolean hasCheckup() {
@@ -109,7 +138,7 @@ public class Appointment implements Serializable {
         this.hasCheckup = hasCheckup;
     }
 
-    public boolean completeAppointment() {
+    public synchronized boolean completeAppointment() {
         if (!hasCheckup) {
             System.out.println("Cannot complete appointment. Medical checkup/report required.");
             return false;
@@ -119,4 +148,9 @@ public class Appointment implements Serializable {
         return true;
     }
 
-}
\ No newline at end of file
+    // Status and date change under this monitor, so a save never sees a reschedule half done
+    private synchronized void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+        out.defaultWriteObject();
+    }
+
+}
@@ -1,11 +1,12 @@
-import java.util.ArrayList;
+import java.util.List;
 import java.text.SimpleDateFormat;
 import java.io.Serializable;
 
+// No longer used; kept so clinic files saved with one can still be read
 public class AppointmentCheckerImpl implements AppointmentValidator, Serializable {
     
     @Override
-    public boolean isAppointmentExists(Appointment newAppointment, ArrayList<Appointment> existingAppointments) {
+    public boolean isAppointmentExists(Appointment newAppointment, List<Appointment> existingAppointments) {
         SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
         
         for (Appointment existing : existingAppointments) {
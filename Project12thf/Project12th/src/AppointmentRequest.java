@@ -0,0 +1,66 @@
+import java.util.Date;
+import java.text.SimpleDateFormat;
+import java.text.ParseException;
+
+/**
+ * One entry of a batch booking - who, with whom, which slot and why.
+ * The date and time use the same strings as the doctor's booked slots
+ * ("dd/MM/yyyy" and "hh:mm a", e.g. "09:00 AM").
+ */
+public class AppointmentRequest {
+    private Patient patient;
+    private Doctor doctor;
+    private String date;
+    private String time;
+    private String reason;
+
+    public AppointmentRequest(Patient patient, Doctor doctor, String date, String time, String reason) {
+        this.patient = patient;
+        this.doctor = doctor;
+        this.date = date;
+        this.time = time;
+        this.reason = reason;
+    }
+
+    public Patient getPatient() {
+        return patient;
+    }
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public String getTime() {
+        return time;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Convert the date and time strings into the Date stored on the appointment.
+     * Returns null if they can't be parsed.
+     */
+    public Date toDate() {
+        if (date == null || time == null) {
+            return null;
+        }
+        SimpleDateFormat sdf12 = new SimpleDateFormat("dd/MM/yyyy hh:mm a");
+        sdf12.setLenient(false);
+        try {
+            return sdf12.parse(date + " " + time);
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    public String getRequestDetails() {
+        return (patient != null ? patient.getId() : "null") + " with " +
+               (doctor != null ? doctor.getId() : "null") + " on " + date + " " + time;
+    }
+}
@@ -0,0 +1,172 @@
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.time.LocalDate;
+import java.io.Serializable;
+
+/**
+ * A recurring appointment (e.g. weekly physiotherapy) stored as one rule.
+ * Occurrences are generated only for the time range being looked at, and
+ * skipped or moved visits are kept as sparse exceptions by occurrence index.
+ */
+public class AppointmentSeries implements Serializable {
+    private String seriesId;
+    private Patient patient;
+    private Doctor doctor;
+    private String reason;
+    private RecurrenceRule rule;
+    private HashSet<Integer> skipped;
+    private HashMap<Integer, Date> moved;
+    private boolean ended;
+
+    // One visit of the series
+    public static class Occurrence {
+        private AppointmentSeries series;
+        private int index;
+        private Date date;
+        private boolean moved;
+
+        Occurrence(AppointmentSeries series, int index, Date date, boolean moved) {
+            this.series = series;
+            this.index = index;
+            this.date = date;
+            this.moved = moved;
+        }
+
+        public AppointmentSeries getSeries() {
+            return series;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Date getDate() {
+            return date;
+        }
+
+        public boolean isMoved() {
+            return moved;
+        }
+    }
+
+    public AppointmentSeries(Patient patient, Doctor doctor, RecurrenceRule rule, String reason) {
+        this.seriesId = IdGenerator.generateSeriesId();
+        this.patient = patient;
+        this.doctor = doctor;
+        this.rule = rule;
+        this.reason = reason;
+        this.skipped = new HashSet<>();
+        this.moved = new HashMap<>();
+        this.ended = false;
+    }
+
+    public String getSeriesId() {
+        return seriesId;
+    }
+
+    public Patient getPatient() {
+        return patient;
+    }
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public RecurrenceRule getRule() {
+        return rule;
+    }
+
+    public boolean isEnded() {
+        return ended;
+    }
+
+    // Skips and moves change under this monitor, so don't save the maps mid-update
+    private synchronized void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+        out.defaultWriteObject();
+    }
+
+    // Take over the skips, moves and end of a copy of this series
+    synchronized void copyEditsFrom(AppointmentSeries other) {
+        synchronized (other) {
+            skipped = new HashSet<>(other.skipped);
+            moved = new HashMap<>(other.moved);
+            ended = other.ended;
+        }
+    }
+
+    // Stop the series; occurrences are no longer generated
+    public synchronized void endSeries() {
+        this.ended = true;
+    }
+
+    public synchronized void skipOccurrence(int index) {
+        moved.remove(index);
+        skipped.add(index);
+    }
+
+    public synchronized void moveOccurrence(int index, Date newDate) {
+        skipped.remove(index);
+        moved.put(index, newDate);
+    }
+
+    /**
+     * Visits between two dates (inclusive), in date order.
+     * Only the indexes that fall in the range are visited, so a long-running
+     * series costs nothing outside the window being displayed or checked.
+     */
+    public synchronized ArrayList<Occurrence> getOccurrences(Date from, Date to) {
+        ArrayList<Occurrence> result = new ArrayList<>();
+        if (ended) {
+            return result;
+        }
+        LocalDate fromDay = RecurrenceRule.toLocal(from).toLocalDate();
+        int last = rule.lastIndex();
+        for (int i = rule.firstIndexOnOrAfter(fromDay); i >= 0 && i <= last; i++) {
+            Date date = rule.occurrence(i);
+            if (date.after(to)) {
+                break;
+            }
+            if (!date.before(from) && !skipped.contains(i) && !moved.containsKey(i)) {
+                result.add(new Occurrence(this, i, date, false));
+            }
+        }
+        for (java.util.Map.Entry<Integer, Date> entry : moved.entrySet()) {
+            Date date = entry.getValue();
+            if (!date.before(from) && !date.after(to)) {
+                result.add(new Occurrence(this, entry.getKey(), date, true));
+            }
+        }
+        result.sort((a, b) -> a.date.compareTo(b.date));
+        return result;
+    }
+
+    // Does a visit of this series take place at exactly this date and time?
+    public synchronized boolean occursAt(Date when) {
+        if (ended) {
+            return false;
+        }
+        int index = rule.indexOf(when);
+        if (index >= 0 && !skipped.contains(index) && !moved.containsKey(index)) {
+            return true;
+        }
+        return moved.containsValue(when);
+    }
+
+    public String getSeriesDetails() {
+        return "Series{" +
+                "seriesId='" + seriesId + '\'' +
+                ", patient='" + patient.getName() + '\'' +
+                ", doctor='" + doctor.getName() + '\'' +
+                ", rule='" + rule.getRuleDetails() + '\'' +
+                ", skipped=" + skipped.size() +
+                ", moved=" + moved.size() +
+                ", reason='" + reason + '\'' +
+                '}';
+    }
+}
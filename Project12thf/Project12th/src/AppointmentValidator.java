@@ -1,6 +1,8 @@
-import java.util.ArrayList;
+import java.util.List;
 
+// Bookings are checked against Clinic's booked-slot index instead. Kept only
+// because clinic files still declare a field of this type.
 public interface AppointmentValidator {
 
-    boolean isAppointmentExists(Appointment newAppointment, ArrayList<Appointment> existingAppointments);
+    boolean isAppointmentExists(Appointment newAppointment, List<Appointment> existingAppointments);
 }
@@ -0,0 +1,181 @@
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * A doctor's working days over the booking horizon (today plus N days).
+ * Each day keeps its "Monday - dd/MM/yyyy" label and how many slots are booked,
+ * so date lists are read straight from the cache instead of being formatted
+ * on every call. Bookings, cancellations and availability edits update single
+ * days; the window slides forward when the date changes.
+ *
+ * Not thread-safe on its own - Doctor only calls it under its own monitor.
+ */
+public class AvailabilityCalendar {
+    public static final int DEFAULT_HORIZON_DAYS = 90;
+    public static final int SLOTS_PER_DAY = 9;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("EEEE");
+
+    // One day in the window
+    private static class Day {
+        final LocalDate date;
+        final String key;    // dd/MM/yyyy, same as the doctor's booked slots
+        final String label;  // Monday - dd/MM/yyyy
+        boolean working;
+        int booked;
+
+        Day(LocalDate date) {
+            this.date = date;
+            this.key = date.format(DATE_FORMAT);
+            this.label = date.format(DAY_FORMAT) + " - " + key;
+        }
+
+        boolean isOpen() {
+            return working && booked < SLOTS_PER_DAY;
+        }
+    }
+
+    private final int horizonDays;
+    private final ArrayDeque<Day> days;
+    private final HashMap<String, Day> byKey;
+    private long nextMidnight;
+
+    // Cached date lists, rebuilt only after something changed
+    private List<String> openDates;
+    private List<String> workingDates;
+
+    public AvailabilityCalendar(int horizonDays) {
+        this.horizonDays = horizonDays > 0 ? horizonDays : DEFAULT_HORIZON_DAYS;
+        this.days = new ArrayDeque<>();
+        this.byKey = new HashMap<>();
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    /**
+     * Fill the window starting today. workingDays are DayOfWeek names
+     * ("MONDAY", ...) and bookedOn gives the booked slots of a dd/MM/yyyy
+     * date; it is only asked about the days being added.
+     */
+    public void build(List<String> workingDays, ToIntFunction<String> bookedOn) {
+        days.clear();
+        byKey.clear();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < horizonDays; i++) {
+            appendDay(today.plusDays(i), workingDays, bookedOn);
+        }
+        nextMidnight = midnightAfter(today);
+        invalidate();
+    }
+
+    // Slide the window forward if the date has changed since the last call
+    public void rollForward(List<String> workingDays, ToIntFunction<String> bookedOn) {
+        if (System.currentTimeMillis() < nextMidnight) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        while (!days.isEmpty() && days.peekFirst().date.isBefore(today)) {
+            byKey.remove(days.pollFirst().key);
+        }
+        LocalDate next = days.isEmpty() ? today : days.peekLast().date.plusDays(1);
+        LocalDate end = today.plusDays(horizonDays);
+        while (next.isBefore(end)) {
+            appendDay(next, workingDays, bookedOn);
+            next = next.plusDays(1);
+        }
+        nextMidnight = midnightAfter(today);
+        invalidate();
+    }
+
+    public void slotBooked(String date) {
+        Day day = byKey.get(date);
+        if (day != null) {
+            boolean wasOpen = day.isOpen();
+            day.booked++;
+            if (wasOpen != day.isOpen()) {
+                openDates = null;
+            }
+        }
+    }
+
+    public void slotReleased(String date) {
+        Day day = byKey.get(date);
+        if (day != null && day.booked > 0) {
+            boolean wasOpen = day.isOpen();
+            day.booked--;
+            if (wasOpen != day.isOpen()) {
+                openDates = null;
+            }
+        }
+    }
+
+    // A day of the week was added to or removed from the doctor's availability
+    public void workingDayChanged(String dayOfWeek, boolean working) {
+        for (Day day : days) {
+            if (day.date.getDayOfWeek().toString().equals(dayOfWeek)) {
+                day.working = working;
+            }
+        }
+        invalidate();
+    }
+
+    public boolean isOpen(String date) {
+        Day day = byKey.get(date);
+        return day != null && day.isOpen();
+    }
+
+    // Labels of working days that still have a free slot
+    public List<String> getOpenDates() {
+        if (openDates == null) {
+            ArrayList<String> list = new ArrayList<>();
+            for (Day day : days) {
+                if (day.isOpen()) {
+                    list.add(day.label);
+                }
+            }
+            openDates = Collections.unmodifiableList(list);
+        }
+        return openDates;
+    }
+
+    // Labels of every working day, fully booked or not
+    public List<String> getWorkingDates() {
+        if (workingDates == null) {
+            ArrayList<String> list = new ArrayList<>();
+            for (Day day : days) {
+                if (day.working) {
+                    list.add(day.label);
+                }
+            }
+            workingDates = Collections.unmodifiableList(list);
+        }
+        return workingDates;
+    }
+
+    private void appendDay(LocalDate date, List<String> workingDays, ToIntFunction<String> bookedOn) {
+        Day day = new Day(date);
+        day.working = workingDays.contains(date.getDayOfWeek().toString());
+        day.booked = bookedOn.applyAsInt(day.key);
+        days.addLast(day);
+        byKey.put(day.key, day);
+    }
+
+    private void invalidate() {
+        openDates = null;
+        workingDates = null;
+    }
+
+    private static long midnightAfter(LocalDate date) {
+        return date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,102 @@
+import java.util.ArrayList;
+
+/**
+ * Outcome of Clinic.scheduleAppointments - whether the batch was committed
+ * and one line per request saying what happened to it.
+ */
+public class BatchScheduleResult {
+    private boolean committed;
+    private ArrayList<Item> items;
+
+    // Result for a single request in the batch
+    public static class Item {
+        private int index;
+        private AppointmentRequest request;
+        private Appointment appointment;
+        private String error;
+
+        Item(int index, AppointmentRequest request) {
+            this.index = index;
+            this.request = request;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public AppointmentRequest getRequest() {
+            return request;
+        }
+
+        public Appointment getAppointment() {
+            return appointment;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isOk() {
+            return error == null;
+        }
+    }
+
+    BatchScheduleResult() {
+        this.committed = false;
+        this.items = new ArrayList<>();
+    }
+
+    Item addItem(AppointmentRequest request) {
+        Item item = new Item(items.size(), request);
+        items.add(item);
+        return item;
+    }
+
+    void reject(Item item, String error) {
+        item.error = error;
+    }
+
+    void commit(Item item, Appointment appointment) {
+        item.appointment = appointment;
+    }
+
+    void setCommitted(boolean committed) {
+        this.committed = committed;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public ArrayList<Item> getItems() {
+        return items;
+    }
+
+    public int getFailureCount() {
+        int count = 0;
+        for (Item item : items) {
+            if (!item.isOk()) count++;
+        }
+        return count;
+    }
+
+    public String getReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Batch ").append(committed ? "COMMITTED" : "REJECTED")
+          .append(" (").append(items.size()).append(" requests, ")
+          .append(getFailureCount()).append(" failed)\n");
+        for (Item item : items) {
+            sb.append("  #").append(item.index + 1).append(' ')
+              .append(item.request.getRequestDetails()).append(": ");
+            if (!item.isOk()) {
+                sb.append("FAILED - ").append(item.error);
+            } else if (item.appointment != null) {
+                sb.append("OK - ").append(item.appointment.getAppointmentId());
+            } else {
+                sb.append("OK - not booked (batch rejected)");
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
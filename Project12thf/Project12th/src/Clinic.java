@@ -1,4 +1,27 @@
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Consumer;
+import java.text.SimpleDateFormat;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
 public class Clinic implements Serializable {
@@ -6,26 +29,168 @@ public class Clinic implements Serializable {
     private String name;
     private String address;
     private String phone;
-    private ArrayList<Doctor> doctors;
-    private ArrayList<Patient> patients;
-    private ArrayList<Appointment> appointments;
-    private ArrayList<FinancialService> financialServices;
-    private ArrayList<Medical_Document> medicalDocuments;
-    private ArrayList<Health_Report> healthReports;
-    private AppointmentValidator appointmentValidator;
+    private Waitlist waitlist;
+    private CopyOnWriteArrayList<AppointmentSeries> appointmentSeries;
+
+    // Doctors, patients, appointments and records. Replaced as a whole on every
+    // change, so readers just take the current one and never need a lock.
+    private transient volatile ClinicSnapshot state;
+
+    // Saved as plain lists under their old names, so the file format is unchanged
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("clinicId", String.class),
+        new ObjectStreamField("name", String.class),
+        new ObjectStreamField("address", String.class),
+        new ObjectStreamField("phone", String.class),
+        new ObjectStreamField("doctors", ArrayList.class),
+        new ObjectStreamField("patients", ArrayList.class),
+        new ObjectStreamField("appointments", ArrayList.class),
+        new ObjectStreamField("financialServices", ArrayList.class),
+        new ObjectStreamField("medicalDocuments", ArrayList.class),
+        new ObjectStreamField("healthReports", ArrayList.class),
+        new ObjectStreamField("appointmentValidator", AppointmentValidator.class), // no longer used; read and ignored, written as null
+        new ObjectStreamField("waitlist", Waitlist.class),
+        new ObjectStreamField("appointmentSeries", CopyOnWriteArrayList.class)
+    };
+
+    // Booking concurrency - rebuilt after loading, never saved
+    private transient StampedLock stateLock; // one writer of state at a time
+    private transient StripedLock doctorLocks;
+    private transient Set<String> bookedKeys; // "D|doctorId|time" and "P|patientId|time" of active appointments
+    private transient EventBus eventBus;
+    private transient ReentrantLock editLock; // in-place edits of entities, and writing the clinic out
+    private transient HashMap<String, Appointment> replicatedAppointments; // id lookup, built on a follower only
+
+    // This process's changes since the clinic was last saved: per entity, the event
+    // that added it here (if any) and its latest one, in the order entities were
+    // first changed. Replayed onto another terminal's newer save; see rebaseOnto()
+    private transient LinkedHashMap<String, Pending> journal; // guarded by itself
+    private transient ReentrantReadWriteLock mergeLock; // every change holds it to read; rebaseOnto() to write
+    private static final long MERGE_WAIT_MILLIS = 2000;
+
+    private static final class Pending {
+        ClinicEvent added;
+        ClinicEvent latest;
+        long sequence; // the change count once the latest event was made
+    }
+
+    // Counts every change, so saving can skip a clinic without looking at its data
+    private transient AtomicLong changeCount;
+    private transient volatile long savedChangeCount;
+    private transient volatile long lastChange; // when the newest change was made, on whichever process made it
 
     public Clinic(String name, String address, String phone) {
         this.clinicId = IdGenerator.generateClinicId();
         this.name = name;
         this.address = address;
         this.phone = phone;
-        this.doctors = new ArrayList<>();
-        this.patients = new ArrayList<>();
-        this.appointments = new ArrayList<>();
-        this.financialServices = new ArrayList<>();
-        this.medicalDocuments = new ArrayList<>();
-        this.healthReports = new ArrayList<>();
-        this.appointmentValidator = new AppointmentCheckerImpl();
+        this.state = ClinicSnapshot.empty();
+        this.waitlist = new Waitlist();
+        this.appointmentSeries = new CopyOnWriteArrayList<>();
+        this.stateLock = new StampedLock();
+        this.doctorLocks = new StripedLock();
+        this.bookedKeys = ConcurrentHashMap.newKeySet();
+        this.eventBus = new EventBus();
+        this.editLock = new ReentrantLock();
+        this.changeCount = new AtomicLong();
+        this.journal = new LinkedHashMap<>();
+        this.mergeLock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Which doctors, patients, appointments and records the clinic has right
+     * now, in O(1). The lists stay the same however long they are kept; the
+     * objects in them are the live ones, so a status or price read later may
+     * have been edited since.
+     */
+    public ClinicSnapshot snapshot() {
+        return state;
+    }
+
+    // Saving, statistics and screen refreshes subscribe here instead of being called by every edit
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+
+    private void publish(ClinicEvent.Type type, String entityId, Serializable subject) {
+        ClinicEvent event = new ClinicEvent(type, clinicId, entityId, subject);
+        synchronized (journal) {
+            changed();
+            Pending pending = journal.computeIfAbsent(type.getEntity() + "|" + entityId, key -> new Pending());
+            if (type.getChange() == ClinicEvent.Change.ADDED && pending.added == null) {
+                pending.added = event;
+            } else {
+                pending.latest = event;
+            }
+            pending.sequence = changeCount.get();
+        }
+        deliver(event);
+    }
+
+    private void deliver(ClinicEvent event) {
+        if (eventBus.hasSubscribers()) {
+            eventBus.publish(event);
+        }
+    }
+
+    /**
+     * Edit an entity in place (a doctor's phone, an invoice's items) and tell
+     * subscribers, so it is saved and open screens redraw its row. The edit
+     * runs under the lock that is held while the clinic is written out, so a
+     * save never sees it half done. Only for UPDATED types; adding and
+     * removing publish their own events.
+     */
+    public <T extends Serializable> void update(ClinicEvent.Type type, String entityId, T entity, Consumer<? super T> edit) {
+        if (type.getChange() != ClinicEvent.Change.UPDATED) {
+            throw new IllegalArgumentException(type + " is not an update");
+        }
+        mergeLock.readLock().lock();
+        try {
+            editLock.lock();
+            try {
+                edit.accept(entity);
+            } finally {
+                editLock.unlock();
+            }
+            publish(type, entityId, entity);
+        } finally {
+            mergeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Note that the clinic should be written at the next save even though no
+     * event said so. Edits made this way are not merged with another
+     * terminal's save; use update() for those.
+     */
+    public void changed() {
+        changeCount.incrementAndGet();
+        lastChange = System.currentTimeMillis();
+    }
+
+    // Read before writing the clinic out; pass the same value to markSaved() once written
+    long getChangeCount() {
+        return changeCount.get();
+    }
+
+    void markSaved(long count) {
+        savedChangeCount = count;
+        synchronized (journal) {
+            journal.values().removeIf(pending -> pending.sequence <= count);
+        }
+    }
+
+    boolean hasUnsavedChanges() {
+        return changeCount.get() != savedChangeCount;
+    }
+
+    // Saved with the clinic, so a promoted follower can tell whether the shard is newer than its copy
+    long getLastChange() {
+        return lastChange;
+    }
+
+    void setLastChange(long millis) {
+        lastChange = millis;
     }
 
     // Getters
@@ -45,158 +210,1219 @@ public class Clinic implements Serializable {
         return phone;
     }
 
-    public ArrayList<Doctor> getDoctors() {
-        return doctors;
+    // Read-only lists from the current snapshot
+    public List<Doctor> getDoctors() {
+        return state.getDoctors();
     }
 
-    public ArrayList<Patient> getPatients() {
-        return patients;
+    public List<Patient> getPatients() {
+        return state.getPatients();
     }
 
-    public ArrayList<Appointment> getAppointments() {
-        return appointments;
+    public List<Appointment> getAppointments() {
+        return state.getAppointments();
     }
 
-    public ArrayList<FinancialService> getFinancialServices() {
-        return financialServices;
+    public List<FinancialService> getFinancialServices() {
+        return state.getFinancialServices();
     }
 
     public void addFinancialService(FinancialService service) {
-        financialServices.add(service);
+        mergeLock.readLock().lock();
+        try {
+            long stamp = stateLock.writeLock();
+            try {
+                state = state.withFinancialServices(state.getFinancialServices().with(service));
+            } finally {
+                stateLock.unlockWrite(stamp);
+            }
+            publish(ClinicEvent.Type.PAYMENT_PROCESSED, service.getId(), service);
+        } finally {
+            mergeLock.readLock().unlock();
+        }
     }
 
-    public ArrayList<Medical_Document> getMedicalDocuments() {
-        return medicalDocuments;
+    public List<Medical_Document> getMedicalDocuments() {
+        return state.getMedicalDocuments();
     }
 
     public void addMedicalDocument(Medical_Document document) {
-        medicalDocuments.add(document);
+        mergeLock.readLock().lock();
+        try {
+            long stamp = stateLock.writeLock();
+            try {
+                state = state.withMedicalDocuments(state.getMedicalDocuments().with(document));
+            } finally {
+                stateLock.unlockWrite(stamp);
+            }
+            publish(ClinicEvent.Type.MEDICAL_DOCUMENT_ADDED, document.getDocId(), document);
+        } finally {
+            mergeLock.readLock().unlock();
+        }
     }
 
-    public ArrayList<Health_Report> getHealthReports() {
-        return healthReports;
+    public List<Health_Report> getHealthReports() {
+        return state.getHealthReports();
     }
 
     public void addHealthReport(Health_Report report) {
-        healthReports.add(report);
+        mergeLock.readLock().lock();
+        try {
+            long stamp = stateLock.writeLock();
+            try {
+                state = state.withHealthReports(state.getHealthReports().with(report));
+            } finally {
+                stateLock.unlockWrite(stamp);
+            }
+            publish(ClinicEvent.Type.HEALTH_REPORT_ADDED, report.getReportId(), report);
+        } finally {
+            mergeLock.readLock().unlock();
+        }
+    }
+
+    public Waitlist getWaitlist() {
+        return waitlist;
+    }
+
+    public CopyOnWriteArrayList<AppointmentSeries> getAppointmentSeries() {
+        return appointmentSeries;
     }
 
     // Doctors Management
     public boolean isDoctorRegistered(String doctorId) {
-        for (Doctor doctor : doctors) {
-            if (doctor.getId().equals(doctorId)) {
-                return true;
-            }
-        }
-        return false;
+        return findDoctor(doctorId) != null;
     }
 
     public void addDoctor(Doctor doctor) {
-        if (doctor != null) {
-            if (isDoctorRegistered(doctor.getId())) {
-                System.out.println("Error: Dr. " + doctor.getName() + " (ID: " + doctor.getId() + ") is already registered in the clinic!");
+        mergeLock.readLock().lock();
+        try {
+            if (doctor != null) {
+                boolean added = false;
+                long stamp = stateLock.writeLock();
+                try {
+                    if (findDoctor(doctor.getId()) != null) {
+                        System.out.println("Error: Dr. " + doctor.getName() + " (ID: " + doctor.getId() + ") is already registered in the clinic!");
+                    } else {
+                        state = state.withDoctors(state.getDoctors().with(doctor));
+                        added = true;
+                        System.out.println("Dr. " + doctor.getName() + " added to the clinic successfully!");
+                    }
+                } finally {
+                    stateLock.unlockWrite(stamp);
+                }
+                if (added) {
+                    publish(ClinicEvent.Type.DOCTOR_ADDED, doctor.getId(), doctor);
+                }
             } else {
-                doctors.add(doctor);
-                System.out.println("Dr. " + doctor.getName() + " added to the clinic successfully!");
+                System.out.println("Error: Doctor cannot be null!");
             }
-        } else {
-            System.out.println("Error: Doctor cannot be null!");
+        } finally {
+            mergeLock.readLock().unlock();
         }
     }
 
     public void removeDoctor(String doctorId) {
-        boolean found = false;
-        for (int i = 0; i < doctors.size(); i++) {
-            if (doctors.get(i).getId().equals(doctorId)) {
-                String doctorName = doctors.get(i).getName();
-                doctors.remove(i);
-                System.out.println("Dr. " + doctorName + " removed from the clinic.");
-                found = true;
-                break;
+        mergeLock.readLock().lock();
+        try {
+            Doctor removed = null;
+            long stamp = stateLock.writeLock();
+            try {
+                SnapshotList<Doctor> doctors = state.getDoctors();
+                for (int i = 0; i < doctors.size(); i++) {
+                    if (doctors.get(i).getId().equals(doctorId)) {
+                        removed = doctors.get(i);
+                        state = state.withDoctors(doctors.without(i));
+                        System.out.println("Dr. " + removed.getName() + " removed from the clinic.");
+                        break;
+                    }
+                }
+            } finally {
+                stateLock.unlockWrite(stamp);
             }
-        }
-        if (!found) {
-            System.out.println("Error: Doctor with ID " + doctorId + " not found!");
+            if (removed == null) {
+                System.out.println("Error: Doctor with ID " + doctorId + " not found!");
+            } else {
+                publish(ClinicEvent.Type.DOCTOR_REMOVED, doctorId, removed);
+            }
+        } finally {
+            mergeLock.readLock().unlock();
         }
     }
 
     // Patients Management
     public boolean isPatientRegistered(String patientId) {
-        for (Patient patient : patients) {
-            if (patient.getId().equals(patientId)) {
+        return findPatient(patientId) != null;
+    }
+
+    public void registerPatient(Patient patient) {
+        mergeLock.readLock().lock();
+        try {
+            if (patient != null) {
+                boolean added = false;
+                long stamp = stateLock.writeLock();
+                try {
+                    if (findPatient(patient.getId()) != null) {
+                        System.out.println("Error: Patient " + patient.getName() + " (ID: " + patient.getId() + ") is already registered!");
+                    } else {
+                        state = state.withPatients(state.getPatients().with(patient));
+                        added = true;
+                        System.out.println("Patient " + patient.getName() + " registered successfully!");
+                    }
+                } finally {
+                    stateLock.unlockWrite(stamp);
+                }
+                if (added) {
+                    publish(ClinicEvent.Type.PATIENT_REGISTERED, patient.getId(), patient);
+                }
+            } else {
+                System.out.println("Error: Patient cannot be null!");
+            }
+        } finally {
+            mergeLock.readLock().unlock();
+        }
+    }
+
+    public void removePatient(String patientId) {
+        mergeLock.readLock().lock();
+        try {
+            Patient removed = null;
+            long stamp = stateLock.writeLock();
+            try {
+                SnapshotList<Patient> patients = state.getPatients();
+                for (int i = 0; i < patients.size(); i++) {
+                    if (patients.get(i).getId().equals(patientId)) {
+                        removed = patients.get(i);
+                        state = state.withPatients(patients.without(i));
+                        System.out.println("Patient " + removed.getName() + " removed from the clinic.");
+                        break;
+                    }
+                }
+            } finally {
+                stateLock.unlockWrite(stamp);
+            }
+            if (removed == null) {
+                System.out.println("Error: Patient with ID " + patientId + " not found!");
+            } else {
+                publish(ClinicEvent.Type.PATIENT_REMOVED, patientId, removed);
+            }
+        } finally {
+            mergeLock.readLock().unlock();
+        }
+    }
+
+    // Appointments Management
+    /**
+     * Check that the slot is free and book it in one step.
+     * The check and the booking happen under the doctor's stripe lock, so two
+     * front desks (or a background job) can't both take the same slot, while
+     * bookings for other doctors carry on in parallel.
+     * Returns the new appointment, or null if the slot or the patient is already taken.
+     */
+    public Appointment bookAppointment(Patient patient, Doctor doctor, String date, String time, String reason) {
+        mergeLock.readLock().lock();
+        try {
+            Appointment appointment = book(patient, doctor, date, time, reason);
+            if (appointment != null) {
+                publish(ClinicEvent.Type.APPOINTMENT_SCHEDULED, appointment.getAppointmentId(), appointment);
+            }
+            return appointment;
+        } finally {
+            mergeLock.readLock().unlock();
+        }
+    }
+
+    // The booking itself; events are left to the caller so they go out after the locks are released
+    private Appointment book(Patient patient, Doctor doctor, String date, String time, String reason) {
+        if (patient == null || doctor == null) {
+            System.out.println("Error: Patient and doctor are required!");
+            return null;
+        }
+        Date when = new AppointmentRequest(patient, doctor, date, time, reason).toDate();
+        if (when == null) {
+            System.out.println("Error: Invalid date/time: " + date + " " + time);
+            return null;
+        }
+
+        String doctorKey = doctorKey(doctor.getId(), when.getTime());
+        String patientKey = patientKey(patient.getId(), when.getTime());
+
+        ReentrantLock lock = doctorLocks.lockFor(doctor.getId());
+        lock.lock();
+        try {
+            if (!doctor.isTimeSlotAvailable(date, time) || bookedKeys.contains(doctorKey)) {
+                System.out.println("Error: Dr. " + doctor.getName() + " is already booked at " + date + " " + time);
+                return null;
+            }
+            if (seriesConflict(doctor.getId(), patient.getId(), when)) {
+                System.out.println("Error: A recurring appointment already takes " + date + " " + time);
+                return null;
+            }
+            // The patient may be booking with another doctor at the same moment,
+            // so their key is claimed with an atomic add instead of a lock
+            if (!bookedKeys.add(patientKey)) {
+                System.out.println("Error: Patient " + patient.getName() + " already has an appointment at " + date + " " + time);
+                return null;
+            }
+            bookedKeys.add(doctorKey);
+            doctor.bookTimeSlot(date, time);
+
+            Appointment appointment = new Appointment(patient, doctor, when, "SCHEDULED", reason);
+            long stamp = stateLock.writeLock();
+            try {
+                state = state.withAppointments(state.getAppointments().with(appointment));
+            } finally {
+                stateLock.unlockWrite(stamp);
+            }
+            appointment.scheduleAppointment();
+            return appointment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cancel an appointment and give its slot back.
+     * If patients are waiting for that doctor and day, the freed slot goes
+     * straight to the highest-priority one.
+     * Returns the waitlist appointment that took the slot, or null if nobody did.
+     */
+    public Appointment cancelAppointment(Appointment appointment) {
+        mergeLock.readLock().lock();
+        try {
+            if (appointment == null || !appointment.isActive()) {
+                System.out.println("Error: Only scheduled appointments can be cancelled!");
+                return null;
+            }
+            Doctor doctor = appointment.getDoctor();
+            Appointment refill;
+            ReentrantLock lock = doctorLocks.lockFor(doctor.getId());
+            lock.lock();
+            try {
+                if (!appointment.isActive()) {
+                    // cancelled or moved by someone else since the check above
+                    System.out.println("Error: Only scheduled appointments can be cancelled!");
+                    return null;
+                }
+                String date = appointment.getSlotDate();
+                String time = appointment.getSlotTime();
+                releaseKeys(appointment);
+                appointment.cancelAppointment();
+                refill = fillFromWaitlist(doctor, date, time);
+            } finally {
+                lock.unlock();
+            }
+            publish(ClinicEvent.Type.APPOINTMENT_CANCELLED, appointment.getAppointmentId(), appointment);
+            if (refill != null) {
+                publish(ClinicEvent.Type.APPOINTMENT_SCHEDULED, refill.getAppointmentId(), refill);
+                publishWaitlistTaken(refill);
+            }
+            return refill;
+        } finally {
+            mergeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Mark an appointment as completed. Fails if its checkup hasn't been done.
+     */
+    public boolean completeAppointment(Appointment appointment) {
+        mergeLock.readLock().lock();
+        try {
+            if (appointment == null || !appointment.completeAppointment()) {
+                return false;
+            }
+            publish(ClinicEvent.Type.APPOINTMENT_COMPLETED, appointment.getAppointmentId(), appointment);
+            return true;
+        } finally {
+            mergeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Move an appointment to a new slot with the same doctor.
+     * The new slot is checked and booked under the doctor's lock, the old one is
+     * released and offered to the waitlist. Returns false if the new slot is taken.
+     */
+    public boolean rescheduleAppointment(Appointment appointment, String date, String time) {
+        mergeLock.readLock().lock();
+        try {
+            if (appointment == null || !appointment.isActive()) {
+                System.out.println("Error: Only scheduled appointments can be rescheduled!");
+                return false;
+            }
+            Date when = new AppointmentRequest(appointment.getPatient(), appointment.getDoctor(), date, time, appointment.getReason()).toDate();
+            if (when == null) {
+                System.out.println("Error: Invalid date/time: " + date + " " + time);
+                return false;
+            }
+            Doctor doctor = appointment.getDoctor();
+            String doctorKey = doctorKey(doctor.getId(), when.getTime());
+            String patientKey = patientKey(appointment.getPatient().getId(), when.getTime());
+
+            Appointment refill;
+            ReentrantLock lock = doctorLocks.lockFor(doctor.getId());
+            lock.lock();
+            try {
+                if (!appointment.isActive()) {
+                    System.out.println("Error: Only scheduled appointments can be rescheduled!");
+                    return false;
+                }
+                if (!doctor.isTimeSlotAvailable(date, time) || bookedKeys.contains(doctorKey)) {
+                    System.out.println("Error: Dr. " + doctor.getName() + " is already booked at " + date + " " + time);
+                    return false;
+                }
+                if (seriesConflict(doctor.getId(), appointment.getPatient().getId(), when)) {
+                    System.out.println("Error: A recurring appointment already takes " + date + " " + time);
+                    return false;
+                }
+                if (!bookedKeys.add(patientKey)) {
+                    System.out.println("Error: Patient " + appointment.getPatient().getName() + " already has an appointment at " + date + " " + time);
+                    return false;
+                }
+                String oldDate = appointment.getSlotDate();
+                String oldTime = appointment.getSlotTime();
+                releaseKeys(appointment);
+                if (!appointment.rescheduleAppointment(when)) {
+                    // completed in the meantime; it keeps its old slot
+                    bookedKeys.remove(patientKey);
+                    claimKeys(appointment);
+                    return false;
+                }
+                bookedKeys.add(doctorKey);
+                refill = fillFromWaitlist(doctor, oldDate, oldTime);
+            } finally {
+                lock.unlock();
+            }
+            publish(ClinicEvent.Type.APPOINTMENT_RESCHEDULED, appointment.getAppointmentId(), appointment);
+            if (refill != null) {
+                publish(ClinicEvent.Type.APPOINTMENT_SCHEDULED, refill.getAppointmentId(), refill);
+                publishWaitlistTaken(refill);
+            }
+            return true;
+        } finally {
+            mergeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Put a cancelled appointment back on the calendar, if its slot is still free.
+     */
+    public boolean restoreAppointment(Appointment appointment) {
+        mergeLock.readLock().lock();
+        try {
+            if (appointment == null || !appointment.getStatus().equals("CANCELLED")) {
+                System.out.println("Error: Only cancelled appointments can be restored!");
+                return false;
+            }
+            Doctor doctor = appointment.getDoctor();
+            long time = appointment.getDate().getTime();
+            ReentrantLock lock = doctorLocks.lockFor(doctor.getId());
+            lock.lock();
+            try {
+                String date = appointment.getSlotDate();
+                String slotTime = appointment.getSlotTime();
+                if (!doctor.isTimeSlotAvailable(date, slotTime) || bookedKeys.contains(doctorKey(doctor.getId(), time))
+                        || seriesConflict(doctor.getId(), appointment.getPatient().getId(), appointment.getDate())) {
+                    System.out.println("Error: That slot has been given to someone else.");
+                    return false;
+                }
+                if (!bookedKeys.add(patientKey(appointment.getPatient().getId(), time))) {
+                    System.out.println("Error: Patient " + appointment.getPatient().getName() + " already has an appointment at that time.");
+                    return false;
+                }
+                bookedKeys.add(doctorKey(doctor.getId(), time));
+                doctor.bookTimeSlot(date, slotTime);
+                appointment.setStatus("SCHEDULED");
+            } finally {
+                lock.unlock();
+            }
+            publish(ClinicEvent.Type.APPOINTMENT_RESTORED, appointment.getAppointmentId(), appointment);
+            return true;
+        } finally {
+            mergeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add a recurring appointment series. Only the rule is stored; it is rejected
+     * if one of its visits lands on an existing appointment or another series
+     * of the same doctor or patient (other series are checked a year ahead).
+     */
+    public boolean addAppointmentSeries(AppointmentSeries series) {
+        mergeLock.readLock().lock();
+        try {
+            if (series == null || series.getPatient() == null || series.getDoctor() == null) {
+                System.out.println("Error: Series needs a patient and a doctor!");
+                return false;
+            }
+            if (!isPatientRegistered(series.getPatient().getId()) || !isDoctorRegistered(series.getDoctor().getId())) {
+                System.out.println("Error: Patient and doctor must be registered in this clinic!");
+                return false;
+            }
+            String doctorId = series.getDoctor().getId();
+            String patientId = series.getPatient().getId();
+            ReentrantLock lock = doctorLocks.lockFor(doctorId);
+            lock.lock();
+            try {
+                for (Appointment appointment : state.getAppointments()) {
+                    if (!appointment.getStatus().equals("CANCELLED")
+                            && (appointment.getDoctor().getId().equals(doctorId) || appointment.getPatient().getId().equals(patientId))
+                            && series.occursAt(appointment.getDate())) {
+                        System.out.println("Error: Series clashes with appointment " + appointment.getAppointmentId());
+                        return false;
+                    }
+                }
+                Date from = series.getRule().getStart();
+                Date to = new Date(from.getTime() + 366L * 24 * 60 * 60 * 1000);
+                for (AppointmentSeries other : appointmentSeries) {
+                    if (!other.getDoctor().getId().equals(doctorId) && !other.getPatient().getId().equals(patientId)) {
+                        continue;
+                    }
+                    for (AppointmentSeries.Occurrence occurrence : series.getOccurrences(from, to)) {
+                        if (other.occursAt(occurrence.getDate())) {
+                            System.out.println("Error: Series clashes with series " + other.getSeriesId());
+                            return false;
+                        }
+                    }
+                }
+                appointmentSeries.add(series);
+                System.out.println("Recurring series " + series.getSeriesId() + " added: " + series.getRule().getRuleDetails());
+            } finally {
+                lock.unlock();
+            }
+            publish(ClinicEvent.Type.SERIES_ADDED, series.getSeriesId(), series);
+            return true;
+        } finally {
+            mergeLock.readLock().unlock();
+        }
+    }
+
+    // Visits of every series in a time range, generated on demand
+    public ArrayList<AppointmentSeries.Occurrence> getSeriesOccurrences(Date from, Date to) {
+        ArrayList<AppointmentSeries.Occurrence> result = new ArrayList<>();
+        for (AppointmentSeries series : appointmentSeries) {
+            result.addAll(series.getOccurrences(from, to));
+        }
+        result.sort((a, b) -> a.getDate().compareTo(b.getDate()));
+        return result;
+    }
+
+    /**
+     * The doctor's open dates ("Monday - dd/MM/yyyy"), leaving out days that
+     * visits of recurring series have filled. Only days with such a visit are
+     * checked slot by slot.
+     */
+    public List<String> getAvailableDates(Doctor doctor) {
+        List<String> dates = doctor.getAvailableDates();
+        HashSet<String> seriesDays = new HashSet<>();
+        Date from = new Date();
+        Date to = new Date(from.getTime() + doctor.getAvailabilityHorizonDays() * 86_400_000L);
+        SimpleDateFormat dayFormat = new SimpleDateFormat("dd/MM/yyyy");
+        for (AppointmentSeries series : appointmentSeries) {
+            if (series.getDoctor().getId().equals(doctor.getId())) {
+                for (AppointmentSeries.Occurrence occurrence : series.getOccurrences(from, to)) {
+                    seriesDays.add(dayFormat.format(occurrence.getDate()));
+                }
+            }
+        }
+        if (seriesDays.isEmpty()) {
+            return dates;
+        }
+        ArrayList<String> open = new ArrayList<>();
+        for (String label : dates) {
+            String day = label.contains(" - ") ? label.split(" - ")[1] : label;
+            if (!seriesDays.contains(day) || !getAvailableTimes(doctor, day).isEmpty()) {
+                open.add(label);
+            }
+        }
+        return open;
+    }
+
+    // Free times for a doctor on a day, leaving out visits of recurring series
+    public ArrayList<String> getAvailableTimes(Doctor doctor, String date) {
+        ArrayList<String> times = doctor.getAvailableTimesForDate(date);
+        if (appointmentSeries.isEmpty()) {
+            return times;
+        }
+        ArrayList<String> free = new ArrayList<>();
+        for (String time : times) {
+            Date when = new AppointmentRequest(null, doctor, date, time, null).toDate();
+            if (when == null || !seriesConflict(doctor.getId(), null, when)) {
+                free.add(time);
+            }
+        }
+        return free;
+    }
+
+    private boolean seriesConflict(String doctorId, String patientId, Date when) {
+        for (AppointmentSeries series : appointmentSeries) {
+            boolean sameDoctor = series.getDoctor().getId().equals(doctorId);
+            boolean samePatient = patientId != null && series.getPatient().getId().equals(patientId);
+            if ((sameDoctor || samePatient) && series.occursAt(when)) {
                 return true;
             }
         }
         return false;
     }
 
-    public void registerPatient(Patient patient) {
-        if (patient != null) {
-            if (isPatientRegistered(patient.getId())) {
-                System.out.println("Error: Patient " + patient.getName() + " (ID: " + patient.getId() + ") is already registered!");
+    public void addToWaitlist(WaitlistEntry entry) {
+        mergeLock.readLock().lock();
+        try {
+            if (entry == null || entry.getPatient() == null || entry.getDoctor() == null) {
+                System.out.println("Error: Waitlist entry needs a patient and a doctor!");
+                return;
+            }
+            waitlist.add(entry);
+            publish(ClinicEvent.Type.WAITLIST_ADDED, entry.getKey(), entry);
+        } finally {
+            mergeLock.readLock().unlock();
+        }
+    }
+
+    // The waitlist entry that a freed slot was given to has left the waitlist
+    private void publishWaitlistTaken(Appointment refill) {
+        publish(ClinicEvent.Type.WAITLIST_REMOVED,
+            WaitlistEntry.keyOf(refill.getPatient().getId(), refill.getDoctor().getId(), refill.getSlotDate()), null);
+    }
+
+    // Offer a freed slot to the waitlist. Must be called holding the doctor's lock.
+    private Appointment fillFromWaitlist(Doctor doctor, String date, String time) {
+        ArrayList<WaitlistEntry> skipped = new ArrayList<>();
+        Appointment filled = null;
+        WaitlistEntry entry;
+        while (filled == null && (entry = waitlist.poll(doctor.getId(), date)) != null) {
+            filled = book(entry.getPatient(), doctor, date, time, entry.getReason());
+            if (filled == null) {
+                // Patient is busy at that time - keep their place for another slot
+                skipped.add(entry);
             } else {
-                patients.add(patient);
-                System.out.println("Patient " + patient.getName() + " registered successfully!");
+                System.out.println("Freed slot " + date + " " + time + " given to waitlisted patient " + entry.getPatient().getName());
             }
-        } else {
-            System.out.println("Error: Patient cannot be null!");
         }
+        for (WaitlistEntry waiting : skipped) {
+            waitlist.restore(waiting);
+        }
+        return filled;
     }
 
-    public void removePatient(String patientId) {
-        boolean found = false;
-        for (int i = 0; i < patients.size(); i++) {
-            if (patients.get(i).getId().equals(patientId)) {
-                String patientName = patients.get(i).getName();
-                patients.remove(i);
-                System.out.println("Patient " + patientName + " removed from the clinic.");
-                found = true;
+    /**
+     * Book a whole batch of appointments - all of them or none.
+     * Every request is checked in one pass against the booked-slot indexes
+     * and against the earlier requests of the same batch.
+     * Nothing is changed unless every request is valid. A committed batch is
+     * published as one APPOINTMENTS_SCHEDULED event, so it is saved once.
+     */
+    public BatchScheduleResult scheduleAppointments(ArrayList<AppointmentRequest> requests) {
+        mergeLock.readLock().lock();
+        try {
+            BatchScheduleResult result = new BatchScheduleResult();
+            if (requests == null || requests.isEmpty()) {
+                System.out.println("Error: Appointment batch is empty!");
+                return result;
+            }
+
+            // Lock every doctor in the batch, always in stripe order so two batches can't deadlock
+            TreeSet<Integer> stripes = new TreeSet<>();
+            for (AppointmentRequest request : requests) {
+                if (request != null && request.getDoctor() != null) {
+                    stripes.add(doctorLocks.stripeIndex(request.getDoctor().getId()));
+                }
+            }
+            ArrayList<ReentrantLock> held = new ArrayList<>();
+            for (int index : stripes) {
+                ReentrantLock lock = doctorLocks.lockAt(index);
+                lock.lock();
+                held.add(lock);
+            }
+
+            try {
+                scheduleLockedBatch(requests, result);
+            } finally {
+                for (int i = held.size() - 1; i >= 0; i--) {
+                    held.get(i).unlock();
+                }
+            }
+            if (result.isCommitted()) {
+                // One event for the whole batch, so it is saved and redrawn once
+                ArrayList<Appointment> booked = new ArrayList<>();
+                for (BatchScheduleResult.Item item : result.getItems()) {
+                    booked.add(item.getAppointment());
+                }
+                publish(ClinicEvent.Type.APPOINTMENTS_SCHEDULED, booked.get(0).getAppointmentId(), booked);
+            }
+            return result;
+        } finally {
+            mergeLock.readLock().unlock();
+        }
+    }
+
+    private BatchScheduleResult scheduleLockedBatch(ArrayList<AppointmentRequest> requests, BatchScheduleResult result) {
+        // Keys claimed by earlier requests of this batch
+        HashSet<String> batchKeys = new HashSet<>();
+        ArrayList<Date> dates = new ArrayList<>();
+        boolean valid = true;
+
+        for (AppointmentRequest request : requests) {
+            BatchScheduleResult.Item item = result.addItem(request);
+            Date date = request == null ? null : request.toDate();
+            dates.add(date);
+
+            String error = null;
+            if (request == null) {
+                error = "Request cannot be null";
+            } else if (request.getPatient() == null || !isPatientRegistered(request.getPatient().getId())) {
+                error = "Patient is not registered in this clinic";
+            } else if (request.getDoctor() == null || !isDoctorRegistered(request.getDoctor().getId())) {
+                error = "Doctor is not registered in this clinic";
+            } else if (date == null) {
+                error = "Invalid date/time: " + request.getDate() + " " + request.getTime();
+            } else {
+                Doctor doctor = request.getDoctor();
+                String slot = doctor.getId() + "|" + request.getDate() + "|" + request.getTime();
+                String doctorKey = doctorKey(doctor.getId(), date.getTime());
+                String patientKey = patientKey(request.getPatient().getId(), date.getTime());
+                if (!doctor.isTimeSlotAvailable(request.getDate(), request.getTime()) || !batchKeys.add(slot)) {
+                    error = "Dr. " + doctor.getName() + " is already booked at " + request.getDate() + " " + request.getTime();
+                } else if (bookedKeys.contains(doctorKey) || !batchKeys.add(doctorKey)) {
+                    error = "Dr. " + doctor.getName() + " already has an appointment at that time";
+                } else if (bookedKeys.contains(patientKey) || !batchKeys.add(patientKey)) {
+                    error = "Patient " + request.getPatient().getName() + " already has an appointment at that time";
+                } else if (seriesConflict(doctor.getId(), request.getPatient().getId(), date)) {
+                    error = "A recurring appointment already takes that time";
+                }
+            }
+
+            if (error != null) {
+                result.reject(item, error);
+                valid = false;
+            }
+        }
+
+        if (valid) {
+            // Patients aren't covered by the doctor locks, so claim their keys
+            // atomically and back out if another booking got there first
+            ArrayList<String> claimed = new ArrayList<>();
+            for (int i = 0; i < requests.size() && valid; i++) {
+                String patientKey = patientKey(requests.get(i).getPatient().getId(), dates.get(i).getTime());
+                if (bookedKeys.add(patientKey)) {
+                    claimed.add(patientKey);
+                } else {
+                    result.reject(result.getItems().get(i), "Patient " + requests.get(i).getPatient().getName() + " was just booked at that time");
+                    valid = false;
+                }
+            }
+            if (!valid) {
+                bookedKeys.removeAll(claimed);
+            }
+        }
+
+        if (!valid) {
+            System.out.println("Appointment batch rejected: " + result.getFailureCount() + " of " + requests.size() + " requests failed.");
+            return result;
+        }
+
+        // Everything checked out - commit the whole batch
+        ArrayList<Appointment> created = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            AppointmentRequest request = requests.get(i);
+            Appointment appointment = new Appointment(request.getPatient(), request.getDoctor(), dates.get(i), "SCHEDULED", request.getReason());
+            bookedKeys.add(doctorKey(request.getDoctor().getId(), dates.get(i).getTime()));
+            request.getDoctor().bookTimeSlot(request.getDate(), request.getTime());
+            created.add(appointment);
+            result.commit(result.getItems().get(i), appointment);
+        }
+        long stamp = stateLock.writeLock();
+        try {
+            // One new snapshot for the whole batch, so readers see all of it or none
+            state = state.withAppointments(state.getAppointments().withAll(created));
+        } finally {
+            stateLock.unlockWrite(stamp);
+        }
+        for (Appointment appointment : created) {
+            appointment.scheduleAppointment();
+        }
+        result.setCommitted(true);
+        System.out.println("Appointment batch committed: " + requests.size() + " appointments scheduled.");
+        return result;
+    }
+
+    // ========== REPLICATION (follower side) ==========
+
+    /**
+     * Apply a change shipped from a primary process. The subject is a copy, so
+     * entities are matched by id and the copy's appointments are pointed at
+     * this clinic's own doctors and patients. Applying a change twice is
+     * harmless, which lets a follower replay changes that overlap its snapshot.
+     */
+    void applyReplicated(ClinicEvent event) {
+        String id = event.getEntityId();
+        Serializable applied = event.getSubject();
+        mergeLock.readLock().lock();
+        long stamp = stateLock.writeLock();
+        editLock.lock(); // the UPDATED cases edit entities in place
+        try {
+            switch (event.getType()) {
+                case DOCTOR_ADDED:
+                    if (findDoctor(id) == null) {
+                        state = state.withDoctors(state.getDoctors().with((Doctor) applied));
+                    }
+                    break;
+                case DOCTOR_REMOVED: {
+                    int index = indexOf(state.getDoctors(), Doctor::getId, id);
+                    if (index >= 0) {
+                        state = state.withDoctors(state.getDoctors().without(index));
+                    }
+                    break;
+                }
+                case PATIENT_REGISTERED:
+                    if (findPatient(id) == null) {
+                        state = state.withPatients(state.getPatients().with((Patient) applied));
+                    }
+                    break;
+                case PATIENT_REMOVED: {
+                    int index = indexOf(state.getPatients(), Patient::getId, id);
+                    if (index >= 0) {
+                        state = state.withPatients(state.getPatients().without(index));
+                    }
+                    break;
+                }
+                case PAYMENT_PROCESSED:
+                    if (indexOf(state.getFinancialServices(), FinancialService::getId, id) < 0) {
+                        state = state.withFinancialServices(state.getFinancialServices().with((FinancialService) applied));
+                    }
+                    break;
+                case MEDICAL_DOCUMENT_ADDED:
+                    if (indexOf(state.getMedicalDocuments(), Medical_Document::getDocId, id) < 0) {
+                        state = state.withMedicalDocuments(state.getMedicalDocuments().with((Medical_Document) applied));
+                    }
+                    break;
+                case HEALTH_REPORT_ADDED:
+                    if (indexOf(state.getHealthReports(), Health_Report::getReportId, id) < 0) {
+                        state = state.withHealthReports(state.getHealthReports().with((Health_Report) applied));
+                    }
+                    break;
+                case SERIES_ADDED:
+                    if (indexOf(appointmentSeries, AppointmentSeries::getSeriesId, id) < 0) {
+                        appointmentSeries.add((AppointmentSeries) applied);
+                    }
+                    break;
+                case WAITLIST_ADDED: {
+                    WaitlistEntry entry = (WaitlistEntry) applied;
+                    Doctor doctor = findDoctor(entry.getDoctor().getId());
+                    Patient patient = findPatient(entry.getPatient().getId());
+                    if (doctor != null && patient != null && waitlist.find(doctor.getId(), entry.getDate(), id) == null) {
+                        entry.setDoctor(doctor);
+                        entry.setPatient(patient);
+                        waitlist.restore(entry);
+                    }
+                    break;
+                }
+                case WAITLIST_REMOVED: {
+                    String[] parts = id.split("\\|", 3); // see WaitlistEntry.keyOf
+                    WaitlistEntry entry = parts.length == 3 ? waitlist.find(parts[1], parts[2], id) : null;
+                    if (entry != null) {
+                        waitlist.remove(entry);
+                    }
+                    break;
+                }
+                case SERIES_UPDATED: {
+                    int index = indexOf(appointmentSeries, AppointmentSeries::getSeriesId, id);
+                    if (index >= 0) {
+                        AppointmentSeries series = appointmentSeries.get(index);
+                        series.copyEditsFrom((AppointmentSeries) applied);
+                        applied = series;
+                    }
+                    break;
+                }
+                // Edited in place on the primary; appointments and invoices here point at
+                // this clinic's own objects, so the edits are copied onto those
+                case DOCTOR_UPDATED: {
+                    Doctor doctor = findDoctor(id);
+                    if (doctor != null) {
+                        doctor.copyEditsFrom((Doctor) applied);
+                        applied = doctor;
+                    }
+                    break;
+                }
+                case PATIENT_UPDATED: {
+                    Patient patient = findPatient(id);
+                    if (patient != null) {
+                        patient.copyEditsFrom((Patient) applied);
+                        applied = patient;
+                    }
+                    break;
+                }
+                case PAYMENT_UPDATED: {
+                    int index = indexOf(state.getFinancialServices(), FinancialService::getId, id);
+                    if (index >= 0) {
+                        FinancialService service = state.getFinancialServices().get(index);
+                        service.copyEditsFrom((FinancialService) applied);
+                        applied = service;
+                    }
+                    break;
+                }
+                case HEALTH_REPORT_UPDATED: {
+                    int index = indexOf(state.getHealthReports(), Health_Report::getReportId, id);
+                    if (index >= 0) {
+                        Health_Report report = state.getHealthReports().get(index);
+                        report.copyEditsFrom((Health_Report) applied);
+                        applied = report;
+                    }
+                    break;
+                }
+                case APPOINTMENTS_SCHEDULED: {
+                    ArrayList<Appointment> booked = new ArrayList<>();
+                    for (Object copy : (ArrayList<?>) applied) {
+                        booked.add(applyReplicatedAppointment((Appointment) copy));
+                    }
+                    applied = booked;
+                    break;
+                }
+                default: // every other APPOINTMENT_ event carries the appointment as it is now
+                    applied = applyReplicatedAppointment((Appointment) applied);
+                    break;
+            }
+        } finally {
+            editLock.unlock();
+            stateLock.unlockWrite(stamp);
+            mergeLock.readLock().unlock();
+        }
+        // Not journaled: the change is already saved by the process it came from
+        changed();
+        deliver(new ClinicEvent(event.getType(), clinicId, id, applied));
+        lastChange = event.getTimestamp(); // as of the primary
+    }
+
+    /**
+     * Another terminal saved this clinic since this process last read or wrote
+     * it, and latest is what it saved. Replay this process's unsaved changes
+     * onto latest and carry on with the result in this object, so both
+     * terminals' work is kept. A booking here that takes a slot the other
+     * terminal also gave away is cancelled. Returns false if changes did not
+     * pause long enough to merge; the caller tries again at its next save.
+     */
+    boolean rebaseOnto(Clinic latest) throws IOException {
+        try {
+            if (!mergeLock.writeLock().tryLock(MERGE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try {
+            ArrayList<ClinicEvent> pending = new ArrayList<>();
+            synchronized (journal) {
+                for (Pending entity : journal.values()) {
+                    if (entity.added != null) {
+                        pending.add(entity.added);
+                    }
+                    if (entity.latest != null) {
+                        pending.add(entity.latest);
+                    }
+                }
+            }
+            // Replay copies, so nothing in latest is shared with this copy's objects
+            for (ClinicEvent event : copyOf(pending)) {
+                if (event.getType() == ClinicEvent.Type.APPOINTMENTS_SCHEDULED) {
+                    for (Object copy : (ArrayList<?>) event.getSubject()) {
+                        cancelIfTaken(latest, (Appointment) copy);
+                    }
+                } else if (event.getEntity() == ClinicEvent.Entity.APPOINTMENT) {
+                    cancelIfTaken(latest, (Appointment) event.getSubject());
+                }
+                latest.applyReplicated(event);
+            }
+            long newest = Math.max(lastChange, latest.lastChange);
+            replaceWith(latest);
+            lastChange = newest;
+            return true;
+        } finally {
+            mergeLock.writeLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArrayList<ClinicEvent> copyOf(ArrayList<ClinicEvent> events) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(events);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (ArrayList<ClinicEvent>) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void cancelIfTaken(Clinic latest, Appointment copy) {
+        if (latest.slotTakenFrom(copy)) {
+            copy.setStatus("CANCELLED");
+            System.out.println("Error: Appointment " + copy.getAppointmentId() + " on " + copy.getSlotDate() + " " + copy.getSlotTime()
+                + " was cancelled: another terminal booked that time first.");
+        }
+    }
+
+    // True if another appointment holds this one's doctor or patient at its time here
+    private boolean slotTakenFrom(Appointment copy) {
+        if (copy.getStatus().equals("CANCELLED") || copy.getDate() == null) {
+            return false;
+        }
+        for (Appointment appointment : state.getAppointments()) {
+            if (appointment.getAppointmentId().equals(copy.getAppointmentId())) {
+                if (!appointment.getStatus().equals("CANCELLED") && appointment.getDate().equals(copy.getDate())) {
+                    return false; // it holds the slot itself
+                }
                 break;
             }
         }
-        if (!found) {
-            System.out.println("Error: Patient with ID " + patientId + " not found!");
+        long time = copy.getDate().getTime();
+        return bookedKeys.contains(doctorKey(copy.getDoctor().getId(), time))
+            || bookedKeys.contains(patientKey(copy.getPatient().getId(), time));
+    }
+
+    /**
+     * Take over everything from a fresh copy of this clinic sent by the
+     * primary, keeping this object (and whoever subscribed to it).
+     */
+    void replaceWith(Clinic copy) {
+        long stamp = stateLock.writeLock();
+        try {
+            ClinicSnapshot fresh = copy.state;
+            name = copy.name;
+            address = copy.address;
+            phone = copy.phone;
+            waitlist = copy.waitlist;
+            appointmentSeries = copy.appointmentSeries;
+            state = new ClinicSnapshot(state.getVersion() + 1, fresh.getDoctors(), fresh.getPatients(),
+                fresh.getAppointments(), fresh.getFinancialServices(), fresh.getMedicalDocuments(), fresh.getHealthReports());
+            rebuildBookedKeys();
+            replicatedAppointments = null;
+            lastChange = copy.lastChange;
+        } finally {
+            stateLock.unlockWrite(stamp);
         }
     }
 
-    // Appointments Management
-    public void scheduleAppointment(Appointment appointment) {
+    // Insert or update an appointment from its copy, moving the doctor's slot along
+    private Appointment applyReplicatedAppointment(Appointment copy) {
+        if (replicatedAppointments == null) {
+            replicatedAppointments = new HashMap<>();
+            for (Appointment appointment : state.getAppointments()) {
+                replicatedAppointments.put(appointment.getAppointmentId(), appointment);
+            }
+        }
+        Appointment appointment = replicatedAppointments.get(copy.getAppointmentId());
         if (appointment != null) {
-            if (appointmentValidator.isAppointmentExists(appointment, appointments)) {
-                System.out.println("Appointment cannot be scheduled due to conflict!");
-            } else {
-                appointments.add(appointment);
-                appointment.scheduleAppointment();
-                System.out.println("Appointment scheduled successfully!");
+            if (!appointment.getStatus().equals("CANCELLED")) {
+                appointment.getDoctor().releaseTimeSlot(appointment.getSlotDate(), appointment.getSlotTime());
+                releaseKeys(appointment);
             }
+            appointment.setDate(copy.getDate());
+            appointment.setStatus(copy.getStatus());
+            appointment.setReason(copy.getReason());
+            appointment.setHasCheckup(copy.hasCheckup());
         } else {
-            System.out.println("Error: Appointment cannot be null!");
+            appointment = copy;
+            Doctor doctor = findDoctor(copy.getDoctor().getId());
+            Patient patient = findPatient(copy.getPatient().getId());
+            if (doctor != null) {
+                appointment.setDoctor(doctor);
+            }
+            if (patient != null) {
+                appointment.setPatient(patient);
+            }
+            state = state.withAppointments(state.getAppointments().with(appointment));
+            replicatedAppointments.put(appointment.getAppointmentId(), appointment);
+        }
+        // Same rule as claimKeys: anything not cancelled holds its slot
+        if (!appointment.getStatus().equals("CANCELLED")) {
+            Doctor doctor = appointment.getDoctor();
+            if (doctor.isTimeSlotAvailable(appointment.getSlotDate(), appointment.getSlotTime())) {
+                doctor.bookTimeSlot(appointment.getSlotDate(), appointment.getSlotTime());
+            }
+            claimKeys(appointment);
+        }
+        return appointment;
+    }
+
+    private static <T> int indexOf(List<T> list, Function<T, String> id, String wanted) {
+        for (int i = 0; i < list.size(); i++) {
+            if (id.apply(list.get(i)).equals(wanted)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Rebuild the booked-slot index from the appointment list (after loading from file)
+    private void rebuildBookedKeys() {
+        bookedKeys = ConcurrentHashMap.newKeySet();
+        for (Appointment appointment : state.getAppointments()) {
+            claimKeys(appointment);
+        }
+    }
+
+    private void claimKeys(Appointment appointment) {
+        if (appointment.getStatus().equals("CANCELLED") || appointment.getDate() == null) {
+            return;
         }
+        long time = appointment.getDate().getTime();
+        bookedKeys.add(doctorKey(appointment.getDoctor().getId(), time));
+        bookedKeys.add(patientKey(appointment.getPatient().getId(), time));
+    }
+
+    private void releaseKeys(Appointment appointment) {
+        long time = appointment.getDate().getTime();
+        bookedKeys.remove(doctorKey(appointment.getDoctor().getId(), time));
+        bookedKeys.remove(patientKey(appointment.getPatient().getId(), time));
+    }
+
+    private static String doctorKey(String doctorId, long time) {
+        return "D|" + doctorId + "|" + time;
+    }
+
+    private static String patientKey(String patientId, long time) {
+        return "P|" + patientId + "|" + time;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        clinicId = (String) fields.get("clinicId", null);
+        name = (String) fields.get("name", null);
+        address = (String) fields.get("address", null);
+        phone = (String) fields.get("phone", null);
+        waitlist = (Waitlist) fields.get("waitlist", null);
+        appointmentSeries = (CopyOnWriteArrayList<AppointmentSeries>) fields.get("appointmentSeries", null);
+        state = new ClinicSnapshot(0,
+            SnapshotList.of(savedList(fields, "doctors")),
+            SnapshotList.of(savedList(fields, "patients")),
+            SnapshotList.of(savedList(fields, "appointments")),
+            SnapshotList.of(savedList(fields, "financialServices")),
+            SnapshotList.of(savedList(fields, "medicalDocuments")),
+            SnapshotList.of(savedList(fields, "healthReports")));
+        if (waitlist == null) {
+            waitlist = new Waitlist(); // saved before waitlists existed
+        }
+        if (appointmentSeries == null) {
+            appointmentSeries = new CopyOnWriteArrayList<>();
+        }
+        this.stateLock = new StampedLock();
+        this.doctorLocks = new StripedLock();
+        this.eventBus = new EventBus();
+        this.editLock = new ReentrantLock();
+        this.changeCount = new AtomicLong();
+        this.journal = new LinkedHashMap<>();
+        this.mergeLock = new ReentrantReadWriteLock();
+        rebuildBookedKeys();
+        observeIds();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ArrayList<T> savedList(ObjectInputStream.GetField fields, String name) throws IOException {
+        ArrayList<T> list = (ArrayList<T>) fields.get(name, null);
+        return list != null ? list : new ArrayList<>();
+    }
+
+    // Make sure IDs already used in this clinic are never generated again
+    private void observeIds() {
+        ClinicSnapshot current = state;
+        IdGenerator.observe(clinicId);
+        for (Doctor doctor : current.getDoctors()) {
+            IdGenerator.observe(doctor.getId());
+        }
+        for (Patient patient : current.getPatients()) {
+            IdGenerator.observe(patient.getId());
+        }
+        for (Appointment appointment : current.getAppointments()) {
+            IdGenerator.observe(appointment.getAppointmentId());
+        }
+        for (FinancialService service : current.getFinancialServices()) {
+            IdGenerator.observe(service.getId());
+            IdGenerator.observe(service.getInvoiceId());
+        }
+        for (Medical_Document document : current.getMedicalDocuments()) {
+            IdGenerator.observe(document.getDocId());
+            IdGenerator.observe(document.getRecordId());
+        }
+        for (Health_Report report : current.getHealthReports()) {
+            IdGenerator.observe(report.getReportId());
+        }
+        for (AppointmentSeries series : appointmentSeries) {
+            IdGenerator.observe(series.getSeriesId());
+        }
+    }
+
+    // Save one snapshot, so a save never sees a change half applied and
+    // doesn't hold up bookings while it writes
+    // Entities are written as they are, so in-place edits wait until this is done
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        editLock.lock();
+        try {
+            writeFields(out);
+        } finally {
+            editLock.unlock();
+        }
+    }
+
+    private void writeFields(ObjectOutputStream out) throws IOException {
+        ClinicSnapshot current = state;
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("clinicId", clinicId);
+        fields.put("name", name);
+        fields.put("address", address);
+        fields.put("phone", phone);
+        fields.put("doctors", new ArrayList<>(current.getDoctors()));
+        fields.put("patients", new ArrayList<>(current.getPatients()));
+        fields.put("appointments", new ArrayList<>(current.getAppointments()));
+        fields.put("financialServices", new ArrayList<>(current.getFinancialServices()));
+        fields.put("medicalDocuments", new ArrayList<>(current.getMedicalDocuments()));
+        fields.put("healthReports", new ArrayList<>(current.getHealthReports()));
+        fields.put("appointmentValidator", null);
+        fields.put("waitlist", waitlist);
+        fields.put("appointmentSeries", appointmentSeries);
+        out.writeFields();
     }
 
     // Search Methods
     public Doctor searchDoctor(String doctorId) {
-        for (Doctor doctor : doctors) {
+        Doctor doctor = findDoctor(doctorId);
+        if (doctor == null) {
+            System.out.println("Error: Doctor with ID " + doctorId + " not found!");
+        }
+        return doctor;
+    }
+
+    public Patient searchPatient(String patientId) {
+        Patient patient = findPatient(patientId);
+        if (patient == null) {
+            System.out.println("Error: Patient with ID " + patientId + " not found!");
+        }
+        return patient;
+    }
+
+    private Doctor findDoctor(String doctorId) {
+        for (Doctor doctor : state.getDoctors()) {
             if (doctor.getId().equals(doctorId)) {
                 return doctor;
             }
         }
-        System.out.println("Error: Doctor with ID " + doctorId + " not found!");
         return null;
     }
 
-    public Patient searchPatient(String patientId) {
-        for (Patient patient : patients) {
+    private Patient findPatient(String patientId) {
+        for (Patient patient : state.getPatients()) {
             if (patient.getId().equals(patientId)) {
                 return patient;
             }
         }
-        System.out.println("Error: Patient with ID " + patientId + " not found!");
         return null;
     }
 
     // Display Methods
     public void viewAllDoctors() {
+        List<Doctor> doctors = state.getDoctors();
         System.out.println("\n========== ALL DOCTORS ==========");
         if (doctors.isEmpty()) {
             System.out.println("No doctors in the clinic.");
@@ -209,6 +1435,7 @@ public class Clinic implements Serializable {
     }
 
     public void viewAllPatients() {
+        List<Patient> patients = state.getPatients();
         System.out.println("\n========== ALL PATIENTS ==========");
         if (patients.isEmpty()) {
             System.out.println("No patients registered in the clinic.");
@@ -223,6 +1450,7 @@ public class Clinic implements Serializable {
     }
 
     public void displayAppointments() {
+        List<Appointment> appointments = state.getAppointments();
         System.out.println("\n========== ALL APPOINTMENTS ==========");
         if (appointments.isEmpty()) {
             System.out.println("No appointments scheduled.");
@@ -236,6 +1464,14 @@ public class Clinic implements Serializable {
 
     // Reports
     public String generateClinicReport() {
+        return generateClinicReport(state);
+    }
+
+    // Report on a snapshot taken earlier, e.g. to match the totals of other figures worked out from it
+    public String generateClinicReport(ClinicSnapshot snapshot) {
+        List<FinancialService> financialServices = snapshot.getFinancialServices();
+        List<Appointment> appointments = snapshot.getAppointments();
+
         // Calculate total revenue
         double totalRevenue = 0;
         for (FinancialService service : financialServices) {
@@ -257,8 +1493,8 @@ public class Clinic implements Serializable {
                "Address: " + address + "\n" +
                "Phone: " + phone + "\n\n" +
                "--- STAFF & PATIENTS ---\n" +
-               "Total Doctors: " + doctors.size() + "\n" +
-               "Total Patients: " + patients.size() + "\n\n" +
+               "Total Doctors: " + snapshot.getDoctors().size() + "\n" +
+               "Total Patients: " + snapshot.getPatients().size() + "\n\n" +
                "--- APPOINTMENTS ---\n" +
                "Total Appointments: " + appointments.size() + "\n" +
                "  Scheduled: " + scheduled + "\n" +
@@ -268,20 +1504,21 @@ public class Clinic implements Serializable {
                "Total Revenue: $" + String.format("%.2f", totalRevenue) + "\n" +
                "Total Transactions: " + financialServices.size() + "\n\n" +
                "--- MEDICAL RECORDS ---\n" +
-               "Health Reports: " + healthReports.size() + "\n" +
-               "Medical Documents: " + medicalDocuments.size() + "\n" +
+               "Health Reports: " + snapshot.getHealthReports().size() + "\n" +
+               "Medical Documents: " + snapshot.getMedicalDocuments().size() + "\n" +
                "====================================\n";
     }
 
     public String getClinicDetails() {
+        ClinicSnapshot current = state;
         return "Clinic{" +
                 "clinicId='" + clinicId + '\'' +
                 ", name='" + name + '\'' +
                 ", address='" + address + '\'' +
                 ", phone='" + phone + '\'' +
-                ", doctors=" + doctors.size() +
-                ", patients=" + patients.size() +
-                ", appointments=" + appointments.size() +
+                ", doctors=" + current.getDoctors().size() +
+                ", patients=" + current.getPatients().size() +
+                ", appointments=" + current.getAppointments().size() +
                 '}';
     }
 }
@@ -0,0 +1,182 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Owns one clinic and applies every change to it on a single thread.
+ *
+ * Changes are sent as commands to the actor's mailbox and run one after the
+ * other, in the order they arrived; each caller gets a future with the result.
+ * Reads don't go through the mailbox at all - they use the clinic's current
+ * snapshot. Since only this thread ever writes, the clinic's locks are never
+ * contended, and actors of different clinics run side by side.
+ */
+public class ClinicActor {
+    public static final int DEFAULT_MAILBOX_SIZE = 1024;
+
+    private final ClinicService service;
+    private final BlockingQueue<Command<?>> mailbox;
+    private final Thread thread;
+    private volatile boolean stopping = false;
+    private volatile boolean exited = false;
+
+    private static final class Command<T> {
+        final Function<ClinicService, T> action;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Command(Function<ClinicService, T> action) {
+            this.action = action;
+        }
+
+        void run(ClinicService service) {
+            try {
+                result.complete(action.apply(service));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    public ClinicActor(Clinic clinic) {
+        this(clinic, DEFAULT_MAILBOX_SIZE);
+    }
+
+    public ClinicActor(Clinic clinic, int mailboxSize) {
+        this.service = new ClinicService(clinic);
+        this.mailbox = new ArrayBlockingQueue<>(Math.max(1, mailboxSize));
+        this.thread = new Thread(this::runLoop, "clinic-actor-" + clinic.getClinicId());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public String getClinicId() {
+        return service.getClinicId();
+    }
+
+    // Reads: the current snapshot, without waiting for queued commands
+    public ClinicSnapshot snapshot() {
+        return service.snapshot();
+    }
+
+    public ClinicService getService() {
+        return service;
+    }
+
+    /**
+     * Queue a change. The future completes with its result, or with the
+     * exception it threw. When the mailbox is full this waits for room.
+     */
+    public <T> CompletableFuture<T> submit(Function<ClinicService, T> action) {
+        Command<T> command = new Command<>(action);
+        if (Thread.currentThread() == thread) {
+            // A command sending another one: run it now, waiting on it would never end
+            command.run(service);
+            return command.result;
+        }
+        if (stopping) {
+            command.result.completeExceptionally(new RejectedExecutionException("Clinic " + getClinicId() + " is shutting down"));
+            return command.result;
+        }
+        try {
+            mailbox.put(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            command.result.completeExceptionally(e);
+            return command.result;
+        }
+        if (exited && mailbox.remove(command)) {
+            // Stopped between the check above and the put
+            command.result.completeExceptionally(new RejectedExecutionException("Clinic " + getClinicId() + " is shut down"));
+        }
+        return command.result;
+    }
+
+    /**
+     * Queue a change and wait for it. RuntimeExceptions thrown by the change
+     * are rethrown as they are.
+     */
+    public <T> T call(Function<ClinicService, T> action) {
+        try {
+            return submit(action).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // Common commands
+
+    public CompletableFuture<Appointment> bookAppointment(Patient patient, Doctor doctor, String date, String time, String reason) {
+        return submit(s -> s.bookAppointment(patient, doctor, date, time, reason));
+    }
+
+    public CompletableFuture<Appointment> cancelAppointment(Appointment appointment) {
+        return submit(s -> s.cancelAppointment(appointment));
+    }
+
+    public CompletableFuture<Boolean> rescheduleAppointment(Appointment appointment, String date, String time) {
+        return submit(s -> s.rescheduleAppointment(appointment, date, time));
+    }
+
+    public CompletableFuture<Void> registerPatient(Patient patient) {
+        return submit(s -> {
+            s.registerPatient(patient);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> addDoctor(Doctor doctor) {
+        return submit(s -> {
+            s.addDoctor(doctor);
+            return null;
+        });
+    }
+
+    // Commands waiting in the mailbox
+    public int getBacklog() {
+        return mailbox.size();
+    }
+
+    /**
+     * Stop taking commands, finish the ones already queued, and wait up to
+     * timeoutMillis for the actor thread to end.
+     */
+    public void stop(long timeoutMillis) {
+        stopping = true;
+        if (Thread.currentThread() == thread) {
+            return;
+        }
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runLoop() {
+        while (true) {
+            Command<?> command;
+            try {
+                command = mailbox.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (command != null) {
+                command.run(service);
+            } else if (stopping) {
+                // Anything put in while we were deciding to stop still runs
+                exited = true;
+                while ((command = mailbox.poll()) != null) {
+                    command.run(service);
+                }
+                return;
+            }
+        }
+    }
+}
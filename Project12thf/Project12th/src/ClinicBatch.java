@@ -0,0 +1,234 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.function.Predicate;
+
+/**
+ * Command-line jobs on the clinic data, for nightly scripts. Loads only what
+ * the command needs, never starts Swing or AWT, and exits with 0 on success
+ * and 1 on failure, so it runs on a headless server.
+ *
+ *   java ClinicBatch export <clinicId|all> <file|folder>   serialized clinics, as the server's /export gives them
+ *   java ClinicBatch import <file>...                      add exported clinics that aren't here yet
+ *   java ClinicBatch compact                               rewrite every shard, remove leftover temp files
+ *   java ClinicBatch report [file]                         figures and report of every clinic
+ *   java ClinicBatch reindex                               repair data/ids.properties, list duplicate or dangling ids
+ *
+ * Run it from the folder that holds data/, like the GUI and the server.
+ */
+public class ClinicBatch {
+    private static final String USAGE = "Usage: java ClinicBatch export <clinicId|all> <file|folder>\n"
+        + "       java ClinicBatch import <file>...\n"
+        + "       java ClinicBatch compact\n"
+        + "       java ClinicBatch report [file]\n"
+        + "       java ClinicBatch reindex";
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        long started = System.currentTimeMillis();
+        boolean ok;
+        if (args.length == 0) {
+            System.out.println(USAGE);
+            ok = false;
+        } else {
+            FileManager.initializeDataFolder();
+            ok = run(args);
+        }
+        System.out.println((ok ? "Done" : "Failed") + " in " + (System.currentTimeMillis() - started) + " ms");
+        System.exit(ok ? 0 : 1);
+    }
+
+    // Returns false if the command failed or was wrong
+    static boolean run(String[] args) {
+        switch (args[0]) {
+            case "export":
+                if (args.length != 3) {
+                    break;
+                }
+                return export(args[1], new File(args[2]));
+            case "import":
+                if (args.length < 2) {
+                    break;
+                }
+                ArrayList<File> files = new ArrayList<>();
+                for (int i = 1; i < args.length; i++) {
+                    files.add(new File(args[i]));
+                }
+                return importClinics(files);
+            case "compact":
+                return ClinicStore.compact(FileManager.loadClinics());
+            case "report":
+                if (args.length > 2) {
+                    break;
+                }
+                return report(args.length == 2 ? new File(args[1]) : null);
+            case "reindex":
+                return reindex();
+            default:
+                System.out.println("Error: Unknown command " + args[0]);
+        }
+        System.out.println(USAGE);
+        return false;
+    }
+
+    private static boolean export(String clinicId, File target) {
+        boolean all = clinicId.equalsIgnoreCase("all");
+        String key = ClinicStore.keyFor(clinicId);
+        Predicate<String> wanted = all ? k -> true : k -> k.equalsIgnoreCase(key);
+        ArrayList<Clinic> clinics = FileManager.loadClinics(wanted);
+        if (clinics.isEmpty()) {
+            System.out.println("Error: " + (all ? "No clinics to export" : "Clinic ID not found: " + clinicId));
+            return false;
+        }
+        if (all) {
+            target.mkdirs();
+        }
+        boolean ok = true;
+        for (Clinic clinic : clinics) {
+            File file = all ? new File(target, ClinicStore.keyFor(clinic.getClinicId()) + ".clinic") : target;
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                out.writeObject(clinic);
+                System.out.println("Exported " + clinic.getClinicId() + " to " + file.getPath());
+            } catch (IOException e) {
+                System.out.println("Error exporting clinic " + clinic.getClinicId() + ": " + e.getMessage());
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
+    private static boolean importClinics(ArrayList<File> files) {
+        // Clinics already here are known by their file names; none is read
+        HashSet<String> present = new HashSet<>();
+        for (String key : ClinicStore.keys()) {
+            present.add(key.toLowerCase());
+        }
+        ArrayList<Clinic> added = new ArrayList<>();
+        boolean ok = true;
+        for (File file : files) {
+            Clinic clinic;
+            try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                in.setObjectInputFilter(ClinicStreamFilter.CLINIC_DATA);
+                clinic = (Clinic) in.readObject();
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                System.out.println("Error: " + file.getPath() + " is not an exported clinic: " + e.getMessage());
+                ok = false;
+                continue;
+            }
+            if (!present.add(ClinicStore.keyFor(clinic.getClinicId()).toLowerCase())) {
+                System.out.println("Error: Clinic " + clinic.getClinicId() + " from " + file.getPath() + " is already here, skipped");
+                ok = false;
+                continue;
+            }
+            added.add(clinic);
+            System.out.println("Importing " + clinic.getClinicId() + " (" + clinic.getName() + ")");
+        }
+        if (!added.isEmpty()) {
+            ok &= FileManager.saveClinics(added);
+            try {
+                IdGenerator.repairIdFile(); // the imported ids must never be handed out again
+            } catch (IOException e) {
+                System.out.println("Error updating ID file: " + e.getMessage());
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
+    private static boolean report(File target) {
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        ArrayList<Clinic> clinics = FileManager.loadClinics();
+        out.printf("%-12s %-25s %8s %8s %8s %9s %9s %9s %12s%n", "Clinic", "Name", "Doctors", "Patients",
+            "Appts", "Scheduled", "Completed", "Cancelled", "Revenue");
+        ArrayList<ClinicService.Stats> all = new ArrayList<>();
+        for (Clinic clinic : clinics) {
+            ClinicService.Stats stats = new ClinicService(clinic).getStats();
+            all.add(stats);
+            out.printf("%-12s %-25s %8d %8d %8d %9d %9d %9d %12.2f%n", clinic.getClinicId(), clinic.getName(),
+                stats.doctors, stats.patients, stats.appointments, stats.scheduled, stats.completed,
+                stats.cancelled, stats.totalRevenue);
+        }
+        for (ClinicService.Stats stats : all) {
+            out.println();
+            out.println(stats.reportText);
+        }
+        out.flush();
+        if (target == null) {
+            System.out.print(text);
+            return true;
+        }
+        try (FileWriter writer = new FileWriter(target)) {
+            writer.write(text.toString());
+            System.out.println("Report on " + clinics.size() + " clinics written to " + target.getPath());
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error writing report: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Loading a clinic tells IdGenerator every id in it; the file is then raised to match
+    private static boolean reindex() {
+        ArrayList<Clinic> clinics = FileManager.loadClinics();
+        boolean ok = true;
+        try {
+            int raised = IdGenerator.repairIdFile();
+            System.out.println(raised == 0 ? "ID file is up to date" : "Raised " + raised + " ID marks in the ID file");
+        } catch (IOException e) {
+            System.out.println("Error repairing ID file: " + e.getMessage());
+            ok = false;
+        }
+        int problems = 0;
+        for (Clinic clinic : clinics) {
+            ClinicSnapshot snapshot = clinic.snapshot();
+            HashSet<String> ids = new HashSet<>();
+            HashSet<String> doctors = new HashSet<>();
+            HashSet<String> patients = new HashSet<>();
+            for (Doctor doctor : snapshot.getDoctors()) {
+                doctors.add(doctor.getId());
+                problems += duplicate(clinic, ids, doctor.getId());
+            }
+            for (Patient patient : snapshot.getPatients()) {
+                patients.add(patient.getId());
+                problems += duplicate(clinic, ids, patient.getId());
+            }
+            for (Appointment appointment : snapshot.getAppointments()) {
+                problems += duplicate(clinic, ids, appointment.getAppointmentId());
+                if (appointment.getDoctor() == null || !doctors.contains(appointment.getDoctor().getId())) {
+                    System.out.println("Clinic " + clinic.getClinicId() + ": appointment " + appointment.getAppointmentId()
+                        + " has a doctor that is not in the clinic");
+                    problems++;
+                }
+                if (appointment.getPatient() == null || !patients.contains(appointment.getPatient().getId())) {
+                    System.out.println("Clinic " + clinic.getClinicId() + ": appointment " + appointment.getAppointmentId()
+                        + " has a patient that is not in the clinic");
+                    problems++;
+                }
+            }
+            for (FinancialService service : snapshot.getFinancialServices()) {
+                problems += duplicate(clinic, ids, service.getInvoiceId());
+            }
+        }
+        System.out.println("Checked " + clinics.size() + " clinics, " + problems + " problems found");
+        return ok && problems == 0;
+    }
+
+    private static int duplicate(Clinic clinic, HashSet<String> ids, String id) {
+        if (ids.add(id)) {
+            return 0;
+        }
+        System.out.println("Clinic " + clinic.getClinicId() + ": id " + id + " is used more than once");
+        return 1;
+    }
+}
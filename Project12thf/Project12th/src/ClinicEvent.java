@@ -0,0 +1,108 @@
+import java.io.Serializable;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Something that happened in a clinic, e.g. an appointment was scheduled.
+ * Published by Clinic after the change is made and its locks are released.
+ */
+public class ClinicEvent implements Serializable {
+
+    // What kind of entity an event is about
+    public enum Entity {
+        DOCTOR, PATIENT, APPOINTMENT, SERIES, INVOICE, HEALTH_REPORT, MEDICAL_DOCUMENT, WAITLIST
+    }
+
+    // What happened to it, for screens that patch one row instead of reloading
+    public enum Change {
+        ADDED, UPDATED, REMOVED
+    }
+
+    public enum Type {
+        DOCTOR_ADDED(Entity.DOCTOR, Change.ADDED),
+        DOCTOR_UPDATED(Entity.DOCTOR, Change.UPDATED),
+        DOCTOR_REMOVED(Entity.DOCTOR, Change.REMOVED),
+        PATIENT_REGISTERED(Entity.PATIENT, Change.ADDED),
+        PATIENT_UPDATED(Entity.PATIENT, Change.UPDATED),
+        PATIENT_REMOVED(Entity.PATIENT, Change.REMOVED),
+        APPOINTMENT_SCHEDULED(Entity.APPOINTMENT, Change.ADDED),
+        APPOINTMENTS_SCHEDULED(Entity.APPOINTMENT, Change.ADDED), // a whole batch; the subject is an ArrayList of them, the id the first one's
+        APPOINTMENT_RESCHEDULED(Entity.APPOINTMENT, Change.UPDATED),
+        APPOINTMENT_CANCELLED(Entity.APPOINTMENT, Change.UPDATED),
+        APPOINTMENT_COMPLETED(Entity.APPOINTMENT, Change.UPDATED),
+        APPOINTMENT_RESTORED(Entity.APPOINTMENT, Change.UPDATED),
+        APPOINTMENT_UPDATED(Entity.APPOINTMENT, Change.UPDATED),
+        SERIES_ADDED(Entity.SERIES, Change.ADDED),
+        SERIES_UPDATED(Entity.SERIES, Change.UPDATED),
+        WAITLIST_ADDED(Entity.WAITLIST, Change.ADDED),
+        WAITLIST_REMOVED(Entity.WAITLIST, Change.REMOVED), // given a freed slot; the subject is null
+        PAYMENT_PROCESSED(Entity.INVOICE, Change.ADDED),
+        PAYMENT_UPDATED(Entity.INVOICE, Change.UPDATED),
+        HEALTH_REPORT_ADDED(Entity.HEALTH_REPORT, Change.ADDED),
+        HEALTH_REPORT_UPDATED(Entity.HEALTH_REPORT, Change.UPDATED),
+        MEDICAL_DOCUMENT_ADDED(Entity.MEDICAL_DOCUMENT, Change.ADDED);
+
+        private final Entity entity;
+        private final Change change;
+
+        Type(Entity entity, Change change) {
+            this.entity = entity;
+            this.change = change;
+        }
+
+        public Entity getEntity() {
+            return entity;
+        }
+
+        public Change getChange() {
+            return change;
+        }
+    }
+
+    private final Type type;
+    private final String clinicId;
+    private final String entityId;
+    private final Serializable subject; // the doctor, patient, appointment... the event is about
+    private final long timestamp;
+
+    public ClinicEvent(Type type, String clinicId, String entityId, Serializable subject) {
+        this.type = type;
+        this.clinicId = clinicId;
+        this.entityId = entityId;
+        this.subject = subject;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getClinicId() {
+        return clinicId;
+    }
+
+    public Entity getEntity() {
+        return type.getEntity();
+    }
+
+    public Change getChange() {
+        return type.getChange();
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public Serializable getSubject() {
+        return subject;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return new SimpleDateFormat("dd/MM/yyyy HH:mm:ss").format(new Date(timestamp)) + " " + type + " " + entityId + " (" + clinicId + ")";
+    }
+}
@@ -8,10 +8,27 @@ import java.util.Date;
 
 public class ClinicGUI extends JFrame {
     private Clinic clinic;
-    private ArrayList<Clinic> clinics;
+    private ClinicService clinicService; // all reads and edits of the current clinic go through here
+    private EventBus.Subscription clinicEvents; // saves and refreshes after changes to the current clinic
+    private final UiTasks uiTasks = new UiTasks(); // data work runs here, never on the EDT
+    private final Animator animator = new Animator(); // one timer for every animation
+    private final java.util.concurrent.atomic.AtomicReference<ArrayList<Clinic>> pendingSave = new java.util.concurrent.atomic.AtomicReference<>();
+    private JLabel busyLabel;
+    private JProgressBar busyBar;
+    private JButton busyCancelBtn;
+    private final EdtWatchdog edtWatchdog; // logs every time the GUI freezes
+    private ArrayList<Clinic> clinics; // filled by loadClinicsInBackground() after the window shows
+    private boolean loadingClinics;
+    private EntityTableModel<Clinic> clinicsModel; // table on the selection screen
+    private JProgressBar clinicsLoadingBar;
     private JPanel mainPanel;
     private CardLayout cardLayout;
-    private static final String CLINICS_DATA_FILE = "data/clinics.dat";
+    // Screens of the current clinic, kept in the CardLayout: card name -> refresh
+    private final java.util.HashMap<String, Runnable> screens = new java.util.HashMap<>();
+    private String shownScreen;
+    // Screens that patch their rows from clinic events, so showing them again needs no refresh
+    private final java.util.HashSet<String> liveScreens = new java.util.HashSet<>();
+    private final java.util.HashMap<ClinicEvent.Entity, java.util.List<java.util.function.Consumer<ClinicEvent>>> screenPatches = new java.util.HashMap<>();
     
     // Color scheme
     private final Color PRIMARY_COLOR = new Color(41, 128, 185);
@@ -22,19 +39,21 @@ public class ClinicGUI extends JFrame {
     private final Color CARD_BG = Color.WHITE;
     
     public ClinicGUI() {
+        this(EdtWatchdog.DEFAULT_THRESHOLD_MS);
+    }
+    
+    // stallThresholdMillis: how long the EDT may be busy before it is logged as a freeze
+    public ClinicGUI(long stallThresholdMillis) {
+        edtWatchdog = new EdtWatchdog(stallThresholdMillis);
+        edtWatchdog.start();
+        
         setTitle("Healthcare Management System");
         setSize(1400, 800);
         setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
         setLocationRelativeTo(null);
         
-        // Initialize data folder
-        FileManager.initializeDataFolder();
-        
-        // Load existing clinics or initialize new list
-        clinics = loadClinics();
-        if (clinics == null) {
-            clinics = new ArrayList<>();
-        }
+        // Clinics are loaded after the window shows; see loadClinicsInBackground()
+        clinics = new ArrayList<>();
         
         // Initialize with card layout
         cardLayout = new CardLayout();
@@ -48,6 +67,11 @@ public class ClinicGUI extends JFrame {
         addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
+                // Let a background save finish, then write the final state
+                uiTasks.shutdown(5000);
+                if (clinic != null) {
+                    clinic.changed(); // in case an edit forgot to say so
+                }
                 saveClinics();
                 System.out.println("All clinic data saved. Goodbye!");
                 System.exit(0);
@@ -58,7 +82,101 @@ public class ClinicGUI extends JFrame {
         showClinicSelectionMenu();
         
         add(mainPanel);
+        add(createStatusBar(), BorderLayout.SOUTH);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                // Runs after the paint the window was opened with
+                SwingUtilities.invokeLater(StartupMetrics::firstFrame);
+            }
+        });
         setVisible(true);
+        loadClinicsInBackground();
+    }
+    
+    /**
+     * Read the saved clinics on a background thread. Each clinic appears on
+     * the selection screen, and can be opened, as soon as it is read.
+     */
+    private void loadClinicsInBackground() {
+        loadingClinics = true;
+        // A clinic or patient added meanwhile waits for its ID until every saved one has been seen
+        IdGenerator.holdUntilLoaded();
+        uiTasks.runUninterruptible("Loading clinics", () -> {
+            try {
+                FileManager.loadClinics((loaded, done, total) -> SwingUtilities.invokeLater(() -> {
+                    if (loaded != null) {
+                        clinics.add(loaded);
+                        if (clinicsModel != null) {
+                            clinicsModel.add(loaded);
+                        }
+                    }
+                    if (clinicsLoadingBar != null) {
+                        clinicsLoadingBar.setMaximum(total);
+                        clinicsLoadingBar.setValue(done);
+                        clinicsLoadingBar.setString("Loading clinics " + done + " of " + total);
+                    }
+                }));
+            } finally {
+                IdGenerator.loaded(); // here, not on the EDT, which may be the one waiting
+            }
+            SwingUtilities.invokeLater(() -> {
+                loadingClinics = false;
+                if (clinicsLoadingBar != null) {
+                    clinicsLoadingBar.setVisible(false);
+                }
+                // Measured once everything above has been shown
+                SwingUtilities.invokeLater(() -> StartupMetrics.interactive(clinics.size()));
+            });
+            return null;
+        }, ex -> {
+            loadingClinics = false;
+            showError("Could not load clinics: " + ex.getMessage());
+        });
+    }
+    
+    // Bottom bar showing what is running in the background, with a way to stop it
+    private JPanel createStatusBar() {
+        JPanel statusBar = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 3));
+        statusBar.setBackground(BG_COLOR);
+        
+        busyLabel = new JLabel(" ");
+        busyLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        busyLabel.setForeground(Color.GRAY);
+        
+        busyBar = new JProgressBar();
+        busyBar.setIndeterminate(true);
+        busyBar.setPreferredSize(new Dimension(120, 14));
+        busyBar.setVisible(false);
+        
+        busyCancelBtn = new JButton("Cancel");
+        busyCancelBtn.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        busyCancelBtn.setFocusable(false);
+        busyCancelBtn.setVisible(false);
+        busyCancelBtn.addActionListener(e -> uiTasks.cancelAll());
+        
+        // Counts GUI freezes; opens the list of them
+        JButton diagnosticsBtn = new JButton("Diagnostics");
+        diagnosticsBtn.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        diagnosticsBtn.setFocusable(false);
+        diagnosticsBtn.addActionListener(e -> showDiagnosticsDialog());
+        edtWatchdog.addListener(incident -> {
+            diagnosticsBtn.setText("Diagnostics (" + edtWatchdog.getIncidents().size() + " freezes)");
+            diagnosticsBtn.setForeground(DANGER_COLOR);
+        });
+        
+        statusBar.add(busyLabel);
+        statusBar.add(busyBar);
+        statusBar.add(busyCancelBtn);
+        statusBar.add(diagnosticsBtn);
+        
+        uiTasks.setBusyListener((running, label) -> {
+            boolean busy = running > 0;
+            busyLabel.setText(busy ? label + (running > 1 ? " (+" + (running - 1) + " more)" : "") + "..." : " ");
+            busyBar.setVisible(busy);
+            busyCancelBtn.setVisible(busy);
+        });
+        return statusBar;
     }
     
     private void setupKeyboardShortcuts() {
@@ -274,10 +392,10 @@ public class ClinicGUI extends JFrame {
                 return;
             }
             
-            clinic = new Clinic(name, address, phone);
-            clinics.add(clinic);
+            clinics.add(new Clinic(name, address, phone));
+            setCurrentClinic(clinics.get(clinics.size() - 1));
             saveClinics();
-            showSuccess("Clinic created successfully!\nID: " + clinic.getClinicId());
+            showSuccess("Clinic created successfully!\nID: " + clinicService.getClinicId());
             showMainDashboard();
         });
         
@@ -376,13 +494,11 @@ public class ClinicGUI extends JFrame {
         createNewBtn.addActionListener(e -> showClinicSetup());
         buttonPanel.add(createNewBtn);
         
-        if (!clinics.isEmpty()) {
-            JButton searchBtn = createStyledButton("Search by ID", SECONDARY_COLOR);
-            searchBtn.setPreferredSize(new Dimension(200, 50));
-            searchBtn.setFont(new Font("Segoe UI", Font.BOLD, 18));
-            searchBtn.addActionListener(e -> showSearchClinicDialog());
-            buttonPanel.add(searchBtn);
-        }
+        JButton searchBtn = createStyledButton("Search by ID", SECONDARY_COLOR);
+        searchBtn.setPreferredSize(new Dimension(200, 50));
+        searchBtn.setFont(new Font("Segoe UI", Font.BOLD, 18));
+        searchBtn.addActionListener(e -> showSearchClinicDialog());
+        buttonPanel.add(searchBtn);
         
         if (clinic != null) {
             JButton continueBtn = createStyledButton("Continue with Current", PRIMARY_COLOR);
@@ -394,41 +510,52 @@ public class ClinicGUI extends JFrame {
         
         centerPanel.add(buttonPanel, BorderLayout.NORTH);
         
-        // Clinics table
-        if (!clinics.isEmpty()) {
-            String[] columns = {"ID", "Clinic Name", "Address", "Phone", "Doctors", "Patients", "Appointments"};
-            DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
-                @Override
-                public boolean isCellEditable(int row, int column) {
-                    return false;
+        // Clinics table; rows arrive while the clinics are still loading
+        clinicsModel = new EntityTableModel<Clinic>(Clinic::getClinicId)
+            .column("ID", Clinic::getClinicId)
+            .column("Clinic Name", Clinic::getName)
+            .column("Address", Clinic::getAddress)
+            .column("Phone", Clinic::getPhone)
+            .column("Doctors", c -> c.getDoctors().size())
+            .column("Patients", c -> c.getPatients().size())
+            .column("Appointments", c -> c.getAppointments().size());
+        clinicsModel.setRows(clinics);
+        JTable clinicsTable = createStyledTable(clinicsModel);
+        clinicsTable.setToolTipText("Double-click a clinic to open it");
+        clinicsTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = clinicsTable.getSelectedRow();
+                if (e.getClickCount() == 2 && row >= 0) {
+                    setCurrentClinic(clinicsModel.getRow(clinicsTable.convertRowIndexToModel(row)));
+                    showMainDashboard();
                 }
-            };
-            
-            for (int i = 0; i < clinics.size(); i++) {
-                Clinic c = clinics.get(i);
-                tableModel.addRow(new Object[]{
-                    c.getClinicId(),
-                    c.getName(),
-                    c.getAddress(),
-                    c.getPhone(),
-                    c.getDoctors().size(),
-                    c.getPatients().size(),
-                    c.getAppointments().size()
-                });
             }
-            
-        }
+        });
+        JScrollPane clinicsScroll = new JScrollPane(clinicsTable);
+        clinicsScroll.setPreferredSize(new Dimension(900, 250));
+        centerPanel.add(clinicsScroll, BorderLayout.CENTER);
+        
+        clinicsLoadingBar = new JProgressBar();
+        clinicsLoadingBar.setStringPainted(true);
+        clinicsLoadingBar.setString("Loading clinics...");
+        clinicsLoadingBar.setVisible(loadingClinics);
+        centerPanel.add(clinicsLoadingBar, BorderLayout.SOUTH);
         
         contentPanel.add(centerPanel, BorderLayout.CENTER);
         selectionPanel.add(contentPanel, gbc);
         
-        mainPanel.removeAll();
+        clearScreens();
         mainPanel.add(selectionPanel);
         mainPanel.revalidate();
         mainPanel.repaint();
     }
     
     private void showMainDashboard() {
+        showScreen("DASHBOARD", this::buildMainDashboard);
+    }
+    
+    private Runnable buildMainDashboard() {
         JPanel dashboardPanel = new JPanel(new BorderLayout());
         dashboardPanel.setBackground(BG_COLOR);
         
@@ -440,7 +567,7 @@ public class ClinicGUI extends JFrame {
         JPanel leftPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 15, 0));
         leftPanel.setBackground(PRIMARY_COLOR);
         
-        JLabel clinicNameLabel = new JLabel(clinic.getName() + " (ID: " + clinic.getClinicId() + ")");
+        JLabel clinicNameLabel = new JLabel(clinicService.getName() + " (ID: " + clinicService.getClinicId() + ")");
         clinicNameLabel.setFont(new Font("Segoe UI", Font.BOLD, 20));
         clinicNameLabel.setForeground(Color.WHITE);
         leftPanel.add(clinicNameLabel);
@@ -451,16 +578,11 @@ public class ClinicGUI extends JFrame {
         statusLabel.setForeground(ACCENT_COLOR);
         leftPanel.add(statusLabel);
         
-        // Animate status indicator with blinking effect
-        Timer blinkTimer = new Timer(1000, new ActionListener() {
-            boolean visible = true;
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                visible = !visible;
-                statusLabel.setForeground(visible ? ACCENT_COLOR : PRIMARY_COLOR);
-            }
+        // Animate status indicator with blinking effect; wakes once a second, only while the dashboard shows
+        animator.start(statusLabel, elapsed -> {
+            statusLabel.setForeground((elapsed / 1000) % 2 == 0 ? ACCENT_COLOR : PRIMARY_COLOR);
+            return 1000 - elapsed % 1000;
         });
-        blinkTimer.start();
         
         JButton switchBtn = createStyledButton("Switch Clinic", new Color(230, 126, 34));
         switchBtn.addActionListener(e -> showClinicSelectionMenu());
@@ -519,7 +641,7 @@ public class ClinicGUI extends JFrame {
         dashboardPanel.add(centerPanel, BorderLayout.CENTER);
         
         mainPanel.add(dashboardPanel, "DASHBOARD");
-        cardLayout.show(mainPanel, "DASHBOARD");
+        return () -> clinicNameLabel.setText(clinicService.getName() + " (ID: " + clinicService.getClinicId() + ")");
     }
     
     private JPanel createDashboardCard(String title, String description, Color color, ActionListener action) {
@@ -549,11 +671,17 @@ public class ClinicGUI extends JFrame {
         card.add(descLabel);
         card.add(Box.createVerticalGlue());
         
-        // Combined mouse listener for both hover effect and click action
+        // Combined mouse listener for both hover effect and click action.
+        // The border is the whole effect, so it is set once rather than animated.
+        javax.swing.border.Border hoverBorder = BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(color, 2),
+            BorderFactory.createEmptyBorder(40, 30, 40, 30)
+        );
+        javax.swing.border.Border normalBorder = BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(new Color(220, 220, 220), 1),
+            BorderFactory.createEmptyBorder(40, 30, 40, 30)
+        );
         card.addMouseListener(new MouseAdapter() {
-            private Timer scaleTimer;
-            private float scale = 1.0f;
-            
             @Override
             public void mouseClicked(MouseEvent e) {
                 action.actionPerformed(new ActionEvent(card, ActionEvent.ACTION_PERFORMED, null));
@@ -562,39 +690,13 @@ public class ClinicGUI extends JFrame {
             @Override
             public void mouseEntered(MouseEvent e) {
                 card.setBackground(new Color(249, 249, 249));
-                if (scaleTimer != null) scaleTimer.stop();
-                scaleTimer = new Timer(10, evt -> {
-                    scale += 0.02f;
-                    if (scale >= 1.05f) {
-                        scale = 1.05f;
-                        scaleTimer.stop();
-                    }
-                    card.setBorder(BorderFactory.createCompoundBorder(
-                        BorderFactory.createLineBorder(color, 2),
-                        BorderFactory.createEmptyBorder(40, 30, 40, 30)
-                    ));
-                    card.revalidate();
-                });
-                scaleTimer.start();
+                card.setBorder(hoverBorder);
             }
             
             @Override
             public void mouseExited(MouseEvent e) {
                 card.setBackground(CARD_BG);
-                if (scaleTimer != null) scaleTimer.stop();
-                scaleTimer = new Timer(10, evt -> {
-                    scale -= 0.02f;
-                    if (scale <= 1.0f) {
-                        scale = 1.0f;
-                        scaleTimer.stop();
-                    }
-                    card.setBorder(BorderFactory.createCompoundBorder(
-                        BorderFactory.createLineBorder(new Color(220, 220, 220), 1),
-                        BorderFactory.createEmptyBorder(40, 30, 40, 30)
-                    ));
-                    card.revalidate();
-                });
-                scaleTimer.start();
+                card.setBorder(normalBorder);
             }
         });
         
@@ -602,6 +704,10 @@ public class ClinicGUI extends JFrame {
     }
     
     private void showDoctorManagement() {
+        showScreen("DOCTORS", this::buildDoctorManagement);
+    }
+    
+    private Runnable buildDoctorManagement() {
         JPanel panel = createManagementPanel("Doctor Management");
         JPanel contentPanel = (JPanel) ((JScrollPane) panel.getComponent(1)).getViewport().getView();
         
@@ -711,200 +817,65 @@ public class ClinicGUI extends JFrame {
         contentPanel.add(Box.createRigidArea(new Dimension(0, 20)));
         
         // Display doctors table
-        String[] columns = {"ID", "Name", "Specialization", "License", "Experience (Years)", "Phone"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-        
-        for (Doctor doctor : clinic.getDoctors()) {
-            model.addRow(new Object[]{
-                doctor.getId(),
-                doctor.getName(),
-                doctor.getSpecialization(),
-                doctor.getLicenseNumber(),
-                doctor.getYearsOfExperience(),
-                doctor.getPhone()
-            });
-        }
+        EntityTableModel<Doctor> model = new EntityTableModel<Doctor>(Doctor::getId)
+            .column("ID", Doctor::getId)
+            .column("Name", Doctor::getName)
+            .column("Specialization", Doctor::getSpecialization)
+            .column("License", Doctor::getLicenseNumber)
+            .column("Experience (Years)", Doctor::getYearsOfExperience)
+            .column("Phone", Doctor::getPhone);
         
         JTable table = createStyledTable(model);
         
-        // Add real-time search filtering and sorting
-        liveSearchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { filterAndSortTable(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { filterAndSortTable(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { filterAndSortTable(); }
-            
-            private void filterAndSortTable() {
-                String searchText = liveSearchField.getText().toLowerCase();
-                ArrayList<Doctor> filteredDoctors = new ArrayList<>();
-                
-                for (Doctor doctor : clinic.getDoctors()) {
-                    String doctorInfo = (doctor.getId() + doctor.getName() + doctor.getSpecialization() + 
-                                        doctor.getLicenseNumber() + doctor.getPhone()).toLowerCase();
-                    if (doctorInfo.contains(searchText)) {
-                        filteredDoctors.add(doctor);
-                    }
-                }
-                
-                // Sort doctors
-                String sortOption = (String) doctorSortCombo.getSelectedItem();
-                boolean ascending = doctorAscendingCheckbox.isSelected();
-                
-                filteredDoctors.sort((d1, d2) -> {
-                    int result = 0;
-                    switch(sortOption) {
-                        case "Name":
-                            result = d1.getName().compareTo(d2.getName());
-                            break;
-                        case "Specialization":
-                            result = d1.getSpecialization().compareTo(d2.getSpecialization());
-                            break;
-                        case "Experience":
-                            result = Integer.compare(d1.getYearsOfExperience(), d2.getYearsOfExperience());
-                            break;
-                        case "License":
-                            result = d1.getLicenseNumber().compareTo(d2.getLicenseNumber());
-                            break;
-                        case "ID":
-                            result = d1.getId().compareTo(d2.getId());
-                            break;
-                    }
-                    return ascending ? result : -result;
-                });
-                
-                // Update table
-                model.setRowCount(0);
-                for (Doctor doctor : filteredDoctors) {
-                    model.addRow(new Object[]{
-                        doctor.getId(),
-                        doctor.getName(),
-                        doctor.getSpecialization(),
-                        doctor.getLicenseNumber(),
-                        doctor.getYearsOfExperience(),
-                        doctor.getPhone()
-                    });
-                }
-            }
-        });
-        
-        // Add sorting listener
-        doctorSortCombo.addActionListener(e -> {
+        // Live search: filtered and sorted in the background once typing pauses
+        LiveSearch<Doctor> search = new LiveSearch<Doctor>(uiTasks, "doctors", model, clinicService::getDoctors, () -> {
             String searchText = liveSearchField.getText().toLowerCase();
-            ArrayList<Doctor> filteredDoctors = new ArrayList<>();
-            
-            for (Doctor doctor : clinic.getDoctors()) {
-                String doctorInfo = (doctor.getId() + doctor.getName() + doctor.getSpecialization() + 
-                                    doctor.getLicenseNumber() + doctor.getPhone()).toLowerCase();
-                if (doctorInfo.contains(searchText)) {
-                    filteredDoctors.add(doctor);
-                }
-            }
-            
-            // Sort doctors
-            String sortOption = (String) doctorSortCombo.getSelectedItem();
-            boolean ascending = doctorAscendingCheckbox.isSelected();
-            
-            filteredDoctors.sort((d1, d2) -> {
-                int result = 0;
-                switch(sortOption) {
-                    case "Name":
-                        result = d1.getName().compareTo(d2.getName());
-                        break;
-                    case "Specialization":
-                        result = d1.getSpecialization().compareTo(d2.getSpecialization());
-                        break;
-                    case "Experience":
-                        result = Integer.compare(d1.getYearsOfExperience(), d2.getYearsOfExperience());
-                        break;
-                    case "License":
-                        result = d1.getLicenseNumber().compareTo(d2.getLicenseNumber());
-                        break;
-                    case "ID":
-                        result = d1.getId().compareTo(d2.getId());
-                        break;
-                }
-                return ascending ? result : -result;
-            });
-            
-            // Update table
-            model.setRowCount(0);
-            for (Doctor doctor : filteredDoctors) {
-                model.addRow(new Object[]{
-                    doctor.getId(),
-                    doctor.getName(),
-                    doctor.getSpecialization(),
-                    doctor.getLicenseNumber(),
-                    doctor.getYearsOfExperience(),
-                    doctor.getPhone()
-                });
-            }
-        });
-        
-        doctorAscendingCheckbox.addActionListener(e -> {
-            String searchText = liveSearchField.getText().toLowerCase();
-            ArrayList<Doctor> filteredDoctors = new ArrayList<>();
-            
-            for (Doctor doctor : clinic.getDoctors()) {
-                String doctorInfo = (doctor.getId() + doctor.getName() + doctor.getSpecialization() + 
-                                    doctor.getLicenseNumber() + doctor.getPhone()).toLowerCase();
-                if (doctorInfo.contains(searchText)) {
-                    filteredDoctors.add(doctor);
-                }
-            }
-            
-            // Sort doctors
-            String sortOption = (String) doctorSortCombo.getSelectedItem();
-            boolean ascending = doctorAscendingCheckbox.isSelected();
-            
-            filteredDoctors.sort((d1, d2) -> {
-                int result = 0;
-                switch(sortOption) {
-                    case "Name":
-                        result = d1.getName().compareTo(d2.getName());
-                        break;
-                    case "Specialization":
-                        result = d1.getSpecialization().compareTo(d2.getSpecialization());
-                        break;
-                    case "Experience":
-                        result = Integer.compare(d1.getYearsOfExperience(), d2.getYearsOfExperience());
-                        break;
-                    case "License":
-                        result = d1.getLicenseNumber().compareTo(d2.getLicenseNumber());
-                        break;
-                    case "ID":
-                        result = d1.getId().compareTo(d2.getId());
-                        break;
-                }
-                return ascending ? result : -result;
-            });
-            
-            // Update table
-            model.setRowCount(0);
-            for (Doctor doctor : filteredDoctors) {
-                model.addRow(new Object[]{
-                    doctor.getId(),
-                    doctor.getName(),
-                    doctor.getSpecialization(),
-                    doctor.getLicenseNumber(),
-                    doctor.getYearsOfExperience(),
-                    doctor.getPhone()
-                });
-            }
-        });
+            return new LiveSearch.Query<Doctor>(
+                doctor -> (doctor.getId() + doctor.getName() + doctor.getSpecialization() +
+                           doctor.getLicenseNumber() + doctor.getPhone()).toLowerCase().contains(searchText),
+                doctorOrder((String) doctorSortCombo.getSelectedItem(), doctorAscendingCheckbox.isSelected()));
+        }).listenTo(liveSearchField).listenTo(doctorSortCombo).listenTo(doctorAscendingCheckbox);
         
         JScrollPane scrollPane = new JScrollPane(table);
         scrollPane.setPreferredSize(new Dimension(1100, 400));
         contentPanel.add(scrollPane);
         
         mainPanel.add(panel, "DOCTORS");
-        cardLayout.show(mainPanel, "DOCTORS");
+        keepCurrent("DOCTORS", ClinicEvent.Entity.DOCTOR,
+            event -> search.patch(event.getChange(), event.getEntityId(), (Doctor) event.getSubject()));
+        // Shows the doctors as they are now, with the search and sort still applied
+        return search::runNow;
+    }
+    
+    private java.util.Comparator<Doctor> doctorOrder(String sortOption, boolean ascending) {
+        return (d1, d2) -> {
+            int result = 0;
+            switch(sortOption) {
+                case "Name":
+                    result = d1.getName().compareTo(d2.getName());
+                    break;
+                case "Specialization":
+                    result = d1.getSpecialization().compareTo(d2.getSpecialization());
+                    break;
+                case "Experience":
+                    result = Integer.compare(d1.getYearsOfExperience(), d2.getYearsOfExperience());
+                    break;
+                case "License":
+                    result = d1.getLicenseNumber().compareTo(d2.getLicenseNumber());
+                    break;
+                case "ID":
+                    result = d1.getId().compareTo(d2.getId());
+                    break;
+            }
+            return ascending ? result : -result;
+        };
     }
     
     private void showPatientManagement() {
+        showScreen("PATIENTS", this::buildPatientManagement);
+    }
+    
+    private Runnable buildPatientManagement() {
         JPanel panel = createManagementPanel("Patient Management");
         JPanel contentPanel = (JPanel) ((JScrollPane) panel.getComponent(1)).getViewport().getView();
         
@@ -1014,200 +985,64 @@ public class ClinicGUI extends JFrame {
         contentPanel.add(Box.createRigidArea(new Dimension(0, 20)));
         
         // Display patients table
-        String[] columns = {"ID", "Name", "Age", "Gender", "Blood Type", "Phone"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-        
-        for (Patient patient : clinic.getPatients()) {
-            model.addRow(new Object[]{
-                patient.getId(),
-                patient.getName(),
-                patient.getAge(),
-                patient.getGender(),
-                patient.getBloodType(),
-                patient.getPhone()
-            });
-        }
+        EntityTableModel<Patient> model = new EntityTableModel<Patient>(Patient::getId)
+            .column("ID", Patient::getId)
+            .column("Name", Patient::getName)
+            .column("Age", Patient::getAge)
+            .column("Gender", Patient::getGender)
+            .column("Blood Type", Patient::getBloodType)
+            .column("Phone", Patient::getPhone);
         
         JTable table = createStyledTable(model);
         
-        // Add real-time search filtering and sorting
-        liveSearchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { filterAndSortTable(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { filterAndSortTable(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { filterAndSortTable(); }
-            
-            private void filterAndSortTable() {
-                String searchText = liveSearchField.getText().toLowerCase();
-                ArrayList<Patient> filteredPatients = new ArrayList<>();
-                
-                for (Patient patient : clinic.getPatients()) {
-                    String patientInfo = (patient.getId() + patient.getName() + patient.getGender() + 
-                                         patient.getBloodType() + patient.getPhone()).toLowerCase();
-                    if (patientInfo.contains(searchText)) {
-                        filteredPatients.add(patient);
-                    }
-                }
-                
-                // Sort patients
-                String sortOption = (String) patientSortCombo.getSelectedItem();
-                boolean ascending = patientAscendingCheckbox.isSelected();
-                
-                filteredPatients.sort((p1, p2) -> {
-                    int result = 0;
-                    switch(sortOption) {
-                        case "Name":
-                            result = p1.getName().compareTo(p2.getName());
-                            break;
-                        case "Age":
-                            result = Integer.compare(p1.getAge(), p2.getAge());
-                            break;
-                        case "Gender":
-                            result = p1.getGender().compareTo(p2.getGender());
-                            break;
-                        case "Blood Type":
-                            result = p1.getBloodType().compareTo(p2.getBloodType());
-                            break;
-                        case "ID":
-                            result = p1.getId().compareTo(p2.getId());
-                            break;
-                    }
-                    return ascending ? result : -result;
-                });
-                
-                // Update table
-                model.setRowCount(0);
-                for (Patient patient : filteredPatients) {
-                    model.addRow(new Object[]{
-                        patient.getId(),
-                        patient.getName(),
-                        patient.getAge(),
-                        patient.getGender(),
-                        patient.getBloodType(),
-                        patient.getPhone()
-                    });
-                }
-            }
-        });
-        
-        // Add sorting listener
-        patientSortCombo.addActionListener(e -> {
+        // Live search: filtered and sorted in the background once typing pauses
+        LiveSearch<Patient> search = new LiveSearch<Patient>(uiTasks, "patients", model, clinicService::getPatients, () -> {
             String searchText = liveSearchField.getText().toLowerCase();
-            ArrayList<Patient> filteredPatients = new ArrayList<>();
-            
-            for (Patient patient : clinic.getPatients()) {
-                String patientInfo = (patient.getId() + patient.getName() + patient.getGender() + 
-                                     patient.getBloodType() + patient.getPhone()).toLowerCase();
-                if (patientInfo.contains(searchText)) {
-                    filteredPatients.add(patient);
-                }
-            }
-            
-            // Sort patients
-            String sortOption = (String) patientSortCombo.getSelectedItem();
-            boolean ascending = patientAscendingCheckbox.isSelected();
-            
-            filteredPatients.sort((p1, p2) -> {
-                int result = 0;
-                switch(sortOption) {
-                    case "Name":
-                        result = p1.getName().compareTo(p2.getName());
-                        break;
-                    case "Age":
-                        result = Integer.compare(p1.getAge(), p2.getAge());
-                        break;
-                    case "Gender":
-                        result = p1.getGender().compareTo(p2.getGender());
-                        break;
-                    case "Blood Type":
-                        result = p1.getBloodType().compareTo(p2.getBloodType());
-                        break;
-                    case "ID":
-                        result = p1.getId().compareTo(p2.getId());
-                        break;
-                }
-                return ascending ? result : -result;
-            });
-            
-            // Update table
-            model.setRowCount(0);
-            for (Patient patient : filteredPatients) {
-                model.addRow(new Object[]{
-                    patient.getId(),
-                    patient.getName(),
-                    patient.getAge(),
-                    patient.getGender(),
-                    patient.getBloodType(),
-                    patient.getPhone()
-                });
-            }
-        });
-        
-        patientAscendingCheckbox.addActionListener(e -> {
-            String searchText = liveSearchField.getText().toLowerCase();
-            ArrayList<Patient> filteredPatients = new ArrayList<>();
-            
-            for (Patient patient : clinic.getPatients()) {
-                String patientInfo = (patient.getId() + patient.getName() + patient.getGender() + 
-                                     patient.getBloodType() + patient.getPhone()).toLowerCase();
-                if (patientInfo.contains(searchText)) {
-                    filteredPatients.add(patient);
-                }
-            }
-            
-            // Sort patients
-            String sortOption = (String) patientSortCombo.getSelectedItem();
-            boolean ascending = patientAscendingCheckbox.isSelected();
-            
-            filteredPatients.sort((p1, p2) -> {
-                int result = 0;
-                switch(sortOption) {
-                    case "Name":
-                        result = p1.getName().compareTo(p2.getName());
-                        break;
-                    case "Age":
-                        result = Integer.compare(p1.getAge(), p2.getAge());
-                        break;
-                    case "Gender":
-                        result = p1.getGender().compareTo(p2.getGender());
-                        break;
-                    case "Blood Type":
-                        result = p1.getBloodType().compareTo(p2.getBloodType());
-                        break;
-                    case "ID":
-                        result = p1.getId().compareTo(p2.getId());
-                        break;
-                }
-                return ascending ? result : -result;
-            });
-            
-            // Update table
-            model.setRowCount(0);
-            for (Patient patient : filteredPatients) {
-                model.addRow(new Object[]{
-                    patient.getId(),
-                    patient.getName(),
-                    patient.getAge(),
-                    patient.getGender(),
-                    patient.getBloodType(),
-                    patient.getPhone()
-                });
-            }
-        });
+            return new LiveSearch.Query<Patient>(
+                patient -> (patient.getId() + patient.getName() + patient.getGender() +
+                            patient.getBloodType() + patient.getPhone()).toLowerCase().contains(searchText),
+                patientOrder((String) patientSortCombo.getSelectedItem(), patientAscendingCheckbox.isSelected()));
+        }).listenTo(liveSearchField).listenTo(patientSortCombo).listenTo(patientAscendingCheckbox);
         
         JScrollPane scrollPane = new JScrollPane(table);
         scrollPane.setPreferredSize(new Dimension(1100, 400));
         contentPanel.add(scrollPane);
         
         mainPanel.add(panel, "PATIENTS");
-        cardLayout.show(mainPanel, "PATIENTS");
+        keepCurrent("PATIENTS", ClinicEvent.Entity.PATIENT,
+            event -> search.patch(event.getChange(), event.getEntityId(), (Patient) event.getSubject()));
+        return search::runNow;
+    }
+    
+    private java.util.Comparator<Patient> patientOrder(String sortOption, boolean ascending) {
+        return (p1, p2) -> {
+            int result = 0;
+            switch(sortOption) {
+                case "Name":
+                    result = p1.getName().compareTo(p2.getName());
+                    break;
+                case "Age":
+                    result = Integer.compare(p1.getAge(), p2.getAge());
+                    break;
+                case "Gender":
+                    result = p1.getGender().compareTo(p2.getGender());
+                    break;
+                case "Blood Type":
+                    result = p1.getBloodType().compareTo(p2.getBloodType());
+                    break;
+                case "ID":
+                    result = p1.getId().compareTo(p2.getId());
+                    break;
+            }
+            return ascending ? result : -result;
+        };
     }
     
     private void showAppointmentManagement() {
+        showScreen("APPOINTMENTS", this::buildAppointmentManagement);
+    }
+    
+    private Runnable buildAppointmentManagement() {
         JPanel panel = createManagementPanel("Appointment Management");
         JPanel contentPanel = (JPanel) ((JScrollPane) panel.getComponent(1)).getViewport().getView();
         
@@ -1229,6 +1064,10 @@ public class ClinicGUI extends JFrame {
             detailsBtn.setToolTipText("View appointment details");
             JButton cancelBtn = createStyledButton("Cancel", DANGER_COLOR);
             cancelBtn.setToolTipText("Cancel an appointment");
+            JButton waitlistBtn = createStyledButton("Waitlist", new Color(52, 73, 94));
+            waitlistBtn.setToolTipText("Put a patient on a fully booked doctor's waiting list");
+            JButton recurringBtn = createStyledButton("Recurring", new Color(22, 160, 133));
+            recurringBtn.setToolTipText("Set up repeating visits (e.g. weekly therapy)");
         
             scheduleBtn.addActionListener(e -> showScheduleAppointmentDialog());
             viewBtn.addActionListener(e -> showAllAppointments());
@@ -1237,6 +1076,8 @@ public class ClinicGUI extends JFrame {
             completeBtn.addActionListener(e -> showCompleteAppointmentDialog());
             detailsBtn.addActionListener(e -> showAppointmentDetailsDialog());
             cancelBtn.addActionListener(e -> showCancelAppointmentDialog());
+            waitlistBtn.addActionListener(e -> showWaitlistDialog());
+            recurringBtn.addActionListener(e -> showRecurringAppointmentDialog());
         
             buttonsPanel.add(scheduleBtn);
             buttonsPanel.add(viewBtn);
@@ -1245,30 +1086,22 @@ public class ClinicGUI extends JFrame {
             buttonsPanel.add(completeBtn);
             buttonsPanel.add(detailsBtn);
             buttonsPanel.add(cancelBtn);
+            buttonsPanel.add(waitlistBtn);
+            buttonsPanel.add(recurringBtn);
         
         contentPanel.add(buttonsPanel);
         contentPanel.add(Box.createRigidArea(new Dimension(0, 20)));
         
         // Display appointments table
-        String[] columns = {"ID", "Patient", "Doctor", "Date & Time", "Status", "Reason"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-        
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy hh:mm a");
-        for (Appointment apt : clinic.getAppointments()) {
-            model.addRow(new Object[]{
-                apt.getAppointmentId(),
-                apt.getPatient().getName(),
-                "Dr. " + apt.getDoctor().getName(),
-                sdf.format(apt.getDate()),
-                apt.getStatus(),
-                apt.getReason()
-            });
-        }
+        // Only the rows on screen are formatted, a page at a time in the background
+        java.time.format.DateTimeFormatter dateFormat = java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy hh:mm a");
+        PagedTableModel<Appointment> model = new PagedTableModel<Appointment>(uiTasks, "appointments", Appointment::getAppointmentId)
+            .column("ID", Appointment::getAppointmentId)
+            .column("Patient", apt -> apt.getPatient().getName())
+            .column("Doctor", apt -> "Dr. " + apt.getDoctor().getName())
+            .column("Date & Time", apt -> formatDate(dateFormat, apt.getDate()))
+            .column("Status", Appointment::getStatus)
+            .column("Reason", Appointment::getReason);
         
         JTable table = createStyledTable(model);
         JScrollPane scrollPane = new JScrollPane(table);
@@ -1276,18 +1109,36 @@ public class ClinicGUI extends JFrame {
         contentPanel.add(scrollPane);
         
         mainPanel.add(panel, "APPOINTMENTS");
-        cardLayout.show(mainPanel, "APPOINTMENTS");
+        // Appointments are never removed, only added or changed; a batch adds several rows at once
+        keepCurrent("APPOINTMENTS", ClinicEvent.Entity.APPOINTMENT, event -> {
+            if (event.getType() == ClinicEvent.Type.APPOINTMENTS_SCHEDULED) {
+                model.setRows(clinicService.getAppointments());
+            } else {
+                model.changed(clinicService.getAppointments(), event.getEntityId());
+            }
+        });
+        return () -> model.setRows(clinicService.getAppointments());
     }
     
     private void showFinancialManagement() {
         System.out.println("DEBUG: showFinancialManagement() called");
         try {
-            JPanel panel = createManagementPanel("Financial Management");
-            JPanel contentPanel = (JPanel) ((JScrollPane) panel.getComponent(1)).getViewport().getView();
-            
-            // Buttons panel
-            JPanel buttonsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
-            buttonsPanel.setBackground(CARD_BG);
+            showScreen("FINANCIAL", this::buildFinancialManagement);
+            System.out.println("DEBUG: Financial panel displayed successfully");
+        } catch (Exception ex) {
+            System.err.println("ERROR in showFinancialManagement: " + ex.getMessage());
+            ex.printStackTrace();
+            showError("Error loading Financial Management: " + ex.getMessage());
+        }
+    }
+    
+    private Runnable buildFinancialManagement() {
+        JPanel panel = createManagementPanel("Financial Management");
+        JPanel contentPanel = (JPanel) ((JScrollPane) panel.getComponent(1)).getViewport().getView();
+        
+        // Buttons panel
+        JPanel buttonsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+        buttonsPanel.setBackground(CARD_BG);
         
         JButton processBtn = createStyledButton("Process Payment", ACCENT_COLOR);
         JButton viewBtn = createStyledButton("View Summary", PRIMARY_COLOR);
@@ -1320,45 +1171,27 @@ public class ClinicGUI extends JFrame {
         JPanel summaryPanel = new JPanel(new GridLayout(1, 3, 20, 0));
         summaryPanel.setBackground(CARD_BG);
         
-        double totalRevenue = 0;
-        int totalTransactions = clinic.getFinancialServices().size();
-        int completedPayments = 0;
-        
-        for (FinancialService service : clinic.getFinancialServices()) {
-            totalRevenue += service.getTotalAmount();
-            if (service.getStatus().equals("Paid") || service.getStatus().equals("Completed")) {
-                completedPayments++;
-            }
-        }
-        
-        summaryPanel.add(createStatCard("Total Revenue", "$" + String.format("%.2f", totalRevenue), ACCENT_COLOR));
-        summaryPanel.add(createStatCard("Total Payments", String.valueOf(totalTransactions), PRIMARY_COLOR));
-        summaryPanel.add(createStatCard("Completed", String.valueOf(completedPayments), new Color(46, 204, 113)));
+        JPanel revenueCard = createStatCard("Total Revenue", "$0.00", ACCENT_COLOR);
+        JPanel paymentsCard = createStatCard("Total Payments", "0", PRIMARY_COLOR);
+        JPanel completedCard = createStatCard("Completed", "0", new Color(46, 204, 113));
+        summaryPanel.add(revenueCard);
+        summaryPanel.add(paymentsCard);
+        summaryPanel.add(completedCard);
         
         contentPanel.add(summaryPanel);
         contentPanel.add(Box.createRigidArea(new Dimension(0, 20)));
         
         // Financial services table
-        String[] columns = {"Invoice ID", "Patient", "Amount", "Total", "Method", "Date", "Status"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-        
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy hh:mm a");
-        for (FinancialService service : clinic.getFinancialServices()) {
-            model.addRow(new Object[]{
-                service.getInvoiceId(),
-                service.getPatient().getName(),
-                "$" + String.format("%.2f", service.getAmount()),
-                "$" + String.format("%.2f", service.getTotalAmount()),
-                service.getPaymentMethod(),
-                sdf.format(service.getInvoiceDate()),
-                service.getStatus()
-            });
-        }
+        // Only the rows on screen are formatted, a page at a time in the background
+        java.time.format.DateTimeFormatter dateFormat = java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy hh:mm a");
+        PagedTableModel<FinancialService> model = new PagedTableModel<FinancialService>(uiTasks, "invoices", FinancialService::getId)
+            .column("Invoice ID", FinancialService::getInvoiceId)
+            .column("Patient", service -> service.getPatient().getName())
+            .column("Amount", service -> "$" + String.format("%.2f", service.getAmount()))
+            .column("Total", service -> "$" + String.format("%.2f", service.getTotalAmount()))
+            .column("Method", FinancialService::getPaymentMethod)
+            .column("Date", service -> formatDate(dateFormat, service.getInvoiceDate()))
+            .column("Status", FinancialService::getStatus);
         
         JTable table = createStyledTable(model);
         JScrollPane scrollPane = new JScrollPane(table);
@@ -1366,13 +1199,31 @@ public class ClinicGUI extends JFrame {
         contentPanel.add(scrollPane);
         
         mainPanel.add(panel, "FINANCIAL");
-        cardLayout.show(mainPanel, "FINANCIAL");
-        System.out.println("DEBUG: Financial panel displayed successfully");
-        } catch (Exception ex) {
-            System.err.println("ERROR in showFinancialManagement: " + ex.getMessage());
-            ex.printStackTrace();
-            showError("Error loading Financial Management: " + ex.getMessage());
-        }
+        // Totals are added up in the background; the table only changes where an invoice did
+        Runnable refreshTotals = () -> uiTasks.runLatest("screen:financial", "Adding up payments", () -> {
+            double totalRevenue = 0;
+            int completedPayments = 0;
+            java.util.List<FinancialService> services = clinicService.getFinancialServices();
+            for (FinancialService service : services) {
+                totalRevenue += service.getTotalAmount();
+                if (service.getStatus().equals("Paid") || service.getStatus().equals("Completed")) {
+                    completedPayments++;
+                }
+            }
+            return new Object[]{totalRevenue, services.size(), completedPayments};
+        }, totals -> {
+            setStatCardValue(revenueCard, "$" + String.format("%.2f", (Double) totals[0]));
+            setStatCardValue(paymentsCard, String.valueOf(totals[1]));
+            setStatCardValue(completedCard, String.valueOf(totals[2]));
+        }, ex -> System.out.println("Error adding up payments: " + ex.getMessage()));
+        keepCurrent("FINANCIAL", ClinicEvent.Entity.INVOICE, event -> {
+            model.changed(clinicService.getFinancialServices(), event.getEntityId());
+            refreshTotals.run();
+        });
+        return () -> {
+            model.setRows(clinicService.getFinancialServices());
+            refreshTotals.run();
+        };
     }
 
     private void showPaymentHistoryDialog() {
@@ -1397,7 +1248,7 @@ public class ClinicGUI extends JFrame {
         patientCombo.setFont(new Font("Segoe UI", Font.PLAIN, 13));
         patientCombo.setPreferredSize(new Dimension(220, 32));
         patientCombo.addItem("All Patients");
-        for (Patient p : clinic.getPatients()) {
+        for (Patient p : clinicService.getPatients()) {
             patientCombo.addItem(p.getName() + " (" + p.getId() + ")");
         }
         filters.add(patientCombo);
@@ -1441,7 +1292,7 @@ public class ClinicGUI extends JFrame {
             String statusSel = (String) statusCombo.getSelectedItem();
             model.setRowCount(0);
             SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy hh:mm a");
-            for (FinancialService s : clinic.getFinancialServices()) {
+            for (FinancialService s : clinicService.getFinancialServices()) {
                 boolean patientMatch = true;
                 if (patientSel != null && !patientSel.equals("All Patients")) {
                     String idInSel = patientSel.substring(patientSel.lastIndexOf('(') + 1, patientSel.lastIndexOf(')'));
@@ -1476,7 +1327,7 @@ public class ClinicGUI extends JFrame {
             }
             String invoiceId = (String) model.getValueAt(row, 0);
             FinancialService found = null;
-            for (FinancialService s : clinic.getFinancialServices()) {
+            for (FinancialService s : clinicService.getFinancialServices()) {
                 if (s.getInvoiceId().equals(invoiceId)) { found = s; break; }
             }
             if (found == null) { showError("Record not found."); return; }
@@ -1516,7 +1367,7 @@ public class ClinicGUI extends JFrame {
     }
 
     private void showEditPaymentDialog() {
-        if (clinic.getFinancialServices().isEmpty()) {
+        if (clinicService.getFinancialServices().isEmpty()) {
             showInfo("No payments to edit.");
             return;
         }
@@ -1529,11 +1380,8 @@ public class ClinicGUI extends JFrame {
         panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         panel.setBackground(CARD_BG);
 
-        JComboBox<String> invoiceCombo = new JComboBox<>();
-        for (FinancialService s : clinic.getFinancialServices()) {
-            String patientName = (s.getPatient() != null ? s.getPatient().getName() : "-");
-            invoiceCombo.addItem(s.getInvoiceId() + " - " + patientName);
-        }
+        LazyComboBoxModel<FinancialService> invoices = invoiceChoices();
+        JComboBox<String> invoiceCombo = invoices.createComboBox();
         JTextField amountField = createStyledTextField();
         JTextField totalField = createStyledTextField();
         JComboBox<String> methodCombo = new JComboBox<>(new String[]{"CASH", "VISA"});
@@ -1561,9 +1409,8 @@ public class ClinicGUI extends JFrame {
         panel.add(btns);
 
         loadBtn.addActionListener(e -> {
-            int idx = invoiceCombo.getSelectedIndex();
-            if (idx < 0) return;
-            FinancialService s = clinic.getFinancialServices().get(idx);
+            FinancialService s = invoices.getSelectedEntity();
+            if (s == null) return;
             amountField.setText(String.valueOf(s.getAmount()));
             totalField.setText(String.valueOf(s.getTotalAmount()));
             methodCombo.setSelectedItem(s.getPaymentMethod());
@@ -1572,19 +1419,19 @@ public class ClinicGUI extends JFrame {
 
         saveBtn.addActionListener(e -> {
             try {
-                int idx = invoiceCombo.getSelectedIndex();
-                if (idx < 0) { showError("Select an invoice."); return; }
-                FinancialService s = clinic.getFinancialServices().get(idx);
+                FinancialService s = invoices.getSelectedEntity();
+                if (s == null) { showError("Select an invoice."); return; }
                 double amount = Double.parseDouble(amountField.getText().trim());
                 double total = Double.parseDouble(totalField.getText().trim());
                 String method = (String) methodCombo.getSelectedItem();
                 String status = (String) statusCombo.getSelectedItem();
 
-                s.setAmount(amount);
-                s.setTotalAmount(total);
-                s.setPaymentMethod(method);
-                s.setStatus(status);
-                autoSave();
+                clinicService.updateInvoice(s, invoice -> {
+                    invoice.setAmount(amount);
+                    invoice.setTotalAmount(total);
+                    invoice.setPaymentMethod(method);
+                    invoice.setStatus(status);
+                });
                 showSuccess("Payment updated for invoice: " + s.getInvoiceId());
                 dialog.dispose();
                 showFinancialManagement();
@@ -1598,7 +1445,7 @@ public class ClinicGUI extends JFrame {
     }
 
     private void showAddInvoiceItemDialog() {
-        if (clinic.getFinancialServices().isEmpty()) {
+        if (clinicService.getFinancialServices().isEmpty()) {
             showInfo("No invoices available.");
             return;
         }
@@ -1611,11 +1458,8 @@ public class ClinicGUI extends JFrame {
         panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         panel.setBackground(CARD_BG);
 
-        JComboBox<String> invoiceCombo = new JComboBox<>();
-        for (FinancialService s : clinic.getFinancialServices()) {
-            String patientName = (s.getPatient() != null ? s.getPatient().getName() : "-");
-            invoiceCombo.addItem(s.getInvoiceId() + " - " + patientName);
-        }
+        LazyComboBoxModel<FinancialService> invoices = invoiceChoices();
+        JComboBox<String> invoiceCombo = invoices.createComboBox();
         JTextField itemField = createStyledTextField();
 
         panel.add(createFormField("Invoice:", invoiceCombo));
@@ -1625,13 +1469,11 @@ public class ClinicGUI extends JFrame {
 
         JButton addBtn = createStyledButton("Add Item", ACCENT_COLOR);
         addBtn.addActionListener(e -> {
-            int idx = invoiceCombo.getSelectedIndex();
-            if (idx < 0) { showError("Select an invoice."); return; }
+            FinancialService s = invoices.getSelectedEntity();
+            if (s == null) { showError("Select an invoice."); return; }
             String item = itemField.getText().trim();
             if (item.isEmpty()) { showError("Enter an item description."); return; }
-            FinancialService s = clinic.getFinancialServices().get(idx);
-            s.addItem(item);
-            autoSave();
+            clinicService.updateInvoice(s, invoice -> invoice.addItem(item));
             showSuccess("Item added to invoice: " + s.getInvoiceId());
             dialog.dispose();
             showFinancialManagement();
@@ -1644,7 +1486,7 @@ public class ClinicGUI extends JFrame {
     }
 
     private void showQuickBillDialog() {
-        if (clinic.getFinancialServices().isEmpty()) {
+        if (clinicService.getFinancialServices().isEmpty()) {
             showInfo("No invoices available.");
             return;
         }
@@ -1657,11 +1499,8 @@ public class ClinicGUI extends JFrame {
         panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         panel.setBackground(CARD_BG);
 
-        JComboBox<String> invoiceCombo = new JComboBox<>();
-        for (FinancialService s : clinic.getFinancialServices()) {
-            String patientName = (s.getPatient() != null ? s.getPatient().getName() : "-");
-            invoiceCombo.addItem(s.getInvoiceId() + " - " + patientName);
-        }
+        LazyComboBoxModel<FinancialService> invoices = invoiceChoices();
+        JComboBox<String> invoiceCombo = invoices.createComboBox();
         JTextField extrasField = createStyledTextField();
         JLabel resultLabel = new JLabel("Total = ");
         resultLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
@@ -1675,9 +1514,8 @@ public class ClinicGUI extends JFrame {
 
         JButton calcBtn = createStyledButton("Calculate", PRIMARY_COLOR);
         calcBtn.addActionListener(e -> {
-            int idx = invoiceCombo.getSelectedIndex();
-            if (idx < 0) { showError("Select an invoice."); return; }
-            FinancialService s = clinic.getFinancialServices().get(idx);
+            FinancialService s = invoices.getSelectedEntity();
+            if (s == null) { showError("Select an invoice."); return; }
             String text = extrasField.getText().trim();
             if (text.isEmpty()) {
                 double total = s.calculateBill();
@@ -1706,7 +1544,7 @@ public class ClinicGUI extends JFrame {
     }
 
     private void showFinancialReportDialog() {
-        if (clinic.getFinancialServices().isEmpty()) {
+        if (clinicService.getFinancialServices().isEmpty()) {
             showInfo("No invoices available.");
             return;
         }
@@ -1719,11 +1557,8 @@ public class ClinicGUI extends JFrame {
         panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         panel.setBackground(CARD_BG);
 
-        JComboBox<String> invoiceCombo = new JComboBox<>();
-        for (FinancialService s : clinic.getFinancialServices()) {
-            String patientName = (s.getPatient() != null ? s.getPatient().getName() : "-");
-            invoiceCombo.addItem(s.getInvoiceId() + " - " + patientName);
-        }
+        LazyComboBoxModel<FinancialService> invoices = invoiceChoices();
+        JComboBox<String> invoiceCombo = invoices.createComboBox();
         panel.add(createFormField("Invoice:", invoiceCombo));
         panel.add(Box.createRigidArea(new Dimension(0, 12)));
 
@@ -1743,9 +1578,8 @@ public class ClinicGUI extends JFrame {
         panel.add(btns);
 
         generateBtn.addActionListener(e -> {
-            int idx = invoiceCombo.getSelectedIndex();
-            if (idx < 0) { showError("Select an invoice."); return; }
-            FinancialService s = clinic.getFinancialServices().get(idx);
+            FinancialService s = invoices.getSelectedEntity();
+            if (s == null) { showError("Select an invoice."); return; }
             area.setText(s.generateFinancialReport());
         });
         closeBtn.addActionListener(e -> dialog.dispose());
@@ -1755,6 +1589,49 @@ public class ClinicGUI extends JFrame {
     }
     
     private void showReports() {
+        showScreen("REPORTS", this::buildReports);
+    }
+    
+    /**
+     * Show a screen of the current clinic. The first visit calls build, which
+     * adds the panel to mainPanel under name and returns what brings it up to
+     * date; later visits only run that, on the panel already there. Screens
+     * kept current by keepCurrent() are not refreshed again.
+     */
+    private void showScreen(String name, java.util.function.Supplier<Runnable> build) {
+        Runnable refresh = screens.get(name);
+        if (refresh == null) {
+            refresh = build.get();
+            screens.put(name, refresh);
+            refresh.run();
+        } else if (!liveScreens.contains(name)) {
+            refresh.run();
+        }
+        cardLayout.show(mainPanel, name);
+        shownScreen = name;
+    }
+    
+    /**
+     * Called while building a screen: from now on, every added, edited or
+     * removed entity of this kind is passed to patch, which updates only its
+     * row. The screen stays current whether it is showing or not.
+     */
+    private void keepCurrent(String screen, ClinicEvent.Entity entity, java.util.function.Consumer<ClinicEvent> patch) {
+        liveScreens.add(screen);
+        screenPatches.computeIfAbsent(entity, k -> new ArrayList<>()).add(patch);
+    }
+    
+    // Drop every screen, e.g. because they show another clinic
+    private void clearScreens() {
+        screens.clear();
+        liveScreens.clear();
+        screenPatches.clear();
+        shownScreen = null;
+        mainPanel.removeAll();
+    }
+    
+    // The figures are worked out in the background and filled in when they arrive
+    private Runnable buildReports() {
         JPanel reportPanel = new JPanel(new BorderLayout(20, 20));
         reportPanel.setBackground(BG_COLOR);
         reportPanel.setBorder(BorderFactory.createEmptyBorder(30, 30, 30, 30));
@@ -1783,53 +1660,40 @@ public class ClinicGUI extends JFrame {
         
         // Clinic Info Card
         JPanel infoCard = createReportCard("Clinic Information", PRIMARY_COLOR);
-        addReportRow(infoCard, "Clinic ID:", clinic.getClinicId());
-        addReportRow(infoCard, "Name:", clinic.getName());
-        addReportRow(infoCard, "Address:", clinic.getAddress());
-        addReportRow(infoCard, "Phone:", clinic.getPhone());
+        JLabel idValue = addReportRow(infoCard, "Clinic ID:", "");
+        JLabel nameValue = addReportRow(infoCard, "Name:", "");
+        JLabel addressValue = addReportRow(infoCard, "Address:", "");
+        JLabel phoneValue = addReportRow(infoCard, "Phone:", "");
         contentPanel.add(infoCard);
         contentPanel.add(Box.createRigidArea(new Dimension(0, 20)));
         
         // Staff & Patients Card
         JPanel staffCard = createReportCard("Staff & Patients", SECONDARY_COLOR);
-        addReportRow(staffCard, "Total Doctors:", String.valueOf(clinic.getDoctors().size()));
-        addReportRow(staffCard, "Total Patients:", String.valueOf(clinic.getPatients().size()));
+        JLabel doctorsValue = addReportRow(staffCard, "Total Doctors:", "");
+        JLabel patientsValue = addReportRow(staffCard, "Total Patients:", "");
         contentPanel.add(staffCard);
         contentPanel.add(Box.createRigidArea(new Dimension(0, 20)));
         
         // Appointments Card
-        int scheduled = 0, completed = 0, cancelled = 0;
-        for (Appointment apt : clinic.getAppointments()) {
-            String status = apt.getStatus().toUpperCase();
-            if (status.equals("SCHEDULED")) scheduled++;
-            else if (status.equals("COMPLETED")) completed++;
-            else if (status.equals("CANCELLED")) cancelled++;
-        }
-        
         JPanel appointmentsCard = createReportCard("Appointments", ACCENT_COLOR);
-        addReportRow(appointmentsCard, "Total Appointments:", String.valueOf(clinic.getAppointments().size()));
-        addReportRow(appointmentsCard, "Scheduled:", String.valueOf(scheduled));
-        addReportRow(appointmentsCard, "Completed:", String.valueOf(completed));
-        addReportRow(appointmentsCard, "Cancelled:", String.valueOf(cancelled));
+        JLabel appointmentsValue = addReportRow(appointmentsCard, "Total Appointments:", "");
+        JLabel scheduledValue = addReportRow(appointmentsCard, "Scheduled:", "");
+        JLabel completedValue = addReportRow(appointmentsCard, "Completed:", "");
+        JLabel cancelledValue = addReportRow(appointmentsCard, "Cancelled:", "");
         contentPanel.add(appointmentsCard);
         contentPanel.add(Box.createRigidArea(new Dimension(0, 20)));
         
         // Financial Card
-        double totalRevenue = 0;
-        for (FinancialService service : clinic.getFinancialServices()) {
-            totalRevenue += service.getTotalAmount();
-        }
-        
         JPanel financialCard = createReportCard("Financial Summary", new Color(230, 126, 34));
-        addReportRow(financialCard, "Total Revenue:", "$" + String.format("%.2f", totalRevenue));
-        addReportRow(financialCard, "Total Transactions:", String.valueOf(clinic.getFinancialServices().size()));
+        JLabel revenueValue = addReportRow(financialCard, "Total Revenue:", "");
+        JLabel transactionsValue = addReportRow(financialCard, "Total Transactions:", "");
         contentPanel.add(financialCard);
         contentPanel.add(Box.createRigidArea(new Dimension(0, 20)));
         
         // Medical Records Card
         JPanel medicalCard = createReportCard("Medical Records", new Color(142, 68, 173));
-        addReportRow(medicalCard, "Health Reports:", String.valueOf(clinic.getHealthReports().size()));
-        addReportRow(medicalCard, "Medical Documents:", String.valueOf(clinic.getMedicalDocuments().size()));
+        JLabel healthReportsValue = addReportRow(medicalCard, "Health Reports:", "");
+        JLabel documentsValue = addReportRow(medicalCard, "Medical Documents:", "");
         contentPanel.add(medicalCard);
         
         JScrollPane scrollPane = new JScrollPane(contentPanel);
@@ -1838,10 +1702,23 @@ public class ClinicGUI extends JFrame {
         
         reportPanel.add(scrollPane, BorderLayout.CENTER);
         
-        mainPanel.removeAll();
-        mainPanel.add(reportPanel);
-        mainPanel.revalidate();
-        mainPanel.repaint();
+        mainPanel.add(reportPanel, "REPORTS");
+        return () -> uiTasks.runLatest("screen:stats", "Building report", clinicService::getStats, stats -> {
+            idValue.setText(clinicService.getClinicId());
+            nameValue.setText(clinicService.getName());
+            addressValue.setText(clinicService.getAddress());
+            phoneValue.setText(clinicService.getPhone());
+            doctorsValue.setText(String.valueOf(stats.doctors));
+            patientsValue.setText(String.valueOf(stats.patients));
+            appointmentsValue.setText(String.valueOf(stats.appointments));
+            scheduledValue.setText(String.valueOf(stats.scheduled));
+            completedValue.setText(String.valueOf(stats.completed));
+            cancelledValue.setText(String.valueOf(stats.cancelled));
+            revenueValue.setText("$" + String.format("%.2f", stats.totalRevenue));
+            transactionsValue.setText(String.valueOf(stats.transactions));
+            healthReportsValue.setText(String.valueOf(stats.healthReports));
+            documentsValue.setText(String.valueOf(stats.medicalDocuments));
+        }, ex -> showError("Could not build the report: " + ex.getMessage()));
     }
     
     private JPanel createReportCard(String title, Color headerColor) {
@@ -1871,7 +1748,7 @@ public class ClinicGUI extends JFrame {
         return card;
     }
     
-    private void addReportRow(JPanel card, String label, String value) {
+    private JLabel addReportRow(JPanel card, String label, String value) {
         JPanel row = new JPanel(new BorderLayout(20, 0));
         row.setBackground(CARD_BG);
         row.setBorder(BorderFactory.createEmptyBorder(12, 20, 12, 20));
@@ -1889,9 +1766,14 @@ public class ClinicGUI extends JFrame {
         row.add(valueText, BorderLayout.EAST);
         
         card.add(row);
+        return valueText;
     }
     
     private void showStatistics() {
+        showScreen("STATISTICS", this::buildStatistics);
+    }
+    
+    private Runnable buildStatistics() {
         JPanel panel = createManagementPanel("Clinic Statistics & Report");
         JPanel contentPanel = (JPanel) ((JScrollPane) panel.getComponent(1)).getViewport().getView();
         contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
@@ -1906,14 +1788,13 @@ public class ClinicGUI extends JFrame {
         ));
         clinicDetailsPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 150));
         
-        JLabel clinicTitleLabel = new JLabel("Clinic Details: " + clinic.getName());
+        JLabel clinicTitleLabel = new JLabel();
         clinicTitleLabel.setFont(new Font("Segoe UI", Font.BOLD, 18));
         clinicTitleLabel.setForeground(PRIMARY_COLOR);
         clinicDetailsPanel.add(clinicTitleLabel);
         clinicDetailsPanel.add(Box.createRigidArea(new Dimension(0, 10)));
         
-        String clinicDetails = clinic.getClinicDetails();
-        JLabel detailsLabel = new JLabel(clinicDetails.substring(clinicDetails.indexOf('{') + 1, clinicDetails.lastIndexOf('}')));
+        JLabel detailsLabel = new JLabel();
         detailsLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         detailsLabel.setForeground(Color.GRAY);
         clinicDetailsPanel.add(detailsLabel);
@@ -1927,21 +1808,19 @@ public class ClinicGUI extends JFrame {
         statsGrid.setPreferredSize(new Dimension(1000, 400));
         statsGrid.setMaximumSize(new Dimension(Integer.MAX_VALUE, 400));
         
-        statsGrid.add(createStatCard("Total Doctors", String.valueOf(clinic.getDoctors().size()), PRIMARY_COLOR));
-        statsGrid.add(createStatCard("Total Patients", String.valueOf(clinic.getPatients().size()), SECONDARY_COLOR));
-        statsGrid.add(createStatCard("Total Appointments", String.valueOf(clinic.getAppointments().size()), ACCENT_COLOR));
-        
-        int scheduled = 0, completed = 0, cancelled = 0;
-        for (Appointment apt : clinic.getAppointments()) {
-            String status = apt.getStatus();
-            if (status.equals("Scheduled") || status.equals("SCHEDULED")) scheduled++;
-            else if (status.equals("Completed") || status.equals("COMPLETED")) completed++;
-            else if (status.equals("Cancelled") || status.equals("CANCELLED")) cancelled++;
-        }
+        JPanel doctorsCard = createStatCard("Total Doctors", "0", PRIMARY_COLOR);
+        JPanel patientsCard = createStatCard("Total Patients", "0", SECONDARY_COLOR);
+        JPanel appointmentsCard = createStatCard("Total Appointments", "0", ACCENT_COLOR);
+        JPanel scheduledCard = createStatCard("Scheduled", "0", new Color(52, 152, 219));
+        JPanel completedCard = createStatCard("Completed", "0", new Color(46, 204, 113));
+        JPanel cancelledCard = createStatCard("Cancelled", "0", DANGER_COLOR);
+        statsGrid.add(doctorsCard);
+        statsGrid.add(patientsCard);
+        statsGrid.add(appointmentsCard);
         
-        statsGrid.add(createStatCard("Scheduled", String.valueOf(scheduled), new Color(52, 152, 219)));
-        statsGrid.add(createStatCard("Completed", String.valueOf(completed), new Color(46, 204, 113)));
-        statsGrid.add(createStatCard("Cancelled", String.valueOf(cancelled), DANGER_COLOR));
+        statsGrid.add(scheduledCard);
+        statsGrid.add(completedCard);
+        statsGrid.add(cancelledCard);
         
         contentPanel.add(statsGrid);
         contentPanel.add(Box.createRigidArea(new Dimension(0, 20)));
@@ -1962,8 +1841,7 @@ public class ClinicGUI extends JFrame {
         reportPanel.add(reportTitle);
         reportPanel.add(Box.createRigidArea(new Dimension(0, 10)));
         
-        String reportText = clinic.generateClinicReport();
-        JTextArea reportArea = new JTextArea(reportText);
+        JTextArea reportArea = new JTextArea();
         reportArea.setFont(new Font("Courier New", Font.PLAIN, 11));
         reportArea.setEditable(false);
         reportArea.setOpaque(false);
@@ -1987,7 +1865,7 @@ public class ClinicGUI extends JFrame {
             BorderFactory.createLineBorder(new Color(200, 200, 200), 1),
             BorderFactory.createEmptyBorder(15, 15, 15, 15)
         ));
-        JLabel healthLabel = new JLabel("Health Reports: " + clinic.getHealthReports().size());
+        JLabel healthLabel = new JLabel();
         healthLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
         healthLabel.setForeground(new Color(231, 76, 60));
         healthReportsCard.add(healthLabel);
@@ -2000,7 +1878,7 @@ public class ClinicGUI extends JFrame {
             BorderFactory.createLineBorder(new Color(200, 200, 200), 1),
             BorderFactory.createEmptyBorder(15, 15, 15, 15)
         ));
-        JLabel docsLabel = new JLabel("Medical Documents: " + clinic.getMedicalDocuments().size());
+        JLabel docsLabel = new JLabel();
         docsLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
         docsLabel.setForeground(new Color(155, 89, 182));
         medDocsCard.add(docsLabel);
@@ -2009,7 +1887,20 @@ public class ClinicGUI extends JFrame {
         contentPanel.add(recordsPanel);
         
         mainPanel.add(panel, "STATISTICS");
-        cardLayout.show(mainPanel, "STATISTICS");
+        return () -> uiTasks.runLatest("screen:stats", "Loading statistics", clinicService::getStats, stats -> {
+            clinicTitleLabel.setText("Clinic Details: " + clinicService.getName());
+            String clinicDetails = clinicService.getClinicDetails();
+            detailsLabel.setText(clinicDetails.substring(clinicDetails.indexOf('{') + 1, clinicDetails.lastIndexOf('}')));
+            setStatCardValue(doctorsCard, String.valueOf(stats.doctors));
+            setStatCardValue(patientsCard, String.valueOf(stats.patients));
+            setStatCardValue(appointmentsCard, String.valueOf(stats.appointments));
+            setStatCardValue(scheduledCard, String.valueOf(stats.scheduled));
+            setStatCardValue(completedCard, String.valueOf(stats.completed));
+            setStatCardValue(cancelledCard, String.valueOf(stats.cancelled));
+            reportArea.setText(stats.reportText);
+            healthLabel.setText("Health Reports: " + stats.healthReports);
+            docsLabel.setText("Medical Documents: " + stats.medicalDocuments);
+        }, ex -> showError("Could not load statistics: " + ex.getMessage()));
     }
     
     private JPanel createStatCard(String label, String value, Color color) {
@@ -2036,6 +1927,33 @@ public class ClinicGUI extends JFrame {
         card.add(labelLabel);
         card.add(Box.createVerticalGlue());
         
+        card.putClientProperty("valueLabel", valueLabel);
+        setStatCardValue(card, value);
+        
+        // Add hover effect with scale animation
+        card.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseEntered(MouseEvent e) {
+                card.setBackground(color.brighter());
+            }
+            
+            @Override
+            public void mouseExited(MouseEvent e) {
+                card.setBackground(color);
+            }
+        });
+        
+        return card;
+    }
+    
+    // Show a new figure on a card from createStatCard, counting up to it
+    private void setStatCardValue(JPanel card, String value) {
+        JLabel valueLabel = (JLabel) card.getClientProperty("valueLabel");
+        Animator.Handle running = (Animator.Handle) card.getClientProperty("countAnimation");
+        if (running != null) {
+            running.stop();
+        }
+        
         // Add animated counting effect - handle both numeric and currency values
         try {
             // Check if value contains currency symbol or decimal point
@@ -2046,43 +1964,19 @@ public class ClinicGUI extends JFrame {
                 // For currency or decimal values, just display directly without animation
                 valueLabel.setText(value);
             } else {
-                // For integer values, animate the counting
+                // For integer values, animate the counting: one step every 20 ms
                 int targetValue = Integer.parseInt(numericValue);
-                Timer countTimer = new Timer(20, new ActionListener() {
-                    int currentValue = 0;
-                    int increment = Math.max(1, targetValue / 30);
-                    
-                    @Override
-                    public void actionPerformed(ActionEvent e) {
-                        currentValue += increment;
-                        if (currentValue >= targetValue) {
-                            currentValue = targetValue;
-                            ((Timer) e.getSource()).stop();
-                        }
-                        valueLabel.setText(String.valueOf(currentValue));
-                    }
-                });
-                countTimer.start();
+                int increment = Math.max(1, targetValue / 30);
+                card.putClientProperty("countAnimation", animator.start(valueLabel, elapsed -> {
+                    long currentValue = Math.min(targetValue, (elapsed / 20 + 1) * increment);
+                    valueLabel.setText(String.valueOf(currentValue));
+                    return currentValue >= targetValue ? Animator.DONE : 20 - elapsed % 20;
+                }));
             }
         } catch (NumberFormatException ex) {
             // If parsing fails, just display the value as-is
             valueLabel.setText(value);
         }
-        
-        // Add hover effect with scale animation
-        card.addMouseListener(new MouseAdapter() {
-            @Override
-            public void mouseEntered(MouseEvent e) {
-                card.setBackground(color.brighter());
-            }
-            
-            @Override
-            public void mouseExited(MouseEvent e) {
-                card.setBackground(color);
-            }
-        });
-        
-        return card;
     }
     
     private JPanel createManagementPanel(String title) {
@@ -2268,8 +2162,7 @@ public class ClinicGUI extends JFrame {
                     doctor.addAvailableDay(day);
                 }
                 
-                clinic.addDoctor(doctor);
-                autoSave();
+                clinicService.addDoctor(doctor);
                 showSuccess("Doctor added successfully!\nID: " + doctor.getId() + "\nAvailable on " + selectedDays.size() + " days");
                 dialog.dispose();
                 showDoctorManagement();
@@ -2374,8 +2267,7 @@ public class ClinicGUI extends JFrame {
                 
                 Patient patient = new Patient(age, address, phone, name, bloodType, 
                                              phone, gender, new ArrayList<>());
-                clinic.registerPatient(patient);
-                autoSave();
+                clinicService.registerPatient(patient);
                 showSuccess("Patient registered successfully!\nID: " + patient.getId());
                 dialog.dispose();
                 showPatientManagement();
@@ -2405,7 +2297,7 @@ public class ClinicGUI extends JFrame {
         // Create patient dropdown
         JComboBox<String> patientCombo = new JComboBox<>();
         patientCombo.addItem("-- Select Patient --");
-        for (Patient patient : clinic.getPatients()) {
+        for (Patient patient : clinicService.getPatients()) {
             patientCombo.addItem(patient.getId() + " - " + patient.getName());
         }
         patientCombo.setFont(new Font("Segoe UI", Font.PLAIN, 15));
@@ -2415,7 +2307,7 @@ public class ClinicGUI extends JFrame {
         // Create doctor dropdown
         JComboBox<String> doctorCombo = new JComboBox<>();
         doctorCombo.addItem("-- Select Doctor --");
-        for (Doctor doctor : clinic.getDoctors()) {
+        for (Doctor doctor : clinicService.getDoctors()) {
             doctorCombo.addItem(doctor.getId() + " - Dr. " + doctor.getName() + " (" + doctor.getSpecialization() + ")");
         }
         doctorCombo.setFont(new Font("Segoe UI", Font.PLAIN, 15));
@@ -2449,9 +2341,9 @@ public class ClinicGUI extends JFrame {
             
             if (!doctorSelection.startsWith("--")) {
                 String doctorId = doctorSelection.split(" - ")[0];
-                Doctor selectedDoctor = clinic.searchDoctor(doctorId);
+                Doctor selectedDoctor = clinicService.searchDoctor(doctorId);
                 if (selectedDoctor != null) {
-                    for (String date : selectedDoctor.getAvailableDates()) {
+                    for (String date : clinicService.getAvailableDates(selectedDoctor)) {
                         dateCombo.addItem(date);
                     }
                     dateCombo.setEnabled(true);
@@ -2471,11 +2363,11 @@ public class ClinicGUI extends JFrame {
             if (dateSelection != null && !dateSelection.startsWith("--") && 
                 doctorSelection != null && !doctorSelection.startsWith("--")) {
                 String doctorId = doctorSelection.split(" - ")[0];
-                Doctor selectedDoctor = clinic.searchDoctor(doctorId);
+                Doctor selectedDoctor = clinicService.searchDoctor(doctorId);
                 if (selectedDoctor != null) {
                     // Extract date from "Day - dd/MM/yyyy" format
                     String dateOnly = dateSelection.contains(" - ") ? dateSelection.split(" - ")[1] : dateSelection;
-                    ArrayList<String> availableTimes = selectedDoctor.getAvailableTimesForDate(dateOnly);
+                    ArrayList<String> availableTimes = clinicService.getAvailableTimes(selectedDoctor, dateOnly);
                     for (String time : availableTimes) {
                         timeCombo.addItem(time);
                     }
@@ -2513,130 +2405,401 @@ public class ClinicGUI extends JFrame {
         reasonCombo.setMaximumSize(new Dimension(350, 40));
         
         panel.add(createFormField("Patient:", patientCombo));
-        panel.add(Box.createRigidArea(new Dimension(0, 10)));
+        panel.add(Box.createRigidArea(new Dimension(0, 10)));
+        panel.add(createFormField("Doctor:", doctorCombo));
+        panel.add(Box.createRigidArea(new Dimension(0, 10)));
+        panel.add(createFormField("Available Date:", dateCombo));
+        panel.add(Box.createRigidArea(new Dimension(0, 10)));
+        panel.add(createFormField("Time:", timeCombo));
+        panel.add(Box.createRigidArea(new Dimension(0, 10)));
+        panel.add(createFormField("Reason:", reasonCombo));
+        panel.add(Box.createRigidArea(new Dimension(0, 20)));
+        
+        JButton scheduleBtn = createStyledButton("Schedule", ACCENT_COLOR);
+        scheduleBtn.setAlignmentX(Component.CENTER_ALIGNMENT);
+        scheduleBtn.addActionListener(e -> {
+            try {
+                String patientSelection = (String) patientCombo.getSelectedItem();
+                String doctorSelection = (String) doctorCombo.getSelectedItem();
+                String dateSelection = (String) dateCombo.getSelectedItem();
+                String timeSelection = (String) timeCombo.getSelectedItem();
+                
+                if (patientSelection.startsWith("--") || doctorSelection.startsWith("--") || dateSelection.startsWith("--")) {
+                    showError("Please select patient, doctor, and date");
+                    return;
+                }
+                
+                String patientId = patientSelection.split(" - ")[0];
+                String doctorId = doctorSelection.split(" - ")[0];
+                String reason = (String) reasonCombo.getSelectedItem();
+                
+                if (timeSelection.startsWith("--")) {
+                    showError("Please select a time slot");
+                    return;
+                }
+                
+                Patient patient = clinicService.searchPatient(patientId);
+                Doctor doctor = clinicService.searchDoctor(doctorId);
+                
+                if (patient == null || doctor == null) {
+                    showError("Invalid Patient ID or Doctor ID");
+                    return;
+                }
+                
+                // Extract date from "Day - dd/MM/yyyy" format
+                String dateOnly = dateSelection.contains(" - ") ? dateSelection.split(" - ")[1] : dateSelection;
+                
+                // Check and book the slot in one step so nobody else can take it in between
+                scheduleBtn.setEnabled(false);
+                uiTasks.run("Booking appointment",
+                    () -> clinicService.bookAppointment(patient, doctor, dateOnly, timeSelection, reason),
+                    appointment -> {
+                        scheduleBtn.setEnabled(true);
+                        if (appointment == null) {
+                            showError("This time slot has just been booked for the doctor or the patient.\nPlease select another time.");
+                            return;
+                        }
+                        showSuccess("Appointment scheduled successfully!\nID: " + appointment.getAppointmentId() + 
+                                   "\nDate: " + dateSelection + "\nTime: " + timeSelection);
+                        dialog.dispose();
+                        showAppointmentManagement();
+                    },
+                    ex -> {
+                        scheduleBtn.setEnabled(true);
+                        showError("Could not book the appointment: " + ex.getMessage());
+                    });
+            } catch (Exception ex) {
+                showError("Invalid date/time format or other error: " + ex.getMessage());
+            }
+        });
+        
+        panel.add(scheduleBtn);
+        dialog.add(panel);
+        dialog.setVisible(true);
+    }
+    
+    private void showRemoveDoctorDialog() {
+        String doctorId = JOptionPane.showInputDialog(this, "Enter Doctor ID to remove:");
+        if (doctorId != null && !doctorId.trim().isEmpty()) {
+            int confirm = JOptionPane.showConfirmDialog(this, 
+                "Are you sure you want to remove this doctor?", 
+                "Confirm Remove", JOptionPane.YES_NO_OPTION);
+            if (confirm == JOptionPane.YES_OPTION) {
+                clinicService.removeDoctor(doctorId.trim());
+                showDoctorManagement();
+            }
+        }
+    }
+    
+    private void showRemovePatientDialog() {
+        String patientId = JOptionPane.showInputDialog(this, "Enter Patient ID to remove:");
+        if (patientId != null && !patientId.trim().isEmpty()) {
+            int confirm = JOptionPane.showConfirmDialog(this, 
+                "Are you sure you want to remove this patient?", 
+                "Confirm Remove", JOptionPane.YES_NO_OPTION);
+            if (confirm == JOptionPane.YES_OPTION) {
+                clinicService.removePatient(patientId.trim());
+                showPatientManagement();
+            }
+        }
+    }
+    
+    private void showCancelAppointmentDialog() {
+        String appointmentId = JOptionPane.showInputDialog(this, "Enter Appointment ID to cancel:");
+        if (appointmentId != null && !appointmentId.trim().isEmpty()) {
+            for (Appointment apt : clinicService.getAppointments()) {
+                if (apt.getAppointmentId().equals(appointmentId.trim())) {
+                    if (!apt.isActive()) {
+                        showError("Appointment is already " + apt.getStatus().toLowerCase() + "!");
+                        return;
+                    }
+                    Appointment refill = clinicService.cancelAppointment(apt);
+                    showSuccess("Appointment cancelled successfully!" + waitlistMessage(refill));
+                    showAppointmentManagement();
+                    return;
+                }
+            }
+            showError("Appointment not found!");
+        }
+    }
+    
+    private String waitlistMessage(Appointment refill) {
+        if (refill == null) {
+            return "";
+        }
+        return "\nFreed slot given to waitlisted patient " + refill.getPatient().getName() +
+               "\n(Appointment ID: " + refill.getAppointmentId() + ")";
+    }
+    
+    private void showWaitlistDialog() {
+        JDialog dialog = new JDialog(this, "Appointment Waitlist", true);
+        dialog.setSize(560, 640);
+        dialog.setLocationRelativeTo(this);
+        
+        JPanel panel = new JPanel();
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        panel.setBackground(CARD_BG);
+        
+        JComboBox<String> patientCombo = new JComboBox<>();
+        patientCombo.addItem("-- Select Patient --");
+        for (Patient patient : clinicService.getPatients()) {
+            patientCombo.addItem(patient.getId() + " - " + patient.getName());
+        }
+        
+        JComboBox<String> doctorCombo = new JComboBox<>();
+        doctorCombo.addItem("-- Select Doctor --");
+        for (Doctor doctor : clinicService.getDoctors()) {
+            doctorCombo.addItem(doctor.getId() + " - Dr. " + doctor.getName() + " (" + doctor.getSpecialization() + ")");
+        }
+        
+        // Fully booked days are listed too - that's what the waitlist is for
+        JComboBox<String> dateCombo = new JComboBox<>();
+        dateCombo.addItem("-- Select Date --");
+        dateCombo.setEnabled(false);
+        doctorCombo.addActionListener(e -> {
+            String doctorSelection = (String) doctorCombo.getSelectedItem();
+            dateCombo.removeAllItems();
+            dateCombo.addItem("-- Select Date --");
+            Doctor doctor = doctorSelection == null || doctorSelection.startsWith("--") ? null
+                : clinicService.searchDoctor(doctorSelection.split(" - ")[0]);
+            if (doctor != null) {
+                for (String date : doctor.getWorkingDates()) {
+                    dateCombo.addItem(date);
+                }
+            }
+            dateCombo.setEnabled(doctor != null);
+        });
+        
+        JComboBox<String> priorityCombo = new JComboBox<>(new String[]{"Normal", "High", "Urgent"});
+        JTextField reasonField = createStyledTextField();
+        reasonField.setText("Consultation");
+        
+        panel.add(createFormField("Patient:", patientCombo));
+        panel.add(Box.createRigidArea(new Dimension(0, 10)));
+        panel.add(createFormField("Doctor:", doctorCombo));
+        panel.add(Box.createRigidArea(new Dimension(0, 10)));
+        panel.add(createFormField("Date:", dateCombo));
+        panel.add(Box.createRigidArea(new Dimension(0, 10)));
+        panel.add(createFormField("Priority:", priorityCombo));
+        panel.add(Box.createRigidArea(new Dimension(0, 10)));
+        panel.add(createFormField("Reason:", reasonField));
+        panel.add(Box.createRigidArea(new Dimension(0, 15)));
+        
+        JTextArea waitingArea = new JTextArea(8, 40);
+        waitingArea.setEditable(false);
+        waitingArea.setFont(new Font("Courier New", Font.PLAIN, 12));
+        Runnable refreshWaiting = () -> {
+            StringBuilder sb = new StringBuilder();
+            for (WaitlistEntry entry : clinicService.getWaitlistEntries()) {
+                sb.append(entry.getEntryDetails()).append('\n');
+            }
+            waitingArea.setText(sb.length() == 0 ? "Nobody is waiting." : sb.toString());
+        };
+        refreshWaiting.run();
+        
+        JButton addBtn = createStyledButton("Add to Waitlist", ACCENT_COLOR);
+        addBtn.setAlignmentX(Component.CENTER_ALIGNMENT);
+        addBtn.addActionListener(e -> {
+            String patientSelection = (String) patientCombo.getSelectedItem();
+            String doctorSelection = (String) doctorCombo.getSelectedItem();
+            String dateSelection = (String) dateCombo.getSelectedItem();
+            if (patientSelection == null || patientSelection.startsWith("--") ||
+                doctorSelection == null || doctorSelection.startsWith("--") ||
+                dateSelection == null || dateSelection.startsWith("--")) {
+                showError("Please select patient, doctor, and date");
+                return;
+            }
+            Patient patient = clinicService.searchPatient(patientSelection.split(" - ")[0]);
+            Doctor doctor = clinicService.searchDoctor(doctorSelection.split(" - ")[0]);
+            if (patient == null || doctor == null) {
+                showError("Invalid Patient ID or Doctor ID");
+                return;
+            }
+            String dateOnly = dateSelection.contains(" - ") ? dateSelection.split(" - ")[1] : dateSelection;
+            int priority = WaitlistEntry.PRIORITY_NORMAL + priorityCombo.getSelectedIndex();
+            clinicService.addToWaitlist(new WaitlistEntry(patient, doctor, dateOnly, priority, reasonField.getText().trim()));
+            autoSave();
+            refreshWaiting.run();
+            showSuccess("Patient added to the waitlist.\nThey will be booked automatically when a slot frees up.");
+        });
+        
+        panel.add(addBtn);
+        panel.add(Box.createRigidArea(new Dimension(0, 15)));
+        panel.add(new JScrollPane(waitingArea));
+        
+        dialog.add(new JScrollPane(panel));
+        dialog.setVisible(true);
+    }
+    
+    private void showRecurringAppointmentDialog() {
+        JDialog dialog = new JDialog(this, "Recurring Appointments", true);
+        dialog.setSize(600, 780);
+        dialog.setLocationRelativeTo(this);
+        
+        JPanel panel = new JPanel();
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        panel.setBackground(CARD_BG);
+        
+        JComboBox<String> patientCombo = new JComboBox<>();
+        patientCombo.addItem("-- Select Patient --");
+        for (Patient patient : clinicService.getPatients()) {
+            patientCombo.addItem(patient.getId() + " - " + patient.getName());
+        }
+        
+        JComboBox<String> doctorCombo = new JComboBox<>();
+        doctorCombo.addItem("-- Select Doctor --");
+        for (Doctor doctor : clinicService.getDoctors()) {
+            doctorCombo.addItem(doctor.getId() + " - Dr. " + doctor.getName() + " (" + doctor.getSpecialization() + ")");
+        }
+        
+        JComboBox<String> dateCombo = new JComboBox<>();
+        dateCombo.addItem("-- First Visit --");
+        dateCombo.setEnabled(false);
+        doctorCombo.addActionListener(e -> {
+            String doctorSelection = (String) doctorCombo.getSelectedItem();
+            dateCombo.removeAllItems();
+            dateCombo.addItem("-- First Visit --");
+            Doctor doctor = doctorSelection == null || doctorSelection.startsWith("--") ? null
+                : clinicService.searchDoctor(doctorSelection.split(" - ")[0]);
+            if (doctor != null) {
+                for (String date : clinicService.getAvailableDates(doctor)) {
+                    dateCombo.addItem(date);
+                }
+            }
+            dateCombo.setEnabled(doctor != null);
+        });
+        
+        JComboBox<String> timeCombo = new JComboBox<>(new String[]{
+            "09:00 AM", "10:00 AM", "11:00 AM", "12:00 PM", "01:00 PM", "02:00 PM", "03:00 PM", "04:00 PM", "05:00 PM"
+        });
+        JComboBox<String> repeatCombo = new JComboBox<>(new String[]{"Weekly", "Every 2 weeks", "Every N days"});
+        JTextField everyField = createStyledTextField();
+        everyField.setText("7");
+        JTextField countField = createStyledTextField();
+        countField.setText("12");
+        JTextField untilField = createStyledTextField();
+        untilField.setToolTipText("Optional last day, dd/MM/yyyy");
+        JTextField reasonField = createStyledTextField();
+        reasonField.setText("Chronic Disease Management");
+        
+        panel.add(createFormField("Patient:", patientCombo));
         panel.add(createFormField("Doctor:", doctorCombo));
-        panel.add(Box.createRigidArea(new Dimension(0, 10)));
-        panel.add(createFormField("Available Date:", dateCombo));
-        panel.add(Box.createRigidArea(new Dimension(0, 10)));
+        panel.add(createFormField("First Visit:", dateCombo));
         panel.add(createFormField("Time:", timeCombo));
+        panel.add(createFormField("Repeat:", repeatCombo));
+        panel.add(createFormField("Every N Days (for \"Every N days\"):", everyField));
+        panel.add(createFormField("Number of Visits (0 = no limit):", countField));
+        panel.add(createFormField("Until (dd/MM/yyyy, optional):", untilField));
+        panel.add(createFormField("Reason:", reasonField));
         panel.add(Box.createRigidArea(new Dimension(0, 10)));
-        panel.add(createFormField("Reason:", reasonCombo));
-        panel.add(Box.createRigidArea(new Dimension(0, 20)));
         
-        JButton scheduleBtn = createStyledButton("Schedule", ACCENT_COLOR);
-        scheduleBtn.setAlignmentX(Component.CENTER_ALIGNMENT);
-        scheduleBtn.addActionListener(e -> {
+        // Upcoming visits of every series for the next 8 weeks
+        DefaultListModel<String> upcomingModel = new DefaultListModel<>();
+        ArrayList<AppointmentSeries.Occurrence> upcoming = new ArrayList<>();
+        JList<String> upcomingList = new JList<>(upcomingModel);
+        upcomingList.setFont(new Font("Courier New", Font.PLAIN, 12));
+        Runnable refreshUpcoming = () -> {
+            upcomingModel.clear();
+            upcoming.clear();
+            Date from = new Date();
+            Date to = new Date(from.getTime() + 56L * 24 * 60 * 60 * 1000);
+            SimpleDateFormat df = new SimpleDateFormat("EEE dd/MM/yyyy hh:mm a");
+            for (AppointmentSeries.Occurrence occurrence : clinicService.getSeriesOccurrences(from, to)) {
+                AppointmentSeries series = occurrence.getSeries();
+                upcoming.add(occurrence);
+                upcomingModel.addElement(df.format(occurrence.getDate()) + "  " + series.getPatient().getName() +
+                    " with Dr. " + series.getDoctor().getName() + (occurrence.isMoved() ? " (moved)" : ""));
+            }
+        };
+        refreshUpcoming.run();
+        
+        JButton createBtn = createStyledButton("Create Series", ACCENT_COLOR);
+        createBtn.addActionListener(e -> {
+            String patientSelection = (String) patientCombo.getSelectedItem();
+            String doctorSelection = (String) doctorCombo.getSelectedItem();
+            String dateSelection = (String) dateCombo.getSelectedItem();
+            if (patientSelection == null || patientSelection.startsWith("--") ||
+                doctorSelection == null || doctorSelection.startsWith("--") ||
+                dateSelection == null || dateSelection.startsWith("--")) {
+                showError("Please select patient, doctor, and first visit");
+                return;
+            }
+            Patient patient = clinicService.searchPatient(patientSelection.split(" - ")[0]);
+            Doctor doctor = clinicService.searchDoctor(doctorSelection.split(" - ")[0]);
+            if (patient == null || doctor == null) {
+                showError("Invalid Patient ID or Doctor ID");
+                return;
+            }
             try {
-                String patientSelection = (String) patientCombo.getSelectedItem();
-                String doctorSelection = (String) doctorCombo.getSelectedItem();
-                String dateSelection = (String) dateCombo.getSelectedItem();
-                String timeSelection = (String) timeCombo.getSelectedItem();
-                
-                if (patientSelection.startsWith("--") || doctorSelection.startsWith("--") || dateSelection.startsWith("--")) {
-                    showError("Please select patient, doctor, and date");
-                    return;
+                String dateOnly = dateSelection.contains(" - ") ? dateSelection.split(" - ")[1] : dateSelection;
+                Date start = new AppointmentRequest(patient, doctor, dateOnly, (String) timeCombo.getSelectedItem(), null).toDate();
+                int count = Integer.parseInt(countField.getText().trim());
+                Date until = null;
+                if (!untilField.getText().trim().isEmpty()) {
+                    SimpleDateFormat df = new SimpleDateFormat("dd/MM/yyyy");
+                    df.setLenient(false);
+                    until = df.parse(untilField.getText().trim());
                 }
-                
-                String patientId = patientSelection.split(" - ")[0];
-                String doctorId = doctorSelection.split(" - ")[0];
-                String reason = (String) reasonCombo.getSelectedItem();
-                
-                if (timeSelection.startsWith("--")) {
-                    showError("Please select a time slot");
-                    return;
+                if (count <= 0 && until == null) {
+                    int confirm = JOptionPane.showConfirmDialog(dialog,
+                        "This series has no end date or visit limit. Continue?", "Open-ended Series", JOptionPane.YES_NO_OPTION);
+                    if (confirm != JOptionPane.YES_OPTION) return;
                 }
-                
-                Patient patient = clinic.searchPatient(patientId);
-                Doctor doctor = clinic.searchDoctor(doctorId);
-                
-                if (patient == null || doctor == null) {
-                    showError("Invalid Patient ID or Doctor ID");
-                    return;
+                RecurrenceRule rule;
+                if (repeatCombo.getSelectedIndex() == 0) {
+                    rule = RecurrenceRule.weekly(start, until, count);
+                } else if (repeatCombo.getSelectedIndex() == 1) {
+                    rule = RecurrenceRule.everyNDays(start, 14, until, count);
+                } else {
+                    rule = RecurrenceRule.everyNDays(start, Integer.parseInt(everyField.getText().trim()), until, count);
                 }
-                
-                // Extract date from "Day - dd/MM/yyyy" format
-                String dateOnly = dateSelection.contains(" - ") ? dateSelection.split(" - ")[1] : dateSelection;
-                
-                // Check if time slot is still available
-                if (!doctor.isTimeSlotAvailable(dateOnly, timeSelection)) {
-                    showError("This time slot has just been booked. Please select another time.");
+                AppointmentSeries series = new AppointmentSeries(patient, doctor, rule, reasonField.getText().trim());
+                if (!clinicService.addAppointmentSeries(series)) {
+                    showError("This series clashes with an existing appointment or series.");
                     return;
                 }
-                
-                // Convert 12-hour format to 24-hour format
-                String dateStr = dateOnly + " " + timeSelection;
-                SimpleDateFormat sdf12 = new SimpleDateFormat("dd/MM/yyyy hh:mm a");
-                SimpleDateFormat sdf24 = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
-                Date date = sdf12.parse(dateStr);
-                String formattedDate = sdf24.format(date);
-                date = sdf24.parse(formattedDate);
-                
-                Appointment appointment = new Appointment(patient, doctor, date, "SCHEDULED", reason);
-                clinic.scheduleAppointment(appointment);
-                
-                // Book the time slot and remove date if fully booked
-                doctor.bookTimeSlot(dateOnly, timeSelection);
-                
-                autoSave();
-                showSuccess("Appointment scheduled successfully!\nID: " + appointment.getAppointmentId() + 
-                           "\nDate: " + dateSelection + "\nTime: " + timeSelection);
-                dialog.dispose();
-                showAppointmentManagement();
-            } catch (Exception ex) {
-                showError("Invalid date/time format or other error: " + ex.getMessage());
+                refreshUpcoming.run();
+                showSuccess("Recurring series created!\nID: " + series.getSeriesId() + "\n" + rule.getRuleDetails());
+            } catch (NumberFormatException ex) {
+                showError("Please enter whole numbers for the interval and number of visits");
+            } catch (java.text.ParseException ex) {
+                showError("Invalid until date. Use dd/MM/yyyy");
             }
         });
         
-        panel.add(scheduleBtn);
-        dialog.add(panel);
-        dialog.setVisible(true);
-    }
-    
-    private void showRemoveDoctorDialog() {
-        String doctorId = JOptionPane.showInputDialog(this, "Enter Doctor ID to remove:");
-        if (doctorId != null && !doctorId.trim().isEmpty()) {
-            int confirm = JOptionPane.showConfirmDialog(this, 
-                "Are you sure you want to remove this doctor?", 
-                "Confirm Remove", JOptionPane.YES_NO_OPTION);
-            if (confirm == JOptionPane.YES_OPTION) {
-                clinic.removeDoctor(doctorId.trim());
-                showDoctorManagement();
-            }
-        }
-    }
-    
-    private void showRemovePatientDialog() {
-        String patientId = JOptionPane.showInputDialog(this, "Enter Patient ID to remove:");
-        if (patientId != null && !patientId.trim().isEmpty()) {
-            int confirm = JOptionPane.showConfirmDialog(this, 
-                "Are you sure you want to remove this patient?", 
-                "Confirm Remove", JOptionPane.YES_NO_OPTION);
-            if (confirm == JOptionPane.YES_OPTION) {
-                clinic.removePatient(patientId.trim());
-                showPatientManagement();
-            }
-        }
-    }
-    
-    private void showCancelAppointmentDialog() {
-        String appointmentId = JOptionPane.showInputDialog(this, "Enter Appointment ID to cancel:");
-        if (appointmentId != null && !appointmentId.trim().isEmpty()) {
-            for (Appointment apt : clinic.getAppointments()) {
-                if (apt.getAppointmentId().equals(appointmentId.trim())) {
-                    apt.setStatus("CANCELLED");
-                    showSuccess("Appointment cancelled successfully!");
-                    showAppointmentManagement();
-                    return;
-                }
+        JButton skipBtn = createStyledButton("Skip Selected Visit", DANGER_COLOR);
+        skipBtn.addActionListener(e -> {
+            int idx = upcomingList.getSelectedIndex();
+            if (idx < 0) {
+                showError("Select a visit to skip");
+                return;
             }
-            showError("Appointment not found!");
-        }
+            AppointmentSeries.Occurrence occurrence = upcoming.get(idx);
+            clinicService.updateSeries(occurrence.getSeries(), series -> series.skipOccurrence(occurrence.getIndex()));
+            refreshUpcoming.run();
+        });
+        
+        JPanel btns = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
+        btns.setBackground(CARD_BG);
+        btns.add(createBtn);
+        btns.add(skipBtn);
+        panel.add(btns);
+        panel.add(Box.createRigidArea(new Dimension(0, 10)));
+        
+        JScrollPane upcomingScroll = new JScrollPane(upcomingList);
+        upcomingScroll.setPreferredSize(new Dimension(520, 180));
+        panel.add(upcomingScroll);
+        
+        dialog.add(new JScrollPane(panel));
+        dialog.setVisible(true);
     }
     
     private void showSearchDoctorDialog() {
         String doctorId = JOptionPane.showInputDialog(this, "Enter Doctor ID to search:");
         if (doctorId != null && !doctorId.trim().isEmpty()) {
-            Doctor doctor = clinic.searchDoctor(doctorId.trim());
+            Doctor doctor = clinicService.searchDoctor(doctorId.trim());
             if (doctor != null) {
                 JOptionPane.showMessageDialog(this, doctor.getDoctorDetails(), 
                     "Doctor Details", JOptionPane.INFORMATION_MESSAGE);
@@ -2647,7 +2810,7 @@ public class ClinicGUI extends JFrame {
     private void showEditDoctorDialog() {
         String doctorId = JOptionPane.showInputDialog(this, "Enter Doctor ID to edit:");
         if (doctorId != null && !doctorId.trim().isEmpty()) {
-            Doctor doctor = clinic.searchDoctor(doctorId.trim());
+            Doctor doctor = clinicService.searchDoctor(doctorId.trim());
             if (doctor != null) {
                 JDialog dialog = new JDialog(this, "Edit Doctor", true);
                 dialog.setSize(500, 350);
@@ -2678,10 +2841,14 @@ public class ClinicGUI extends JFrame {
                 saveBtn.setAlignmentX(Component.CENTER_ALIGNMENT);
                 saveBtn.addActionListener(e -> {
                     try {
-                        doctor.setSpecialization(specializationField.getText().trim());
-                        doctor.setLicenseNumber(licenseField.getText().trim());
-                        doctor.setYearsOfExperience(Integer.parseInt(experienceField.getText().trim()));
-                        autoSave();
+                        String specialization = specializationField.getText().trim();
+                        String license = licenseField.getText().trim();
+                        int experience = Integer.parseInt(experienceField.getText().trim());
+                        clinicService.updateDoctor(doctor, d -> {
+                            d.setSpecialization(specialization);
+                            d.setLicenseNumber(license);
+                            d.setYearsOfExperience(experience);
+                        });
                         showSuccess("Doctor information updated successfully!");
                         dialog.dispose();
                         showDoctorManagement();
@@ -2702,10 +2869,10 @@ public class ClinicGUI extends JFrame {
     private void showManageDoctorAvailabilityDialog() {
         String doctorId = JOptionPane.showInputDialog(this, "Enter Doctor ID to manage availability:");
         if (doctorId != null && !doctorId.trim().isEmpty()) {
-            Doctor doctor = clinic.searchDoctor(doctorId.trim());
+            Doctor doctor = clinicService.searchDoctor(doctorId.trim());
             if (doctor != null) {
                 JDialog dialog = new JDialog(this, "Manage Doctor Availability", true);
-                dialog.setSize(500, 450);
+                dialog.setSize(500, 520);
                 dialog.setLocationRelativeTo(this);
                 
                 JPanel panel = new JPanel();
@@ -2731,18 +2898,37 @@ public class ClinicGUI extends JFrame {
                     panel.add(checkbox);
                 }
                 
+                panel.add(Box.createRigidArea(new Dimension(0, 15)));
+                
+                JSpinner horizonSpinner = new JSpinner(new SpinnerNumberModel(doctor.getAvailabilityHorizonDays(), 7, 365, 7));
+                horizonSpinner.setMaximumSize(new Dimension(100, 30));
+                horizonSpinner.setAlignmentX(Component.LEFT_ALIGNMENT);
+                JLabel horizonLabel = new JLabel("Booking horizon (days ahead):");
+                horizonLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+                panel.add(horizonLabel);
+                panel.add(horizonSpinner);
+                
                 panel.add(Box.createRigidArea(new Dimension(0, 20)));
                 
                 JButton saveBtn = createStyledButton("Save Availability", ACCENT_COLOR);
                 saveBtn.setAlignmentX(Component.CENTER_ALIGNMENT);
                 saveBtn.addActionListener(e -> {
-                    doctor.clearAvailableDays();
+                    int horizon = (Integer) horizonSpinner.getValue();
+                    java.util.List<String> days = new ArrayList<>();
                     for (JCheckBox checkbox : dayCheckboxes) {
                         if (checkbox.isSelected()) {
-                            doctor.addAvailableDay(checkbox.getText());
+                            days.add(checkbox.getText());
                         }
                     }
-                    autoSave();
+                    clinicService.updateDoctor(doctor, d -> {
+                        if (horizon != d.getAvailabilityHorizonDays()) {
+                            d.setAvailabilityHorizonDays(horizon);
+                        }
+                        d.clearAvailableDays();
+                        for (String day : days) {
+                            d.addAvailableDay(day);
+                        }
+                    });
                     showSuccess("Doctor availability updated successfully!");
                     dialog.dispose();
                     showDoctorManagement();
@@ -2760,7 +2946,7 @@ public class ClinicGUI extends JFrame {
     private void showDoctorReportDialog() {
         String doctorId = JOptionPane.showInputDialog(this, "Enter Doctor ID to view report:");
         if (doctorId != null && !doctorId.trim().isEmpty()) {
-            Doctor doctor = clinic.searchDoctor(doctorId.trim());
+            Doctor doctor = clinicService.searchDoctor(doctorId.trim());
             if (doctor != null) {
                 JDialog dialog = new JDialog(this, "Doctor Report", true);
                 dialog.setSize(600, 450);
@@ -2818,7 +3004,7 @@ public class ClinicGUI extends JFrame {
     private void showSearchPatientDialog() {
         String patientId = JOptionPane.showInputDialog(this, "Enter Patient ID to search:");
         if (patientId != null && !patientId.trim().isEmpty()) {
-            Patient patient = clinic.searchPatient(patientId.trim());
+            Patient patient = clinicService.searchPatient(patientId.trim());
             if (patient != null) {
                 String info = "ID: " + patient.getId() + "\n" +
                              "Name: " + patient.getName() + "\n" +
@@ -2835,7 +3021,7 @@ public class ClinicGUI extends JFrame {
     private void showEditPatientDialog() {
         String patientId = JOptionPane.showInputDialog(this, "Enter Patient ID to edit:");
         if (patientId != null && !patientId.trim().isEmpty()) {
-            Patient patient = clinic.searchPatient(patientId.trim());
+            Patient patient = clinicService.searchPatient(patientId.trim());
             if (patient != null) {
                 JDialog dialog = new JDialog(this, "Edit Patient", true);
                 dialog.setSize(500, 450);
@@ -2885,11 +3071,11 @@ public class ClinicGUI extends JFrame {
                         String newGender = (String) genderCombo.getSelectedItem();
                         String newBloodType = (String) bloodTypeCombo.getSelectedItem();
                         
-                        patient.setAge(newAge);
-                        patient.setGender(newGender);
-                        patient.setBloodType(newBloodType);
-                        
-                        autoSave();
+                        clinicService.updatePatient(patient, p -> {
+                            p.setAge(newAge);
+                            p.setGender(newGender);
+                            p.setBloodType(newBloodType);
+                        });
                         showSuccess("Patient updated successfully!");
                         dialog.dispose();
                         showPatientManagement();
@@ -2915,7 +3101,7 @@ public class ClinicGUI extends JFrame {
     private void showManagePatientRecordsDialog() {
         String patientId = JOptionPane.showInputDialog(this, "Enter Patient ID to manage records:");
         if (patientId != null && !patientId.trim().isEmpty()) {
-            Patient patient = clinic.searchPatient(patientId.trim());
+            Patient patient = clinicService.searchPatient(patientId.trim());
             if (patient != null) {
                 JDialog dialog = new JDialog(this, "Manage Medical Records", true);
                 dialog.setSize(600, 500);
@@ -2977,8 +3163,7 @@ public class ClinicGUI extends JFrame {
                 addRecordBtn.addActionListener(e -> {
                     String newRecord = recordField.getText().trim();
                     if (!newRecord.isEmpty()) {
-                        patient.addMedicalRecord(newRecord);
-                        autoSave();
+                        clinicService.updatePatient(patient, p -> p.addMedicalRecord(newRecord));
                         showSuccess("Record added successfully!");
                         dialog.dispose();
                         showManagePatientRecordsDialog();
@@ -3003,7 +3188,7 @@ public class ClinicGUI extends JFrame {
     private void showPatientDetailsDialog() {
         String patientId = JOptionPane.showInputDialog(this, "Enter Patient ID to view details:");
         if (patientId != null && !patientId.trim().isEmpty()) {
-            Patient patient = clinic.searchPatient(patientId.trim());
+            Patient patient = clinicService.searchPatient(patientId.trim());
             if (patient != null) {
                 JDialog dialog = new JDialog(this, "Patient Details", true);
                 dialog.setSize(600, 500);
@@ -3109,7 +3294,7 @@ public class ClinicGUI extends JFrame {
         // Create patient dropdown
         JComboBox<String> patientCombo = new JComboBox<>();
         patientCombo.addItem("-- Select Patient --");
-        for (Patient patient : clinic.getPatients()) {
+        for (Patient patient : clinicService.getPatients()) {
             patientCombo.addItem(patient.getId() + " - " + patient.getName());
         }
         patientCombo.setFont(new Font("Segoe UI", Font.PLAIN, 15));
@@ -3148,7 +3333,7 @@ public class ClinicGUI extends JFrame {
                 double total = Double.parseDouble(totalField.getText().trim());
                 String method = (String) methodCombo.getSelectedItem();
                 
-                Patient patient = clinic.searchPatient(patientId);
+                Patient patient = clinicService.searchPatient(patientId);
                 if (patient == null) {
                     showError("Patient not found!");
                     return;
@@ -3157,9 +3342,8 @@ public class ClinicGUI extends JFrame {
                 // Create and save financial service
                 FinancialService service = new FinancialService(patient, amount, total, "Pending", method);
                 service.processPayment(total);
-                clinic.addFinancialService(service);
+                clinicService.addFinancialService(service);
                 
-                autoSave();
                 showSuccess("Payment processed successfully!\nInvoice ID: " + service.getInvoiceId() + "\nStatus: " + service.getStatus());
                 dialog.dispose();
                 showFinancialManagement();
@@ -3177,7 +3361,7 @@ public class ClinicGUI extends JFrame {
     }
     
     private void showAllDoctors() {
-        if (clinic.getDoctors().isEmpty()) {
+        if (clinicService.getDoctors().isEmpty()) {
             showInfo("No doctors in the clinic");
         } else {
             showDoctorManagement();
@@ -3185,7 +3369,7 @@ public class ClinicGUI extends JFrame {
     }
     
     private void showAllPatients() {
-        if (clinic.getPatients().isEmpty()) {
+        if (clinicService.getPatients().isEmpty()) {
             showInfo("No patients registered");
         } else {
             showPatientManagement();
@@ -3193,7 +3377,7 @@ public class ClinicGUI extends JFrame {
     }
     
     private void showAllAppointments() {
-        if (clinic.getAppointments().isEmpty()) {
+        if (clinicService.getAppointments().isEmpty()) {
             showInfo("No appointments scheduled");
         } else {
             showAppointmentManagement();
@@ -3332,7 +3516,7 @@ public class ClinicGUI extends JFrame {
         return button;
     }
     
-    private JTable createStyledTable(DefaultTableModel model) {
+    private JTable createStyledTable(javax.swing.table.TableModel model) {
         JTable table = new JTable(model) {
             private int hoveredRow = -1;
             
@@ -3384,9 +3568,11 @@ public class ClinicGUI extends JFrame {
                                 window.setLocation(mousePos.x + 10, mousePos.y - 30);
                                 window.setVisible(true);
                                 
-                                Timer timer = new Timer(1000, evt -> window.dispose());
-                                timer.setRepeats(false);
-                                timer.start();
+                                animator.start(notification, elapsed -> {
+                                    if (elapsed < 1000) return 1000 - elapsed;
+                                    window.dispose();
+                                    return Animator.DONE;
+                                });
                             }
                         }
                     }
@@ -3520,6 +3706,10 @@ public class ClinicGUI extends JFrame {
     }
     
     private void showHealthReports() {
+        showScreen("HEALTH_REPORTS", this::buildHealthReports);
+    }
+    
+    private Runnable buildHealthReports() {
         JPanel healthPanel = new JPanel(new BorderLayout(20, 20));
         healthPanel.setBackground(Color.WHITE);
         healthPanel.setBorder(BorderFactory.createEmptyBorder(30, 30, 30, 30));
@@ -3546,12 +3736,7 @@ public class ClinicGUI extends JFrame {
         
         // Table (expanded)
         String[] columnNames = {"Report ID", "Patient Name", "Date", "Height (cm)", "Weight (kg)", "BMI", "Blood Pressure", "Heart Rate", "Temperature", "Blood Sugar", "Condition"};
-        DefaultTableModel tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        EntityTableModel<Health_Report> tableModel = createHealthReportsModel(columnNames);
         
         JTable reportsTable = createStyledTable(tableModel);
         JScrollPane scrollPane = new JScrollPane(reportsTable);
@@ -3566,80 +3751,61 @@ public class ClinicGUI extends JFrame {
         
         healthPanel.add(centerPanel, BorderLayout.CENTER);
         
-        // Load initial data
-        loadHealthReports(tableModel);
-        
         // Button actions
-        createReportBtn.addActionListener(e -> showCreateHealthReportDialog(tableModel));
+        createReportBtn.addActionListener(e -> showCreateHealthReportDialog());
         viewAllBtn.addActionListener(e -> loadHealthReports(tableModel));
         detailsBtn.addActionListener(e -> {
             int row = reportsTable.getSelectedRow();
             if (row == -1) { showError("Select a report to view details."); return; }
-            String reportId = (String) reportsTable.getValueAt(row, 0);
-            Health_Report target = null;
-            for (Health_Report r : clinic.getHealthReports()) {
-                if (r.getReportId().equals(reportId)) { target = r; break; }
-            }
-            if (target == null) { showError("Report not found."); return; }
-            showHealthReportDetailsDialog(target, tableModel);
+            showHealthReportDetailsDialog(tableModel.getRow(row));
         });
         backBtn.addActionListener(e -> showMainDashboard());
         
-        mainPanel.removeAll();
-        mainPanel.add(healthPanel);
-        mainPanel.revalidate();
-        mainPanel.repaint();
+        mainPanel.add(healthPanel, "HEALTH_REPORTS");
+        keepCurrent("HEALTH_REPORTS", ClinicEvent.Entity.HEALTH_REPORT, event -> patchHealthReport(tableModel, event));
+        return () -> loadHealthReports(tableModel);
     }
     
-    private void loadHealthReports(DefaultTableModel tableModel) {
-        tableModel.setRowCount(0);
+    /**
+     * A table of health reports with the given headers. The columns are, in
+     * order, id, patient, date, height, weight, BMI, blood pressure, heart
+     * rate, temperature, blood sugar and condition; fewer headers show fewer.
+     */
+    private EntityTableModel<Health_Report> createHealthReportsModel(String[] columnNames) {
         SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy hh:mm a");
-        
-        for (Health_Report report : clinic.getHealthReports()) {
-            String patientName = report.getPatient() != null ? report.getPatient().getName() : "Unknown";
-            
-            int cols = tableModel.getColumnCount();
-            if (cols >= 11) {
-                tableModel.addRow(new Object[]{
-                    report.getReportId(),
-                    patientName,
-                    dateFormat.format(report.getReportDate()),
-                    report.getHeight(),
-                    report.getWeight(),
-                    String.format("%.2f", report.getBmi()),
-                    report.getBloodPressure(),
-                    report.getHeartRate() + " bpm",
-                    report.getTemperature() + "°C",
-                    report.getBloodSugar(),
-                    report.getGeneralCondition()
-                });
-            } else if (cols >= 9) {
-                tableModel.addRow(new Object[]{
-                    report.getReportId(),
-                    patientName,
-                    dateFormat.format(report.getReportDate()),
-                    report.getHeight(),
-                    report.getWeight(),
-                    String.format("%.2f", report.getBmi()),
-                    report.getBloodPressure(),
-                    report.getHeartRate() + " bpm",
-                    report.getTemperature() + "°C"
-                });
-            } else {
-                tableModel.addRow(new Object[]{
-                    report.getReportId(),
-                    patientName,
-                    dateFormat.format(report.getReportDate()),
-                    String.format("%.2f", report.getBmi()),
-                    report.getBloodPressure(),
-                    report.getHeartRate() + " bpm",
-                    report.getTemperature() + "°C"
-                });
-            }
+        java.util.List<java.util.function.Function<Health_Report, Object>> values = java.util.List.of(
+            Health_Report::getReportId,
+            report -> report.getPatient() != null ? report.getPatient().getName() : "Unknown",
+            report -> dateFormat.format(report.getReportDate()),
+            Health_Report::getHeight,
+            Health_Report::getWeight,
+            report -> String.format("%.2f", report.getBmi()),
+            Health_Report::getBloodPressure,
+            report -> report.getHeartRate() + " bpm",
+            report -> report.getTemperature() + "°C",
+            Health_Report::getBloodSugar,
+            Health_Report::getGeneralCondition
+        );
+        EntityTableModel<Health_Report> model = new EntityTableModel<>(Health_Report::getReportId);
+        for (int i = 0; i < columnNames.length; i++) {
+            model.column(columnNames[i], values.get(i));
+        }
+        return model;
+    }
+    
+    private void loadHealthReports(EntityTableModel<Health_Report> tableModel) {
+        tableModel.setRows(clinicService.getHealthReports());
+    }
+    
+    // One report added or edited: add or redraw its row only
+    private void patchHealthReport(EntityTableModel<Health_Report> tableModel, ClinicEvent event) {
+        Health_Report report = (Health_Report) event.getSubject();
+        if (!tableModel.update(report)) {
+            tableModel.add(report);
         }
     }
     
-    private void showCreateHealthReportDialog(DefaultTableModel tableModel) {
+    private void showCreateHealthReportDialog() {
         JDialog dialog = new JDialog(this, "Create Health Report", true);
         dialog.setLayout(new BorderLayout(20, 20));
         dialog.setSize(600, 750);
@@ -3670,7 +3836,7 @@ public class ClinicGUI extends JFrame {
         patientCombo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         patientCombo.setAlignmentX(Component.CENTER_ALIGNMENT);
         
-        for (Patient p : clinic.getPatients()) {
+        for (Patient p : clinicService.getPatients()) {
             patientCombo.addItem(p.getId() + " - " + p.getName());
         }
         
@@ -3771,7 +3937,7 @@ public class ClinicGUI extends JFrame {
             try {
                 String patientSelection = (String) patientCombo.getSelectedItem();
                 String patientId = patientSelection.split(" - ")[0];
-                Patient patient = clinic.searchPatient(patientId);
+                Patient patient = clinicService.searchPatient(patientId);
                 
                 double height = Double.parseDouble(heightField.getText().trim());
                 double weight = Double.parseDouble(weightField.getText().trim());
@@ -3786,9 +3952,8 @@ public class ClinicGUI extends JFrame {
                 
                 // Create health report
                 Health_Report report = new Health_Report(patient, height, weight, bloodPressure, bmi, heartRate, temperature, bloodSugar);
-                clinic.addHealthReport(report);
+                clinicService.addHealthReport(report);
                 
-                loadHealthReports(tableModel);
                 showSuccess("Health report created successfully!");
                 dialog.dispose();
             } catch (NumberFormatException ex) {
@@ -3807,6 +3972,10 @@ public class ClinicGUI extends JFrame {
     }
     
     private void showMedicalReports() {
+        showScreen("MEDICAL_REPORTS", this::buildMedicalReports);
+    }
+    
+    private Runnable buildMedicalReports() {
         JPanel medicalPanel = new JPanel(new BorderLayout(20, 20));
         medicalPanel.setBackground(Color.WHITE);
         medicalPanel.setBorder(BorderFactory.createEmptyBorder(30, 30, 30, 30));
@@ -3839,33 +4008,29 @@ public class ClinicGUI extends JFrame {
         
         // Tab 1: Health Reports
         String[] healthReportColumns = {"Report ID", "Patient Name", "Date", "Height (cm)", "Weight (kg)", "BMI", "BP", "HR (bpm)", "Temp (°C)"};
-        DefaultTableModel healthReportsModel = new DefaultTableModel(healthReportColumns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        EntityTableModel<Health_Report> healthReportsModel = createHealthReportsModel(healthReportColumns);
         
         JTable healthReportsTable = createStyledTable(healthReportsModel);
         JScrollPane healthScrollPane = new JScrollPane(healthReportsTable);
         healthScrollPane.setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220), 1));
         tabbedPane.addTab("Health Reports", healthScrollPane);
-        loadHealthReports(healthReportsModel);
         
         // Tab 2: Medical Documents
-        String[] documentColumns = {"Doc ID", "Patient Name", "Doctor Name", "Date", "Diagnosis", "Treatment"};
-        DefaultTableModel documentsModel = new DefaultTableModel(documentColumns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        SimpleDateFormat documentDateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm a");
+        java.util.function.Function<String, String> patientName = nameLookup(clinicService::getPatients);
+        java.util.function.Function<String, String> doctorName = nameLookup(clinicService::getDoctors);
+        EntityTableModel<Medical_Document> documentsModel = new EntityTableModel<Medical_Document>(Medical_Document::getDocId)
+            .column("Doc ID", Medical_Document::getDocId)
+            .column("Patient Name", doc -> patientName.apply(doc.getPatientId()))
+            .column("Doctor Name", doc -> doctorName.apply(doc.getDoctorId()))
+            .column("Date", doc -> documentDateFormat.format(doc.getDate()))
+            .column("Diagnosis", Medical_Document::getDiagnosis)
+            .column("Treatment", Medical_Document::getTreatment);
         
         JTable docsTable = createStyledTable(documentsModel);
         JScrollPane docsScrollPane = new JScrollPane(docsTable);
         docsScrollPane.setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220), 1));
         tabbedPane.addTab("Medical Documents", docsScrollPane);
-        loadMedicalReports(documentsModel);
         
         // Center panel to hold button panel and table
         JPanel centerPanel = new JPanel(new BorderLayout(0, 20));
@@ -3876,54 +4041,66 @@ public class ClinicGUI extends JFrame {
         medicalPanel.add(centerPanel, BorderLayout.CENTER);
         
         // Button actions
-        createReportBtn.addActionListener(e -> showCreateHealthReportDialog(healthReportsModel));
-        createDocBtn.addActionListener(e -> showCreateReportDialog(documentsModel));
+        createReportBtn.addActionListener(e -> showCreateHealthReportDialog());
+        createDocBtn.addActionListener(e -> showCreateReportDialog());
         viewAllReportsBtn.addActionListener(e -> loadHealthReports(healthReportsModel));
         viewAllDocsBtn.addActionListener(e -> loadMedicalReports(documentsModel));
         backBtn.addActionListener(e -> showMainDashboard());
         
-        mainPanel.removeAll();
-        mainPanel.add(medicalPanel);
-        mainPanel.revalidate();
-        mainPanel.repaint();
+        mainPanel.add(medicalPanel, "MEDICAL_REPORTS");
+        keepCurrent("MEDICAL_REPORTS", ClinicEvent.Entity.HEALTH_REPORT, event -> patchHealthReport(healthReportsModel, event));
+        keepCurrent("MEDICAL_REPORTS", ClinicEvent.Entity.MEDICAL_DOCUMENT, event -> {
+            Medical_Document document = (Medical_Document) event.getSubject();
+            if (!documentsModel.update(document)) {
+                documentsModel.add(document);
+            }
+        });
+        return () -> {
+            loadHealthReports(healthReportsModel);
+            loadMedicalReports(documentsModel);
+        };
     }
     
-    private void loadMedicalReports(DefaultTableModel tableModel) {
-        tableModel.setRowCount(0);
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm a");
-        
-        for (Medical_Document doc : clinic.getMedicalDocuments()) {
-            String patientName = "Unknown";
-            String doctorName = "Unknown";
-            
-            // Find patient name
-            for (Patient patient : clinic.getPatients()) {
-                if (patient.getId().equals(String.valueOf(doc.getPatientId()))) {
-                    patientName = patient.getName();
-                    break;
-                }
-            }
-            
-            // Find doctor name
-            for (Doctor doctor : clinic.getDoctors()) {
-                if (doctor.getId().equals(String.valueOf(doc.getDoctorId()))) {
-                    doctorName = doctor.getName();
-                    break;
+    // Invoices to pick from in a dialog, made into text only as they are shown
+    private LazyComboBoxModel<FinancialService> invoiceChoices() {
+        return new LazyComboBoxModel<>(clinicService.getFinancialServices(),
+            s -> s.getInvoiceId() + " - " + (s.getPatient() != null ? s.getPatient().getName() : "-"));
+    }
+
+    // What typing in an appointment combo matches; no date formatting, so filtering stays cheap
+    private static String appointmentSearchText(Appointment apt) {
+        return apt.getAppointmentId() + " " + apt.getPatient().getName() + " " + apt.getDoctor().getName()
+            + " " + apt.getStatus();
+    }
+
+    // DateTimeFormatter, unlike SimpleDateFormat, can be shared by background threads
+    private static String formatDate(java.time.format.DateTimeFormatter format, Date date) {
+        return format.format(date.toInstant().atZone(java.time.ZoneId.systemDefault()));
+    }
+    
+    private void loadMedicalReports(EntityTableModel<Medical_Document> tableModel) {
+        tableModel.setRows(clinicService.getMedicalDocuments());
+    }
+    
+    // Name of a patient or doctor by id, for table cells. The id -> name map is
+    // rebuilt only when the clinic's list changes, not on every repaint.
+    private java.util.function.Function<String, String> nameLookup(java.util.function.Supplier<? extends java.util.List<? extends Person>> people) {
+        java.util.HashMap<String, String> names = new java.util.HashMap<>();
+        Object[] builtFrom = {null};
+        return id -> {
+            java.util.List<? extends Person> current = people.get();
+            if (builtFrom[0] != current) {
+                names.clear();
+                for (Person person : current) {
+                    names.put(person.getId(), person.getName());
                 }
+                builtFrom[0] = current;
             }
-            
-            tableModel.addRow(new Object[]{
-                doc.getDocId(),
-                patientName,
-                doctorName,
-                dateFormat.format(doc.getDate()),
-                doc.getDiagnosis(),
-                doc.getTreatment()
-            });
-        }
+            return names.getOrDefault(id, "Unknown");
+        };
     }
     
-    private void showCreateReportDialog(DefaultTableModel tableModel) {
+    private void showCreateReportDialog() {
         JDialog dialog = new JDialog(this, "Create Medical Report", true);
         dialog.setLayout(new BorderLayout(20, 20));
         dialog.setSize(600, 700);
@@ -3949,22 +4126,17 @@ public class ClinicGUI extends JFrame {
         contentPanel.add(aptLabel);
         contentPanel.add(Box.createRigidArea(new Dimension(0, 5)));
         
-        JComboBox<String> appointmentCombo = new JComboBox<>();
+        // Items are only formatted when the popup shows them
+        SimpleDateFormat df = new SimpleDateFormat("dd/MM/yyyy hh:mm a");
+        LazyComboBoxModel<Appointment> appointments = new LazyComboBoxModel<>(clinicService.getAppointments(),
+            apt -> String.format("Appt #%s - Dr. %s with %s on %s",
+                apt.getAppointmentId(), apt.getDoctor().getName(), apt.getPatient().getName(), df.format(apt.getDate())),
+            ClinicGUI::appointmentSearchText);
+        JComboBox<String> appointmentCombo = appointments.createComboBox();
         appointmentCombo.setMaximumSize(new Dimension(500, 40));
         appointmentCombo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         appointmentCombo.setAlignmentX(Component.CENTER_ALIGNMENT);
         
-        // Populate appointments
-        for (Appointment apt : clinic.getAppointments()) {
-            String patientName = apt.getPatient().getName();
-            String doctorName = apt.getDoctor().getName();
-            
-            SimpleDateFormat df = new SimpleDateFormat("dd/MM/yyyy hh:mm a");
-            String displayText = String.format("Appt #%s - Dr. %s with %s on %s", 
-                apt.getAppointmentId(), doctorName, patientName, df.format(apt.getDate()));
-            appointmentCombo.addItem(displayText);
-        }
-        
         contentPanel.add(appointmentCombo);
         contentPanel.add(Box.createRigidArea(new Dimension(0, 20)));
         
@@ -4043,7 +4215,8 @@ public class ClinicGUI extends JFrame {
         
         // Save action
         saveBtn.addActionListener(e -> {
-            if (appointmentCombo.getSelectedIndex() == -1) {
+            Appointment selectedApt = appointments.getSelectedEntity();
+            if (selectedApt == null) {
                 showError("Please select an appointment");
                 return;
             }
@@ -4057,8 +4230,6 @@ public class ClinicGUI extends JFrame {
                 return;
             }
             
-            // Get selected appointment
-            Appointment selectedApt = clinic.getAppointments().get(appointmentCombo.getSelectedIndex());
             
             // Create medical document
             Medical_Document document = new Medical_Document(
@@ -4071,9 +4242,8 @@ public class ClinicGUI extends JFrame {
                 selectedApt.getAppointmentId()
             );
             
-            clinic.addMedicalDocument(document);
-            selectedApt.setHasCheckup(true);
-            loadMedicalReports(tableModel);
+            clinicService.addMedicalDocument(document);
+            clinicService.updateAppointment(selectedApt, apt -> apt.setHasCheckup(true));
             showSuccess("Medical report created successfully!");
             dialog.dispose();
         });
@@ -4114,22 +4284,20 @@ public class ClinicGUI extends JFrame {
         contentPanel.add(aptLabel);
         contentPanel.add(Box.createRigidArea(new Dimension(0, 5)));
         
-        JComboBox<String> appointmentCombo = new JComboBox<>();
-        appointmentCombo.setMaximumSize(new Dimension(450, 40));
-        appointmentCombo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        appointmentCombo.setAlignmentX(Component.LEFT_ALIGNMENT);
-        
-        // Populate appointments
+        // Items are only formatted when the popup shows them
         SimpleDateFormat df = new SimpleDateFormat("dd/MM/yyyy hh:mm a");
-        for (Appointment apt : clinic.getAppointments()) {
-            String displayText = String.format("#%s - %s with Dr. %s on %s [%s]", 
-                apt.getAppointmentId(), 
+        LazyComboBoxModel<Appointment> appointments = new LazyComboBoxModel<>(clinicService.getAppointments(),
+            apt -> String.format("#%s - %s with Dr. %s on %s [%s]",
+                apt.getAppointmentId(),
                 apt.getPatient().getName(),
-                apt.getDoctor().getName(), 
+                apt.getDoctor().getName(),
                 df.format(apt.getDate()),
-                apt.getStatus());
-            appointmentCombo.addItem(displayText);
-        }
+                apt.getStatus()),
+            ClinicGUI::appointmentSearchText);
+        JComboBox<String> appointmentCombo = appointments.createComboBox();
+        appointmentCombo.setMaximumSize(new Dimension(450, 40));
+        appointmentCombo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        appointmentCombo.setAlignmentX(Component.LEFT_ALIGNMENT);
         
         contentPanel.add(appointmentCombo);
         contentPanel.add(Box.createRigidArea(new Dimension(0, 20)));
@@ -4162,12 +4330,12 @@ public class ClinicGUI extends JFrame {
         
         // Update action
         updateBtn.addActionListener(e -> {
-            if (appointmentCombo.getSelectedIndex() == -1) {
+            Appointment selectedApt = appointments.getSelectedEntity();
+            if (selectedApt == null) {
                 showError("Please select an appointment");
                 return;
             }
             
-            Appointment selectedApt = clinic.getAppointments().get(appointmentCombo.getSelectedIndex());
             String newStatus = (String) statusCombo.getSelectedItem();
             
             // Check if trying to mark as completed
@@ -4176,14 +4344,28 @@ public class ClinicGUI extends JFrame {
                     showError("Cannot mark as COMPLETED!\nMedical checkup/report required.\nPlease create a medical report first.");
                     return;
                 }
-                boolean success = selectedApt.completeAppointment();
+                boolean success = clinicService.completeAppointment(selectedApt);
                 if (success) {
                     showSuccess("Appointment status updated to COMPLETED");
                     dialog.dispose();
                     showAppointmentManagement();
                 }
+            } else if (newStatus.equals("CANCELLED")) {
+                if (!selectedApt.isActive()) {
+                    showError("Appointment is already " + selectedApt.getStatus().toLowerCase() + "!");
+                    return;
+                }
+                Appointment refill = clinicService.cancelAppointment(selectedApt);
+                showSuccess("Appointment status updated to CANCELLED" + waitlistMessage(refill));
+                dialog.dispose();
+                showAppointmentManagement();
             } else {
-                selectedApt.setStatus(newStatus);
+                // A cancelled appointment has given its slot away, so it has to be booked again
+                if (selectedApt.getStatus().equals("CANCELLED") && !clinicService.restoreAppointment(selectedApt)) {
+                    showError("Cannot restore this appointment.\nIts time slot has been booked by someone else.");
+                    return;
+                }
+                clinicService.updateAppointment(selectedApt, apt -> apt.setStatus(newStatus));
                 showSuccess("Appointment status updated to " + newStatus);
                 dialog.dispose();
                 showAppointmentManagement();
@@ -4204,7 +4386,7 @@ public class ClinicGUI extends JFrame {
             String appointmentId = JOptionPane.showInputDialog(this, "Enter Appointment ID to reschedule:");
             if (appointmentId != null && !appointmentId.trim().isEmpty()) {
                 Appointment appointment = null;
-                for (Appointment apt : clinic.getAppointments()) {
+                for (Appointment apt : clinicService.getAppointments()) {
                     if (apt.getAppointmentId().equals(appointmentId.trim())) {
                         appointment = apt;
                         break;
@@ -4234,7 +4416,7 @@ public class ClinicGUI extends JFrame {
                     dateCombo.setPreferredSize(new Dimension(350, 40));
                     dateCombo.setMaximumSize(new Dimension(350, 40));
                 
-                    for (String date : selectedAppointment.getDoctor().getAvailableDates()) {
+                    for (String date : clinicService.getAvailableDates(selectedAppointment.getDoctor())) {
                         dateCombo.addItem(date);
                     }
                 
@@ -4256,7 +4438,7 @@ public class ClinicGUI extends JFrame {
                         timeCombo.removeAllItems();
                         String selectedDate = (String) dateCombo.getSelectedItem();
                         String dateKey = (selectedDate != null && selectedDate.contains(" - ")) ? selectedDate.split(" - ")[1] : selectedDate;
-                        ArrayList<String> times = selectedAppointment.getDoctor().getAvailableTimesForDate(dateKey);
+                        ArrayList<String> times = clinicService.getAvailableTimes(selectedAppointment.getDoctor(), dateKey);
                         for (String time : times) {
                             timeCombo.addItem(time);
                         }
@@ -4269,7 +4451,7 @@ public class ClinicGUI extends JFrame {
                         String selectedDate = (String) dateCombo.getSelectedItem();
                         String dateKey = (selectedDate != null && selectedDate.contains(" - ")) ? selectedDate.split(" - ")[1] : selectedDate;
                         timeCombo.removeAllItems();
-                        ArrayList<String> times = selectedAppointment.getDoctor().getAvailableTimesForDate(dateKey);
+                        ArrayList<String> times = clinicService.getAvailableTimes(selectedAppointment.getDoctor(), dateKey);
                         for (String time : times) {
                             timeCombo.addItem(time);
                         }
@@ -4296,24 +4478,12 @@ public class ClinicGUI extends JFrame {
                                 return;
                             }
                         
-                            // Check if time slot is still available
-                            if (!selectedAppointment.getDoctor().isTimeSlotAvailable(dateKey, timeSelection)) {
+                            // Book the new slot and free the old one in one step
+                            if (!clinicService.rescheduleAppointment(selectedAppointment, dateKey, timeSelection)) {
                                 showError("This time slot has just been booked. Please select another time.");
                                 return;
                             }
                         
-                            String dateStr = dateKey + " " + timeSelection;
-                            SimpleDateFormat sdf12 = new SimpleDateFormat("dd/MM/yyyy hh:mm a");
-                            SimpleDateFormat sdf24 = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
-                            Date newDate = sdf12.parse(dateStr);
-                            String formattedDate = sdf24.format(newDate);
-                            newDate = sdf24.parse(formattedDate);
-                        
-                            selectedAppointment.setDate(newDate);
-                            selectedAppointment.rescheduleAppointment(newDate);
-                            selectedAppointment.getDoctor().bookTimeSlot(dateKey, timeSelection);
-                        
-                            autoSave();
                             showSuccess("Appointment rescheduled successfully!\nNew Date: " + (dateKey == null ? "" : dateKey) + "\nNew Time: " + timeSelection);
                             dialog.dispose();
                             showAppointmentManagement();
@@ -4340,7 +4510,7 @@ public class ClinicGUI extends JFrame {
             String appointmentId = JOptionPane.showInputDialog(this, "Enter Appointment ID to complete:");
             if (appointmentId != null && !appointmentId.trim().isEmpty()) {
                 Appointment appointment = null;
-                for (Appointment apt : clinic.getAppointments()) {
+                for (Appointment apt : clinicService.getAppointments()) {
                     if (apt.getAppointmentId().equals(appointmentId.trim())) {
                         appointment = apt;
                         break;
@@ -4398,12 +4568,12 @@ public class ClinicGUI extends JFrame {
                         }
                     
                         selectedAppointment.setHasCheckup(true);
-                        if (selectedAppointment.completeAppointment()) {
+                        // The completion event saves once this handler is done, notes included
+                        if (clinicService.completeAppointment(selectedAppointment)) {
                             String notes = notesArea.getText().trim();
                             if (!notes.isEmpty()) {
                                 selectedAppointment.getPatient().addMedicalRecord(notes);
                             }
-                            autoSave();
                             showSuccess("Appointment completed successfully!");
                             dialog.dispose();
                             showAppointmentManagement();
@@ -4430,7 +4600,7 @@ public class ClinicGUI extends JFrame {
             String appointmentId = JOptionPane.showInputDialog(this, "Enter Appointment ID to view details:");
             if (appointmentId != null && !appointmentId.trim().isEmpty()) {
                 Appointment appointment = null;
-                for (Appointment apt : clinic.getAppointments()) {
+                for (Appointment apt : clinicService.getAppointments()) {
                     if (apt.getAppointmentId().equals(appointmentId.trim())) {
                         appointment = apt;
                         break;
@@ -4498,7 +4668,7 @@ public class ClinicGUI extends JFrame {
             }
         }
     
-    private void showHealthReportDetailsDialog(Health_Report report, DefaultTableModel tableModel) {
+    private void showHealthReportDetailsDialog(Health_Report report) {
         JDialog dialog = new JDialog(this, "Health Report Details", true);
         dialog.setSize(700, 600);
         dialog.setLocationRelativeTo(this);
@@ -4572,8 +4742,7 @@ public class ClinicGUI extends JFrame {
         saveNoteBtn.addActionListener(e -> {
             String note = noteArea.getText().trim();
             if (note.isEmpty()) { showError("Enter a note."); return; }
-            report.addHealthNote(note);
-            autoSave();
+            clinicService.updateHealthReport(report, r -> r.addHealthNote(note));
             showSuccess("Note added.");
             noteArea.setText("");
         });
@@ -4581,9 +4750,7 @@ public class ClinicGUI extends JFrame {
         saveCondBtn.addActionListener(e -> {
             String cond = conditionField.getText().trim();
             if (cond.isEmpty()) { showError("Enter a condition."); return; }
-            report.setGeneralCondition(cond);
-            autoSave();
-            loadHealthReports(tableModel);
+            clinicService.updateHealthReport(report, r -> r.setGeneralCondition(cond));
             showSuccess("Condition updated.");
         });
 
@@ -4636,17 +4803,16 @@ public class ClinicGUI extends JFrame {
         // Create a custom loading spinner panel
         JPanel spinnerPanel = new JPanel() {
             private int angle = 0;
-            private Timer timer;
             
             {
                 setPreferredSize(new Dimension(60, 60));
                 setMaximumSize(new Dimension(60, 60));
                 setOpaque(false);
-                timer = new Timer(50, e -> {
-                    angle = (angle + 15) % 360;
-                    repaint();
+                // Turns 15 degrees every 50 ms; the animator repaints, and stops with the dialog
+                animator.start(this, elapsed -> {
+                    angle = (int) (elapsed / 50 * 15 % 360);
+                    return 50 - elapsed % 50;
                 });
-                timer.start();
             }
             
             @Override
@@ -4691,11 +4857,11 @@ public class ClinicGUI extends JFrame {
         dialog.setLocationRelativeTo(this);
         
         // Auto-close after 2 seconds
-        Timer closeTimer = new Timer(2000, ev -> {
+        animator.start(messageLabel, elapsed -> {
+            if (elapsed < 2000) return 2000 - elapsed;
             dialog.dispose();
+            return Animator.DONE;
         });
-        closeTimer.setRepeats(false);
-        closeTimer.start();
         
         dialog.setVisible(true);
     }
@@ -4704,6 +4870,68 @@ public class ClinicGUI extends JFrame {
         JOptionPane.showMessageDialog(this, message, "Information", JOptionPane.INFORMATION_MESSAGE);
     }
     
+    /**
+     * Freezes of the GUI noticed by the watchdog: when, how long, after which
+     * click, and where the EDT was stuck. Updates while it is open.
+     */
+    private void showDiagnosticsDialog() {
+        JDialog dialog = new JDialog(this, "Diagnostics - GUI Freezes", false);
+        dialog.setSize(900, 600);
+        dialog.setLocationRelativeTo(this);
+        
+        JPanel panel = new JPanel(new BorderLayout(0, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        panel.setBackground(CARD_BG);
+        
+        JLabel infoLabel = new JLabel("Times the screen did not respond for more than "
+            + edtWatchdog.getThresholdMillis() + " ms. Also written to data/logs/edt-stalls.log.");
+        infoLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        panel.add(infoLabel, BorderLayout.NORTH);
+        
+        SimpleDateFormat timeFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
+        EntityTableModel<EdtWatchdog.Incident> model = new EntityTableModel<EdtWatchdog.Incident>(i -> String.valueOf(i.getNumber()))
+            .column("#", EdtWatchdog.Incident::getNumber)
+            .column("Started", i -> timeFormat.format(i.getStarted()))
+            .column("Duration", i -> i.getDurationMillis() < 0 ? "still blocked" : i.getDurationMillis() + " ms")
+            .column("Last Action", EdtWatchdog.Incident::getAction);
+        model.setRows(edtWatchdog.getIncidents());
+        JTable table = createStyledTable(model);
+        table.getColumnModel().getColumn(0).setMaxWidth(50);
+        
+        JTextArea stackArea = new JTextArea();
+        stackArea.setEditable(false);
+        stackArea.setFont(new Font("Courier New", Font.PLAIN, 12));
+        table.getSelectionModel().addListSelectionListener(e -> {
+            int row = table.getSelectedRow();
+            stackArea.setText(row < 0 ? "" : model.getRow(table.convertRowIndexToModel(row)).getStack());
+            stackArea.setCaretPosition(0);
+        });
+        
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(table), new JScrollPane(stackArea));
+        split.setResizeWeight(0.4);
+        panel.add(split, BorderLayout.CENTER);
+        
+        java.util.function.Consumer<EdtWatchdog.Incident> refresh = incident -> model.setRows(edtWatchdog.getIncidents());
+        edtWatchdog.addListener(refresh);
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                edtWatchdog.removeListener(refresh);
+            }
+        });
+        
+        JButton closeBtn = createStyledButton("Close", SECONDARY_COLOR);
+        closeBtn.addActionListener(e -> dialog.dispose());
+        JPanel btns = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
+        btns.setBackground(CARD_BG);
+        btns.add(closeBtn);
+        panel.add(btns, BorderLayout.SOUTH);
+        
+        dialog.add(panel);
+        dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        dialog.setVisible(true);
+    }
+    
     private void showSearchClinicDialog() {
         JDialog dialog = new JDialog(this, "Search Clinic by ID", true);
         dialog.setSize(450, 250);
@@ -4741,10 +4969,10 @@ public class ClinicGUI extends JFrame {
             boolean found = false;
             for (int i = 0; i < clinics.size(); i++) {
                 if (clinics.get(i).getClinicId().equalsIgnoreCase(searchId)) {
-                    clinic = clinics.get(i);
+                    setCurrentClinic(clinics.get(i));
                     found = true;
                     dialog.dispose();
-                    showSuccess("Logged in to: " + clinic.getName());
+                    showSuccess("Logged in to: " + clinicService.getName());
                     showMainDashboard();
                     break;
                 }
@@ -4775,43 +5003,40 @@ public class ClinicGUI extends JFrame {
      * Save all clinics to file
      */
     private void saveClinics() {
-        try {
-            java.io.File dataDir = new java.io.File("data");
-            if (!dataDir.exists()) {
-                dataDir.mkdirs();
+        writeClinics(new ArrayList<>(clinics));
+    }
+    
+    // Write a copy of the clinics list. Safe to call off the EDT.
+    private void writeClinics(ArrayList<Clinic> toSave) {
+        ArrayList<Clinic> merged = new ArrayList<>();
+        boolean ok = FileManager.saveClinics(toSave, merged::add);
+        if (ok && merged.isEmpty()) {
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            if (!ok) {
+                showError("Some clinics could not be saved.\nCheck that the data folder can be written to.");
             }
-            
-            try (java.io.ObjectOutputStream oos = new java.io.ObjectOutputStream(
-                    new java.io.FileOutputStream(CLINICS_DATA_FILE))) {
-                oos.writeObject(clinics);
-                System.out.println("All clinics saved successfully! (" + clinics.size() + " clinics)");
+            for (Clinic changed : merged) {
+                showMerged(changed);
             }
-        } catch (java.io.IOException e) {
-            System.err.println("Error saving clinics: " + e.getMessage());
-            e.printStackTrace();
-        }
+        });
     }
-    
+
     /**
-     * Load clinics from file
+     * Another terminal saved this clinic since it was loaded here, and its
+     * changes were merged with ours. The clinic now holds new doctor, patient
+     * and appointment objects, so screens built on the old ones start again.
      */
-    @SuppressWarnings("unchecked")
-    private ArrayList<Clinic> loadClinics() {
-        java.io.File file = new java.io.File(CLINICS_DATA_FILE);
-        if (!file.exists()) {
-            System.out.println("No saved clinic data found. Starting fresh.");
-            return new ArrayList<>();
+    private void showMerged(Clinic changed) {
+        if (clinicsModel != null) {
+            clinicsModel.update(changed);
         }
-        
-        try (java.io.ObjectInputStream ois = new java.io.ObjectInputStream(
-                new java.io.FileInputStream(CLINICS_DATA_FILE))) {
-            ArrayList<Clinic> loadedClinics = (ArrayList<Clinic>) ois.readObject();
-            System.out.println("Clinics loaded successfully! (" + loadedClinics.size() + " clinics)");
-            return loadedClinics;
-        } catch (java.io.IOException | ClassNotFoundException e) {
-            System.err.println("Error loading clinics: " + e.getMessage());
-            e.printStackTrace();
-            return new ArrayList<>();
+        if (clinic == changed) {
+            setCurrentClinic(changed);
+            showMainDashboard();
+            showSuccess("Clinic " + changed.getName() + " was also changed by another terminal.\n"
+                + "Its changes and yours were merged and saved.");
         }
     }
     
@@ -4826,16 +5051,54 @@ public class ClinicGUI extends JFrame {
         if (!clinics.contains(clinic)) {
             clinics.add(clinic);
         }
+        clinic.changed(); // saving by hand writes it even if no edit said so
         saveClinics();
         showSuccess("Clinic saved successfully.");
     }
     
+    // Switch to another clinic and listen for its changes instead of the old one's
+    private void setCurrentClinic(Clinic newClinic) {
+        if (clinicEvents != null) {
+            clinicEvents.close();
+        }
+        clinic = newClinic;
+        clinicService = new ClinicService(newClinic);
+        clearScreens();
+        clinicEvents = clinicService.subscribe("gui", event -> SwingUtilities.invokeLater(() -> onClinicEvent(event)));
+    }
+
+    // Runs on the EDT for every change published by the current clinic
+    private void onClinicEvent(ClinicEvent event) {
+        if (!event.getClinicId().equals(clinicService.getClinicId())) {
+            return; // left over from the clinic we just switched away from
+        }
+        autoSave();
+        for (java.util.function.Consumer<ClinicEvent> patch : screenPatches.getOrDefault(event.getEntity(), java.util.List.of())) {
+            patch.accept(event);
+        }
+        if ("STATISTICS".equals(shownScreen) || "REPORTS".equals(shownScreen)) {
+            screens.get(shownScreen).run();
+        }
+    }
+
     /**
-     * Auto-save after important operations
+     * Auto-save after important operations.
+     * Changes that Clinic publishes as events are saved by onClinicEvent;
+     * call this directly only for edits made on the objects themselves.
      */
     private void autoSave() {
         if (clinic != null && clinics.contains(clinic)) {
-            saveClinics();
+            clinic.changed();
+            // Several edits in a row share one background save of the latest list
+            if (pendingSave.getAndSet(new ArrayList<>(clinics)) == null) {
+                uiTasks.runUninterruptible("Saving", () -> {
+                    ArrayList<Clinic> toSave = pendingSave.getAndSet(null);
+                    if (toSave != null) {
+                        writeClinics(toSave);
+                    }
+                    return null;
+                }, ex -> showError("Could not save: " + ex.getMessage()));
+            }
         }
     }
     
@@ -4846,6 +5109,18 @@ public class ClinicGUI extends JFrame {
             e.printStackTrace();
         }
         
-        SwingUtilities.invokeLater(() -> new ClinicGUI());
+        // --stall-ms N: report the GUI as frozen after N ms without response
+        long stallThreshold = EdtWatchdog.DEFAULT_THRESHOLD_MS;
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--stall-ms")) {
+                try {
+                    stallThreshold = Long.parseLong(args[i + 1]);
+                } catch (NumberFormatException e) {
+                    System.out.println("Error: --stall-ms needs a number of milliseconds, using " + stallThreshold);
+                }
+            }
+        }
+        long threshold = stallThreshold;
+        SwingUtilities.invokeLater(() -> new ClinicGUI(threshold));
     }
 }
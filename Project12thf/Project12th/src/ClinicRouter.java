@@ -0,0 +1,384 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Front door for clinics spread over several ClinicServer processes.
+ *
+ * Every /api/clinics/{clinicId}/... request is passed on to the server that
+ * owns the clinic (see ShardMap), and GET /api/clinics lists the clinics of
+ * all of them. Clinics can be moved to another server while it runs:
+ *
+ *   GET  /router/clinics/{clinicId}               which server owns the clinic
+ *   POST /router/clinics/{clinicId}/move?to=n     move it to server n
+ *
+ * Requests for a clinic that is being moved wait until it has arrived. A move
+ * needs the X-Admin-Token header with the token from data/admin.token; the
+ * router sends the same token to the servers for export, release and import,
+ * and never passes on a caller's.
+ *
+ * Run with: java ClinicRouter [port] [--bind address] host:port host:port ...
+ * and start server n of N as: java ClinicServer port --shard n/N
+ * in the same folder, so they all read the same data/ and routing file.
+ *
+ * Like the servers, the router only listens on this machine unless given
+ * --bind, and then wants the API token from data/api.token on every request.
+ * It sends the servers its own copy of that token, not the caller's header.
+ */
+public class ClinicRouter {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int FALLBACK_THREADS = 200;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final int port;
+    private final List<String> backends; // base URLs, one per shard
+    private final ShardMap shardMap;
+    private final HttpClient client;
+    // Held shared by requests for a clinic, and exclusively while it moves
+    private final ConcurrentHashMap<String, ReentrantReadWriteLock> clinicLocks = new ConcurrentHashMap<>();
+
+    private HttpServer server;
+    private ExecutorService requestExecutor;
+    private InetAddress bindAddress = InetAddress.getLoopbackAddress();
+
+    // Thrown by handlers to send an error status with a JSON message
+    private static class RouterException extends RuntimeException {
+        final int status;
+
+        RouterException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    public ClinicRouter(int port, List<String> backends) {
+        this.port = port;
+        this.backends = new ArrayList<>();
+        for (String backend : backends) {
+            this.backends.add(backend.startsWith("http") ? backend : "http://" + backend);
+        }
+        this.shardMap = ShardMap.load(backends.size());
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    }
+
+    /**
+     * Listen on address instead of only on this machine; every request must
+     * then carry the API token. Call before start().
+     */
+    public void bindTo(InetAddress address) {
+        bindAddress = address;
+    }
+
+    private boolean needsToken() {
+        return !bindAddress.isLoopbackAddress();
+    }
+
+    private void checkToken(HttpExchange exchange) {
+        if (needsToken() && !AccessTokens.isApiClient(exchange.getRequestHeaders().getFirst("Authorization"))) {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+            throw new RouterException(401, "Needs Authorization: Bearer <token from data/api.token>");
+        }
+    }
+
+    public void start() throws IOException {
+        if (needsToken()) {
+            AccessTokens.api();
+        }
+        server = HttpServer.create(new InetSocketAddress(bindAddress, port), 1024);
+        requestExecutor = UiTasks.newVirtualThreadExecutor();
+        if (requestExecutor == null) {
+            requestExecutor = Executors.newFixedThreadPool(FALLBACK_THREADS);
+        }
+        server.setExecutor(requestExecutor);
+        server.createContext("/api/", this::handle);
+        server.createContext("/router/", this::handleAdmin);
+        server.start();
+        System.out.println("Clinic router listening on " + bindAddress.getHostAddress() + ":" + getPort() + " for " + backends.size() + " servers " + backends);
+    }
+
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+        }
+        if (requestExecutor != null) {
+            requestExecutor.shutdown();
+        }
+    }
+
+    // Base URL of the server that owns a clinic right now
+    public String ownerOf(String clinicId) {
+        return backends.get(shardMap.ownerOf(clinicId));
+    }
+
+    /**
+     * Move a clinic to server to: it is exported from its owner, released
+     * there (which saves it) and imported by the new owner. If the import
+     * fails, the clinic goes back to where it was.
+     */
+    public void move(String clinicId, int to) {
+        if (to < 0 || to >= backends.size()) {
+            throw new RouterException(400, "No server " + to + "; there are " + backends.size());
+        }
+        ReentrantReadWriteLock lock = lockFor(clinicId);
+        lock.writeLock().lock();
+        try {
+            int from = shardMap.ownerOf(clinicId);
+            if (from == to) {
+                return;
+            }
+            String path = "/api/clinics/" + clinicId;
+            byte[] clinic = call(from, "GET", path + "/export", null, 200);
+            call(from, "POST", path + "/release", null, 200);
+            try {
+                call(to, "POST", "/api/clinics/import", clinic, 201);
+            } catch (RouterException e) {
+                call(from, "POST", "/api/clinics/import", clinic, 201);
+                throw e;
+            }
+            if (!shardMap.move(clinicId, to)) {
+                System.out.println("Error: Clinic " + clinicId + " moved, but the routing file could not be saved");
+            }
+            System.out.println("Moved clinic " + clinicId + " from " + backends.get(from) + " to " + backends.get(to));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== ROUTING ====================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            checkToken(exchange);
+            // Decoded, as the servers route on it: %65xport is export
+            String path = exchange.getRequestURI().getPath();
+            String[] parts = path.substring("/api/".length()).split("/");
+            if (parts.length == 1 && parts[0].equals("clinics")) {
+                if (!exchange.getRequestMethod().equals("GET")) {
+                    throw new RouterException(405, "Use GET");
+                }
+                listClinics(exchange);
+            } else if (parts.length >= 3 && (parts[2].equals("export") || parts[2].equals("release"))) {
+                throw new RouterException(403, "Use /router/clinics/" + parts[1] + "/move to move clinics");
+            } else if (parts.length >= 2 && parts[0].equals("clinics") && !parts[1].equals("import")) {
+                ReentrantReadWriteLock lock = lockFor(parts[1]);
+                lock.readLock().lock();
+                try {
+                    forward(exchange, shardMap.ownerOf(parts[1]));
+                } finally {
+                    lock.readLock().unlock();
+                }
+            } else {
+                throw new RouterException(404, "Unknown path " + path);
+            }
+        } catch (RouterException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.println("Error: Request " + exchange.getRequestURI() + " failed: " + e);
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleAdmin(HttpExchange exchange) throws IOException {
+        try {
+            checkToken(exchange);
+            String path = exchange.getRequestURI().getPath();
+            String[] parts = path.substring("/router/".length()).split("/");
+            String method = exchange.getRequestMethod();
+            if (parts.length < 2 || !parts[0].equals("clinics")) {
+                throw new RouterException(404, "Unknown path " + path);
+            }
+            String clinicId = parts[1];
+            if (parts.length == 3 && parts[2].equals("move")) {
+                if (!method.equals("POST")) {
+                    throw new RouterException(405, "Use POST");
+                }
+                if (!AccessTokens.isAdmin(exchange.getRequestHeaders().getFirst(AccessTokens.ADMIN_HEADER))) {
+                    throw new RouterException(403, "Needs the " + AccessTokens.ADMIN_HEADER + " header from data/admin.token");
+                }
+                String query = exchange.getRequestURI().getQuery();
+                if (query == null || !query.startsWith("to=")) {
+                    throw new RouterException(400, "Missing ?to=<server number>");
+                }
+                try {
+                    move(clinicId, Integer.parseInt(query.substring("to=".length())));
+                } catch (NumberFormatException e) {
+                    throw new RouterException(400, "to must be a server number");
+                }
+            } else if (parts.length != 2 || !method.equals("GET")) {
+                throw new RouterException(404, "Unknown path " + path);
+            }
+            int shard = shardMap.ownerOf(clinicId);
+            sendJson(exchange, 200, "{\"clinicId\":" + Json.quote(clinicId) + ",\"server\":" + shard
+                + ",\"url\":" + Json.quote(backends.get(shard)) + "}");
+        } catch (RouterException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.println("Error: Request " + exchange.getRequestURI() + " failed: " + e);
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Pass the request on as it is and stream the answer back
+    private void forward(HttpExchange exchange, int shard) throws IOException {
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        URI target = URI.create(backends.get(shard) + exchange.getRequestURI().getRawPath()
+            + (rawQuery != null ? "?" + rawQuery : ""));
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(target)
+            .timeout(TIMEOUT)
+            .header("Authorization", AccessTokens.bearer())
+            .method(exchange.getRequestMethod(), body.length == 0
+                ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body));
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null) {
+            request.header("Content-Type", contentType);
+        }
+        HttpResponse<InputStream> response = send(shard, request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        response.headers().firstValue("Content-Type").ifPresent(type -> exchange.getResponseHeaders().set("Content-Type", type));
+        exchange.sendResponseHeaders(response.statusCode(), 0);
+        try (InputStream in = response.body(); OutputStream out = exchange.getResponseBody()) {
+            in.transferTo(out);
+        }
+    }
+
+    // The clinic lists of every server, as one array
+    private void listClinics(HttpExchange exchange) throws IOException {
+        StringBuilder all = new StringBuilder("[");
+        for (int shard = 0; shard < backends.size(); shard++) {
+            String list = new String(call(shard, "GET", "/api/clinics", null, 200), StandardCharsets.UTF_8).trim();
+            String items = list.substring(1, list.length() - 1).trim();
+            if (!items.isEmpty()) {
+                if (all.length() > 1) {
+                    all.append(',');
+                }
+                all.append(items);
+            }
+        }
+        sendJson(exchange, 200, all.append(']').toString());
+    }
+
+    // A request the router makes itself; anything but the expected status is an error
+    private byte[] call(int shard, String method, String path, byte[] body, int expected) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(backends.get(shard) + path))
+            .timeout(TIMEOUT)
+            .header(AccessTokens.ADMIN_HEADER, AccessTokens.admin())
+            .header("Authorization", AccessTokens.bearer())
+            .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+        HttpResponse<byte[]> response = send(shard, request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != expected) {
+            throw new RouterException(502, method + " " + path + " on " + backends.get(shard) + " answered "
+                + response.statusCode() + ": " + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        return response.body();
+    }
+
+    private <T> HttpResponse<T> send(int shard, HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        try {
+            return client.send(request, handler);
+        } catch (ConnectException e) {
+            throw new RouterException(502, "Server " + shard + " (" + backends.get(shard) + ") is not reachable");
+        } catch (IOException e) {
+            throw new RouterException(502, "Server " + shard + " (" + backends.get(shard) + ") failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RouterException(503, "Interrupted");
+        }
+    }
+
+    private ReentrantReadWriteLock lockFor(String clinicId) {
+        return clinicLocks.computeIfAbsent(clinicId, id -> new ReentrantReadWriteLock());
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            sendJson(exchange, status, "{\"error\":" + Json.quote(message == null ? "Error" : message) + "}");
+        } catch (IOException e) {
+            // client went away, or headers were already sent
+        }
+    }
+
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        List<String> backends = new ArrayList<>();
+        InetAddress bindAddress = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--bind")) {
+                if (i + 1 >= args.length) {
+                    System.out.println("Error: --bind needs an address, e.g. --bind 0.0.0.0");
+                    return;
+                }
+                try {
+                    bindAddress = InetAddress.getByName(args[++i]);
+                } catch (UnknownHostException e) {
+                    System.out.println("Error: Unknown address " + args[i]);
+                    return;
+                }
+                continue;
+            }
+            if (arg.contains(":")) {
+                backends.add(arg);
+                continue;
+            }
+            try {
+                port = Integer.parseInt(arg);
+            } catch (NumberFormatException e) {
+                System.out.println("Error: Expected a port or host:port, got " + arg);
+                return;
+            }
+        }
+        if (backends.isEmpty()) {
+            System.out.println("Error: Give the servers as host:port, in shard order");
+            return;
+        }
+        FileManager.initializeDataFolder();
+        ClinicRouter router = new ClinicRouter(port, backends);
+        if (bindAddress != null) {
+            router.bindTo(bindAddress);
+        }
+        try {
+            router.start();
+        } catch (IOException e) {
+            System.out.println("Error: Could not start router on port " + port + ": " + e.getMessage());
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(router::stop, "clinic-router-shutdown"));
+    }
+}
@@ -0,0 +1,915 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Headless JSON API over the same clinic data as the GUI, for kiosks and
+ * call-center tools.
+ *
+ *   GET  /api/clinics
+ *   GET  /api/clinics/{clinicId}/patients[/{patientId}]
+ *   GET  /api/clinics/{clinicId}/doctors[/{doctorId}]
+ *   GET  /api/clinics/{clinicId}/doctors/{doctorId}/availability[?date=dd/MM/yyyy]
+ *   GET  /api/clinics/{clinicId}/appointments[?patientId=&doctorId=&status=]
+ *   POST /api/clinics/{clinicId}/appointments        {"patientId","doctorId","date","time","reason"}
+ *   POST /api/clinics/{clinicId}/appointments/batch  {"patientId","doctorId","dates":"d1,d2,...","time","reason"}
+ *   POST /api/clinics/{clinicId}/appointments/{id}/cancel
+ *   GET  /api/clinics/{clinicId}/invoices[?patientId=]
+ *   GET  /api/replication                             role, lag and backlog
+ *   POST /api/replication/promote                     turn a follower into the primary (admin token)
+ *   GET  /api/clinics/{clinicId}/export               the clinic, serialized (admin token)
+ *   POST /api/clinics/{clinicId}/release              stop serving the clinic (admin token)
+ *   POST /api/clinics/import                          start serving a serialized clinic (admin token)
+ *
+ * Run with: java ClinicServer [port] [--actors] [--shard i/n] [--bind address]
+ *                             [--replicate replPort | --follow replPort]
+ *
+ * The server only listens on this machine. With --bind it listens on that
+ * address instead, and then every request needs the header
+ * "Authorization: Bearer <token>" with the token from data/api.token.
+ *
+ * Each request runs on its own virtual thread when the JVM has them.
+ * With --actors, every clinic's changes are applied by its own ClinicActor
+ * instead of by the request threads.
+ * Lists are streamed (chunked) straight from a ClinicService snapshot.
+ * Every change a clinic publishes marks the data dirty, and it is saved to
+ * data/clinics/ in the background every few seconds.
+ *
+ * With --replicate, followers on the same machine can connect to replPort and
+ * get every change as it happens. With --follow, the server keeps its clinics
+ * in step with such a primary instead of loading them from disk, answers
+ * reads and refuses changes until it is promoted.
+ *
+ * With --shard i/n, the server loads only the clinics ShardMap gives to shard
+ * i of n; a ClinicRouter in front sends each request to the right server and
+ * moves clinics between them with export, release and import. Those three
+ * need the X-Admin-Token header with the token from data/admin.token (see
+ * AccessTokens), which only processes sharing the data folder can read.
+ */
+public class ClinicServer {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int SAVE_INTERVAL_SECONDS = 2;
+    private static final int FALLBACK_THREADS = 200;
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("hh:mm a");
+
+    private final ArrayList<Clinic> clinics;
+    private final ConcurrentHashMap<String, ClinicService> services = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ClinicActor> actors = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, EventBus.Subscription> saveSubscriptions = new ConcurrentHashMap<>();
+    private final int port;
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private final boolean useActors;
+    private volatile boolean saveChanges;
+    private volatile boolean readOnly = false; // following a primary
+    private InetAddress bindAddress = InetAddress.getLoopbackAddress();
+
+    private HttpServer server;
+    private ExecutorService requestExecutor;
+    private ScheduledExecutorService saver;
+    private ReplicationPrimary replication;
+    private ReplicationFollower follower;
+
+    // Thrown by handlers to send an error status with a JSON message
+    private static class ApiException extends RuntimeException {
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    public ClinicServer(ArrayList<Clinic> clinics, int port, boolean saveChanges) {
+        this(clinics, port, saveChanges, false);
+    }
+
+    public ClinicServer(ArrayList<Clinic> clinics, int port, boolean saveChanges, boolean useActors) {
+        this.clinics = clinics;
+        this.port = port;
+        this.saveChanges = saveChanges;
+        this.useActors = useActors;
+        for (Clinic clinic : clinics) {
+            serve(clinic);
+        }
+    }
+
+    private void serve(Clinic clinic) {
+        ClinicService service = new ClinicService(clinic);
+        services.put(clinic.getClinicId(), service);
+        saveSubscriptions.put(clinic.getClinicId(), service.subscribe("server-save", event -> dirty.set(true)));
+        if (useActors) {
+            actors.put(clinic.getClinicId(), new ClinicActor(clinic));
+        }
+    }
+
+    // ==================== MOVING CLINICS ====================
+
+    /**
+     * Start serving a clinic that comes from another server. This server takes
+     * over saving it. Returns false if it already serves that clinic.
+     */
+    public synchronized boolean addClinic(Clinic clinic) {
+        if (services.containsKey(clinic.getClinicId())) {
+            return false;
+        }
+        synchronized (clinics) {
+            clinics.add(clinic);
+        }
+        serve(clinic);
+        ArrayList<Clinic> added = new ArrayList<>();
+        added.add(clinic);
+        ClinicStore.adopt(added);
+        dirty.set(true);
+        return true;
+    }
+
+    /**
+     * Stop serving a clinic so another server can take it over. Its latest
+     * changes are saved first. Returns the clinic, or null if it isn't here.
+     */
+    public synchronized Clinic releaseClinic(String clinicId) {
+        ClinicService service = services.remove(clinicId);
+        if (service == null) {
+            return null;
+        }
+        ClinicActor actor = actors.remove(clinicId);
+        if (actor != null) {
+            actor.stop(5000);
+        }
+        EventBus.Subscription subscription = saveSubscriptions.remove(clinicId);
+        if (subscription != null) {
+            subscription.close();
+        }
+        Clinic clinic = service.getClinic();
+        synchronized (clinics) {
+            clinics.remove(clinic);
+        }
+        if (saveChanges) {
+            ArrayList<Clinic> released = new ArrayList<>();
+            released.add(clinic);
+            FileManager.saveClinics(released);
+        }
+        System.out.println("Released clinic " + clinicId);
+        return clinic;
+    }
+
+    // ==================== REPLICATION ====================
+
+    /**
+     * Send every change to followers that connect to replicationPort.
+     */
+    public void replicateTo(int replicationPort) throws IOException {
+        replication = new ReplicationPrimary(clinics, replicationPort);
+        replication.start();
+    }
+
+    /**
+     * Keep this server's clinics in step with the primary on replicationPort.
+     * Until promote() is called, changes are refused and nothing is saved.
+     * Waits up to timeoutMillis for the first snapshot.
+     */
+    public boolean follow(int replicationPort, long timeoutMillis) {
+        readOnly = true;
+        saveChanges = false;
+        follower = new ReplicationFollower(replicationPort, clinics, this::serve);
+        follower.start();
+        return follower.awaitSync(timeoutMillis);
+    }
+
+    /**
+     * Stop following and take over as the primary: accept changes and save
+     * them. Everything is already in memory, so this takes no longer with
+     * more data; only clinics the primary saved after the last change that
+     * arrived here are read from disk. Returns false if this server wasn't
+     * following.
+     */
+    public synchronized boolean promote() {
+        if (follower == null) {
+            return false;
+        }
+        follower.stop();
+        follower = null;
+        ArrayList<Clinic> current;
+        synchronized (clinics) {
+            current = new ArrayList<>(clinics);
+        }
+        int reloaded = ClinicStore.adoptReplicas(current);
+        readOnly = false;
+        saveChanges = true;
+        dirty.set(true);
+        if (server != null && saver == null) {
+            startSaver();
+        }
+        System.out.println("Promoted to primary (" + current.size() + " clinics, "
+            + reloaded + " read from newer saves)");
+        return true;
+    }
+
+    /**
+     * Listen on address instead of only on this machine; every request must
+     * then carry the API token. Call before start().
+     */
+    public void bindTo(InetAddress address) {
+        bindAddress = address;
+    }
+
+    private boolean needsToken() {
+        return !bindAddress.isLoopbackAddress();
+    }
+
+    public void start() throws IOException {
+        if (needsToken()) {
+            AccessTokens.api(); // made now, so clients can be given it before the first request
+        }
+        server = HttpServer.create(new InetSocketAddress(bindAddress, port), 1024);
+        requestExecutor = UiTasks.newVirtualThreadExecutor();
+        if (requestExecutor == null) {
+            requestExecutor = Executors.newFixedThreadPool(FALLBACK_THREADS);
+        }
+        server.setExecutor(requestExecutor);
+        server.createContext("/api/", this::handle);
+        server.start();
+
+        if (saveChanges) {
+            startSaver();
+        }
+        System.out.println("Clinic server listening on " + bindAddress.getHostAddress() + ":" + getPort()
+            + " (" + clinics.size() + " clinics" + (actors.isEmpty() ? "" : ", one actor each") + ")"
+            + (needsToken() ? "; clients need the token in data/api.token" : ""));
+    }
+
+    private void startSaver() {
+        saver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "clinic-server-save");
+            t.setDaemon(true);
+            return t;
+        });
+        saver.scheduleWithFixedDelay(this::saveIfDirty, SAVE_INTERVAL_SECONDS, SAVE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+        }
+        if (replication != null) {
+            replication.stop();
+        }
+        if (follower != null) {
+            follower.stop();
+        }
+        if (requestExecutor != null) {
+            requestExecutor.shutdown();
+        }
+        if (saver != null) {
+            saver.shutdown();
+        }
+        for (ClinicActor actor : actors.values()) {
+            actor.stop(5000);
+        }
+        dirty.set(true); // the last change event may still be queued
+        saveIfDirty();
+    }
+
+    private void saveIfDirty() {
+        if (saveChanges && dirty.compareAndSet(true, false)) {
+            if (!FileManager.saveClinics(new ArrayList<>(clinics))) {
+                dirty.set(true); // try again next time
+            }
+        }
+    }
+
+    // ==================== ROUTING ====================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (needsToken() && !AccessTokens.isApiClient(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+                throw new ApiException(401, "Needs Authorization: Bearer <token from data/api.token>");
+            }
+            String path = exchange.getRequestURI().getPath();
+            String[] parts = path.substring("/api/".length()).split("/");
+            String method = exchange.getRequestMethod();
+            HashMap<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+            if (parts.length > 0 && parts[0].equals("replication")) {
+                if (parts.length == 1) {
+                    requireMethod(method, "GET");
+                    sendReplicationStatus(exchange);
+                } else if (parts.length == 2 && parts[1].equals("promote")) {
+                    requireMethod(method, "POST");
+                    requireAdmin(exchange); // two primaries would both take changes
+                    if (!promote()) {
+                        throw new ApiException(409, "This server is not following a primary");
+                    }
+                    sendReplicationStatus(exchange);
+                } else {
+                    throw new ApiException(404, "Unknown path " + path);
+                }
+                return;
+            }
+            if (parts.length == 0 || !parts[0].equals("clinics")) {
+                throw new ApiException(404, "Unknown path " + path);
+            }
+            if (parts.length == 1) {
+                requireMethod(method, "GET");
+                listClinics(exchange);
+                return;
+            }
+            if (parts.length == 2 && parts[1].equals("import")) {
+                requireMethod(method, "POST");
+                importClinic(exchange);
+                return;
+            }
+            ClinicService service = services.get(parts[1]);
+            if (service == null) {
+                throw new ApiException(404, "Clinic " + parts[1] + " not found");
+            }
+            String resource = parts.length > 2 ? parts[2] : "";
+            switch (resource) {
+                case "patients":
+                    requireMethod(method, "GET");
+                    if (parts.length == 3) {
+                        listPatients(exchange, service);
+                    } else {
+                        sendPatient(exchange, findPatient(service, parts[3]));
+                    }
+                    break;
+                case "doctors":
+                    requireMethod(method, "GET");
+                    if (parts.length == 3) {
+                        listDoctors(exchange, service);
+                    } else if (parts.length == 4) {
+                        sendDoctor(exchange, findDoctor(service, parts[3]));
+                    } else if (parts.length == 5 && parts[4].equals("availability")) {
+                        sendAvailability(exchange, service, findDoctor(service, parts[3]), query.get("date"));
+                    } else {
+                        throw new ApiException(404, "Unknown path " + path);
+                    }
+                    break;
+                case "appointments":
+                    if (parts.length == 3 && method.equals("GET")) {
+                        listAppointments(exchange, service, query);
+                    } else if (parts.length == 3 && method.equals("POST")) {
+                        bookAppointment(exchange, service);
+                    } else if (parts.length == 4 && parts[3].equals("batch")) {
+                        requireMethod(method, "POST");
+                        bookTreatmentPlan(exchange, service);
+                    } else if (parts.length == 5 && parts[4].equals("cancel")) {
+                        requireMethod(method, "POST");
+                        cancelAppointment(exchange, service, parts[3]);
+                    } else {
+                        throw new ApiException(404, "Unknown path " + path);
+                    }
+                    break;
+                case "invoices":
+                    requireMethod(method, "GET");
+                    listInvoices(exchange, service, query.get("patientId"));
+                    break;
+                case "export":
+                    requireMethod(method, "GET");
+                    exportClinic(exchange, service);
+                    break;
+                case "release":
+                    requireMethod(method, "POST");
+                    requireAdmin(exchange);
+                    if (releaseClinic(service.getClinicId()) == null) {
+                        throw new ApiException(404, "Clinic " + service.getClinicId() + " not found");
+                    }
+                    sendClinic(exchange, 200, service.getClinic());
+                    break;
+                default:
+                    throw new ApiException(404, "Unknown path " + path);
+            }
+        } catch (ApiException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.println("Error: Request " + exchange.getRequestURI() + " failed: " + e);
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // ==================== HANDLERS ====================
+
+    private void listClinics(HttpExchange exchange) throws IOException {
+        ArrayList<Clinic> current;
+        synchronized (clinics) {
+            current = new ArrayList<>(clinics);
+        }
+        Json.Out json = beginStream(exchange, 200);
+        json.beginArray();
+        for (Clinic clinic : current) {
+            json.beginObject()
+                .field("id", clinic.getClinicId())
+                .field("name", clinic.getName())
+                .field("address", clinic.getAddress())
+                .field("phone", clinic.getPhone())
+                .endObject();
+        }
+        json.endArray();
+        json.flush();
+    }
+
+    private void exportClinic(HttpExchange exchange, ClinicService service) throws IOException {
+        requireAdmin(exchange);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(service.getClinic());
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.sendResponseHeaders(200, bytes.size());
+        bytes.writeTo(exchange.getResponseBody());
+    }
+
+    private void importClinic(HttpExchange exchange) throws IOException {
+        requireAdmin(exchange);
+        if (readOnly) {
+            throw new ApiException(503, "This server is a read-only replica; promote it to accept changes");
+        }
+        Clinic clinic;
+        try (ObjectInputStream in = new ObjectInputStream(exchange.getRequestBody())) {
+            in.setObjectInputFilter(ClinicStreamFilter.CLINIC_DATA);
+            clinic = (Clinic) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException | IOException e) {
+            throw new ApiException(400, "Body is not an exported clinic");
+        }
+        if (!addClinic(clinic)) {
+            throw new ApiException(409, "Clinic " + clinic.getClinicId() + " is already served here");
+        }
+        System.out.println("Took over clinic " + clinic.getClinicId());
+        sendClinic(exchange, 201, clinic);
+    }
+
+    private void sendClinic(HttpExchange exchange, int status, Clinic clinic) throws IOException {
+        Json.Out json = beginStream(exchange, status);
+        json.beginObject()
+            .field("id", clinic.getClinicId())
+            .field("name", clinic.getName())
+            .endObject();
+        json.flush();
+    }
+
+    private void sendReplicationStatus(HttpExchange exchange) throws IOException {
+        ReplicationFollower currentFollower = follower;
+        ReplicationPrimary currentReplication = replication;
+        Json.Out json = beginStream(exchange, 200);
+        json.beginObject();
+        if (currentFollower != null) {
+            json.field("role", "follower")
+                .field("connected", currentFollower.isConnected())
+                .field("lagMillis", currentFollower.getLagMillis())
+                .field("applied", currentFollower.getAppliedCount());
+        } else {
+            json.field("role", "primary");
+            if (currentReplication != null) {
+                json.field("followers", currentReplication.getFollowerCount())
+                    .field("backlog", currentReplication.getBacklog());
+            }
+        }
+        json.endObject();
+        json.flush();
+    }
+
+    private void listPatients(HttpExchange exchange, ClinicService service) throws IOException {
+        Json.Out json = beginStream(exchange, 200);
+        json.beginArray();
+        for (Patient patient : service.getPatients()) {
+            writePatient(json, patient);
+        }
+        json.endArray();
+        json.flush();
+    }
+
+    private void sendPatient(HttpExchange exchange, Patient patient) throws IOException {
+        Json.Out json = beginStream(exchange, 200);
+        writePatient(json, patient);
+        json.flush();
+    }
+
+    private void listDoctors(HttpExchange exchange, ClinicService service) throws IOException {
+        Json.Out json = beginStream(exchange, 200);
+        json.beginArray();
+        for (Doctor doctor : service.getDoctors()) {
+            writeDoctor(json, doctor);
+        }
+        json.endArray();
+        json.flush();
+    }
+
+    private void sendDoctor(HttpExchange exchange, Doctor doctor) throws IOException {
+        Json.Out json = beginStream(exchange, 200);
+        writeDoctor(json, doctor);
+        json.flush();
+    }
+
+    private void sendAvailability(HttpExchange exchange, ClinicService service, Doctor doctor, String date) throws IOException {
+        Json.Out json = beginStream(exchange, 200);
+        json.beginObject().field("doctorId", doctor.getId());
+        if (date != null) {
+            json.field("date", date).name("times");
+            writeStrings(json, service.getAvailableTimes(doctor, date));
+        } else {
+            json.name("dates").beginArray();
+            for (String label : service.getAvailableDates(doctor)) {
+                // Labels look like "Monday - 20/10/2026"
+                String day = label.contains(" - ") ? label.split(" - ")[1] : label;
+                json.beginObject().field("date", day).field("label", label).name("times");
+                writeStrings(json, service.getAvailableTimes(doctor, day));
+                json.endObject();
+            }
+            json.endArray();
+        }
+        json.endObject();
+        json.flush();
+    }
+
+    private void listAppointments(HttpExchange exchange, ClinicService service, HashMap<String, String> query) throws IOException {
+        String patientId = query.get("patientId");
+        String doctorId = query.get("doctorId");
+        String status = query.get("status");
+        Json.Out json = beginStream(exchange, 200);
+        json.beginArray();
+        for (Appointment appointment : service.getAppointments()) {
+            if (patientId != null && !appointment.getPatient().getId().equals(patientId)) continue;
+            if (doctorId != null && !appointment.getDoctor().getId().equals(doctorId)) continue;
+            if (status != null && !appointment.getStatus().equalsIgnoreCase(status)) continue;
+            writeAppointment(json, appointment);
+        }
+        json.endArray();
+        json.flush();
+    }
+
+    private void bookAppointment(HttpExchange exchange, ClinicService service) throws IOException {
+        HashMap<String, String> body = Json.parseObject(readBody(exchange));
+        Patient patient = findPatient(service, required(body, "patientId"));
+        Doctor doctor = findDoctor(service, required(body, "doctorId"));
+        String date = required(body, "date");
+        String time = required(body, "time");
+        String reason = body.getOrDefault("reason", "General Consultation");
+        if (new AppointmentRequest(patient, doctor, date, time, reason).toDate() == null) {
+            throw new ApiException(400, "Invalid date/time, expected dd/MM/yyyy and hh:mm AM/PM");
+        }
+
+        Appointment appointment = write(service, s -> s.bookAppointment(patient, doctor, date, time, reason));
+        if (appointment == null) {
+            throw new ApiException(409, "That time slot is already taken for the doctor or the patient");
+        }
+        Json.Out json = beginStream(exchange, 201);
+        writeAppointment(json, appointment);
+        json.flush();
+    }
+
+    // Several visits with the same doctor and patient at the same time of day - all booked, or none
+    private void bookTreatmentPlan(HttpExchange exchange, ClinicService service) throws IOException {
+        HashMap<String, String> body = Json.parseObject(readBody(exchange));
+        Patient patient = findPatient(service, required(body, "patientId"));
+        Doctor doctor = findDoctor(service, required(body, "doctorId"));
+        String time = required(body, "time");
+        String reason = body.getOrDefault("reason", "General Consultation");
+        ArrayList<AppointmentRequest> requests = new ArrayList<>();
+        for (String date : required(body, "dates").split(",")) {
+            AppointmentRequest request = new AppointmentRequest(patient, doctor, date.trim(), time, reason);
+            if (request.toDate() == null) {
+                throw new ApiException(400, "Invalid date/time " + date.trim() + " " + time + ", expected dd/MM/yyyy and hh:mm AM/PM");
+            }
+            requests.add(request);
+        }
+
+        BatchScheduleResult result = write(service, s -> s.scheduleAppointments(requests));
+        Json.Out json = beginStream(exchange, result.isCommitted() ? 201 : 409);
+        json.beginObject().field("committed", result.isCommitted()).name("items").beginArray();
+        for (BatchScheduleResult.Item item : result.getItems()) {
+            json.beginObject().field("date", item.getRequest().getDate()).name("appointment");
+            if (item.getAppointment() != null) {
+                writeAppointment(json, item.getAppointment());
+            } else {
+                json.value((String) null);
+            }
+            json.field("error", item.getError()).endObject();
+        }
+        json.endArray().endObject();
+        json.flush();
+    }
+
+    private void cancelAppointment(HttpExchange exchange, ClinicService service, String appointmentId) throws IOException {
+        Appointment appointment = null;
+        for (Appointment candidate : service.getAppointments()) {
+            if (candidate.getAppointmentId().equals(appointmentId)) {
+                appointment = candidate;
+                break;
+            }
+        }
+        if (appointment == null) {
+            throw new ApiException(404, "Appointment " + appointmentId + " not found");
+        }
+        if (!appointment.isActive()) {
+            throw new ApiException(409, "Appointment " + appointmentId + " is " + appointment.getStatus());
+        }
+        Appointment target = appointment;
+        Appointment refill = write(service, s -> s.cancelAppointment(target));
+        Json.Out json = beginStream(exchange, 200);
+        json.beginObject().name("appointment");
+        writeAppointment(json, appointment);
+        json.name("waitlistAppointment");
+        if (refill != null) {
+            writeAppointment(json, refill);
+        } else {
+            json.value((String) null);
+        }
+        json.endObject();
+        json.flush();
+    }
+
+    private void listInvoices(HttpExchange exchange, ClinicService service, String patientId) throws IOException {
+        Json.Out json = beginStream(exchange, 200);
+        json.beginArray();
+        for (FinancialService invoice : service.getFinancialServices()) {
+            if (patientId != null && !invoice.getPatient().getId().equals(patientId)) continue;
+            json.beginObject()
+                .field("id", invoice.getInvoiceId())
+                .field("patientId", invoice.getPatient().getId())
+                .field("amount", invoice.getAmount())
+                .field("total", invoice.getTotalAmount())
+                .field("method", invoice.getPaymentMethod())
+                .field("date", formatDateTime(invoice.getInvoiceDate()))
+                .field("status", invoice.getStatus())
+                .endObject();
+        }
+        json.endArray();
+        json.flush();
+    }
+
+    // Apply a change on this thread, or hand it to the clinic's actor in actor mode
+    private <T> T write(ClinicService service, Function<ClinicService, T> change) {
+        if (readOnly) {
+            throw new ApiException(503, "This server is a read-only replica; promote it to accept changes");
+        }
+        ClinicActor actor = actors.get(service.getClinicId());
+        return actor != null ? actor.call(change) : change.apply(service);
+    }
+
+    // ==================== JSON ====================
+
+    private static void writePatient(Json.Out json, Patient patient) throws IOException {
+        json.beginObject()
+            .field("id", patient.getId())
+            .field("name", patient.getName())
+            .field("age", patient.getAge())
+            .field("gender", patient.getGender())
+            .field("bloodType", patient.getBloodType())
+            .field("phone", patient.getPhone())
+            .endObject();
+    }
+
+    private static void writeDoctor(Json.Out json, Doctor doctor) throws IOException {
+        json.beginObject()
+            .field("id", doctor.getId())
+            .field("name", doctor.getName())
+            .field("specialization", doctor.getSpecialization())
+            .field("yearsOfExperience", doctor.getYearsOfExperience())
+            .field("phone", doctor.getPhone())
+            .name("availableDays");
+        writeStrings(json, doctor.getAvailableDays());
+        json.endObject();
+    }
+
+    private static void writeAppointment(Json.Out json, Appointment appointment) throws IOException {
+        Date when = appointment.getDate();
+        json.beginObject()
+            .field("id", appointment.getAppointmentId())
+            .field("patientId", appointment.getPatient().getId())
+            .field("doctorId", appointment.getDoctor().getId())
+            .field("date", when == null ? null : DATE_FORMAT.format(when.toInstant().atZone(ZONE)))
+            .field("time", when == null ? null : TIME_FORMAT.format(when.toInstant().atZone(ZONE)))
+            .field("status", appointment.getStatus())
+            .field("reason", appointment.getReason())
+            .endObject();
+    }
+
+    private static void writeStrings(Json.Out json, List<String> values) throws IOException {
+        json.beginArray();
+        for (String value : values) {
+            json.value(value);
+        }
+        json.endArray();
+    }
+
+    private static String formatDateTime(Date date) {
+        if (date == null) return null;
+        return DATE_FORMAT.format(date.toInstant().atZone(ZONE)) + " " + TIME_FORMAT.format(date.toInstant().atZone(ZONE));
+    }
+
+    // ==================== HELPERS ====================
+
+    private static Patient findPatient(ClinicService service, String patientId) {
+        for (Patient patient : service.getPatients()) {
+            if (patient.getId().equals(patientId)) return patient;
+        }
+        throw new ApiException(404, "Patient " + patientId + " not found");
+    }
+
+    private static Doctor findDoctor(ClinicService service, String doctorId) {
+        for (Doctor doctor : service.getDoctors()) {
+            if (doctor.getId().equals(doctorId)) return doctor;
+        }
+        throw new ApiException(404, "Doctor " + doctorId + " not found");
+    }
+
+    private static String required(HashMap<String, String> body, String name) {
+        String value = body.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new ApiException(400, "Missing field '" + name + "'");
+        }
+        return value.trim();
+    }
+
+    /**
+     * Moving clinics sends serialized objects, and promoting a follower while
+     * the primary still runs would make two of them, so only a caller with
+     * the admin token may do either. Where the request comes from proves nothing: a router
+     * on this machine passes on requests from anywhere.
+     */
+    private static void requireAdmin(HttpExchange exchange) {
+        if (!AccessTokens.isAdmin(exchange.getRequestHeaders().getFirst(AccessTokens.ADMIN_HEADER))) {
+            throw new ApiException(403, "Needs the " + AccessTokens.ADMIN_HEADER + " header from data/admin.token");
+        }
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!method.equals(expected)) {
+            throw new ApiException(405, "Use " + expected);
+        }
+    }
+
+    // Chunked response: the body is written as it is produced
+    private static Json.Out beginStream(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        OutputStream body = exchange.getResponseBody();
+        return new Json.Out(new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8), 64 * 1024));
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            byte[] body = ("{\"error\":" + Json.quote(message == null ? "Error" : message) + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (IOException e) {
+            // client went away, or headers were already sent
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static HashMap<String, String> parseQuery(String rawQuery) {
+        HashMap<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            query.put(key, value);
+        }
+        return query;
+    }
+
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        boolean useActors = false;
+        int replicatePort = -1;
+        int followPort = -1;
+        int shard = -1;
+        int shardCount = 1;
+        InetAddress bindAddress = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--actors")) {
+                useActors = true;
+                continue;
+            }
+            if (arg.equals("--bind")) {
+                if (i + 1 >= args.length) {
+                    System.out.println("Error: --bind needs an address, e.g. --bind 0.0.0.0");
+                    return;
+                }
+                try {
+                    bindAddress = InetAddress.getByName(args[++i]);
+                } catch (UnknownHostException e) {
+                    System.out.println("Error: Unknown address " + args[i]);
+                    return;
+                }
+                continue;
+            }
+            if (arg.equals("--shard")) {
+                String[] spec = i + 1 < args.length ? args[++i].split("/") : new String[0];
+                try {
+                    shard = Integer.parseInt(spec[0]);
+                    shardCount = Integer.parseInt(spec[1]);
+                } catch (RuntimeException e) {
+                    System.out.println("Error: --shard needs i/n, e.g. --shard 0/3");
+                    return;
+                }
+                if (shard < 0 || shard >= shardCount) {
+                    System.out.println("Error: Shard " + shard + " is not one of 0.." + (shardCount - 1));
+                    return;
+                }
+                continue;
+            }
+            try {
+                if (arg.equals("--replicate") || arg.equals("--follow")) {
+                    if (i + 1 >= args.length) {
+                        System.out.println("Error: " + arg + " needs a port");
+                        return;
+                    }
+                    arg = args[++i];
+                    if (args[i - 1].equals("--replicate")) {
+                        replicatePort = Integer.parseInt(arg);
+                    } else {
+                        followPort = Integer.parseInt(arg);
+                    }
+                } else {
+                    port = Integer.parseInt(arg);
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Error: Port must be a number, got " + arg);
+                return;
+            }
+        }
+        if (replicatePort >= 0 && followPort >= 0) {
+            System.out.println("Error: Use either --replicate or --follow, not both");
+            return;
+        }
+        FileManager.initializeDataFolder();
+        ClinicServer clinicServer;
+        if (followPort >= 0) {
+            // Everything comes from the primary; the data folder is left to it
+            clinicServer = new ClinicServer(new ArrayList<>(), port, false, useActors);
+            if (!clinicServer.follow(followPort, 10000)) {
+                System.out.println("Error: No snapshot from the primary yet; serving what arrives as it comes");
+            }
+        } else if (shard >= 0) {
+            ShardMap shardMap = ShardMap.load(shardCount);
+            int mine = shard;
+            clinicServer = new ClinicServer(FileManager.loadClinics(clinicId -> shardMap.ownerOf(clinicId) == mine),
+                port, true, useActors);
+        } else {
+            clinicServer = new ClinicServer(FileManager.loadClinics(), port, true, useActors);
+        }
+        if (bindAddress != null) {
+            clinicServer.bindTo(bindAddress);
+        }
+        try {
+            clinicServer.start();
+            if (replicatePort >= 0) {
+                clinicServer.replicateTo(replicatePort);
+            }
+        } catch (IOException e) {
+            System.out.println("Error: Could not start server on port " + port + ": " + e.getMessage());
+            clinicServer.stop();
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(clinicServer::stop, "clinic-server-shutdown"));
+    }
+}
@@ -0,0 +1,254 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Front door to a clinic for the GUI and background jobs.
+ * Reads come from the clinic's current snapshot: read-only lists whose
+ * members stay the same however long they are used, so reports and saves can
+ * walk them while the front desk keeps editing. The entities in the lists are
+ * live, so their fields can change while they are being read. Changes only go
+ * through the mutation methods.
+ */
+public class ClinicService {
+    private final Clinic clinic;
+
+    public ClinicService(Clinic clinic) {
+        this.clinic = clinic;
+    }
+
+    public Clinic getClinic() {
+        return clinic;
+    }
+
+    public String getClinicId() {
+        return clinic.getClinicId();
+    }
+
+    public String getName() {
+        return clinic.getName();
+    }
+
+    public String getAddress() {
+        return clinic.getAddress();
+    }
+
+    public String getPhone() {
+        return clinic.getPhone();
+    }
+
+    public String getClinicDetails() {
+        return clinic.getClinicDetails();
+    }
+
+    // Read-only views
+
+    // Everything at one moment; use this when several lists must agree
+    public ClinicSnapshot snapshot() {
+        return clinic.snapshot();
+    }
+
+    public List<Doctor> getDoctors() {
+        return clinic.snapshot().getDoctors();
+    }
+
+    public List<Patient> getPatients() {
+        return clinic.snapshot().getPatients();
+    }
+
+    public List<Appointment> getAppointments() {
+        return clinic.snapshot().getAppointments();
+    }
+
+    public List<FinancialService> getFinancialServices() {
+        return clinic.snapshot().getFinancialServices();
+    }
+
+    public List<Medical_Document> getMedicalDocuments() {
+        return clinic.snapshot().getMedicalDocuments();
+    }
+
+    public List<Health_Report> getHealthReports() {
+        return clinic.snapshot().getHealthReports();
+    }
+
+    public List<AppointmentSeries> getAppointmentSeries() {
+        return Collections.unmodifiableList(clinic.getAppointmentSeries());
+    }
+
+    public ArrayList<WaitlistEntry> getWaitlistEntries() {
+        return clinic.getWaitlist().getEntries();
+    }
+
+    public Doctor searchDoctor(String doctorId) {
+        return clinic.searchDoctor(doctorId);
+    }
+
+    public Patient searchPatient(String patientId) {
+        return clinic.searchPatient(patientId);
+    }
+
+    public List<String> getAvailableDates(Doctor doctor) {
+        return clinic.getAvailableDates(doctor);
+    }
+
+    public ArrayList<String> getAvailableTimes(Doctor doctor, String date) {
+        return clinic.getAvailableTimes(doctor, date);
+    }
+
+    public ArrayList<AppointmentSeries.Occurrence> getSeriesOccurrences(Date from, Date to) {
+        return clinic.getSeriesOccurrences(from, to);
+    }
+
+    public String generateClinicReport() {
+        return clinic.generateClinicReport();
+    }
+
+    // Figures shown on the report and statistics screens
+    public static class Stats {
+        public int doctors;
+        public int patients;
+        public int appointments;
+        public int scheduled;
+        public int completed;
+        public int cancelled;
+        public double totalRevenue;
+        public int transactions;
+        public int healthReports;
+        public int medicalDocuments;
+        public String reportText;
+    }
+
+    /**
+     * Work out the report figures from one snapshot, so the counts of doctors,
+     * patients, appointments and records all agree. Statuses and amounts are
+     * read from the live entities, so one edited mid-way can still tip them.
+     * Meant to run in the background - it walks every appointment.
+     */
+    public Stats getStats() {
+        ClinicSnapshot snapshot = clinic.snapshot();
+        Stats stats = new Stats();
+        stats.doctors = snapshot.getDoctors().size();
+        stats.patients = snapshot.getPatients().size();
+        List<Appointment> appointmentList = snapshot.getAppointments();
+        stats.appointments = appointmentList.size();
+        int checked = 0;
+        for (Appointment apt : appointmentList) {
+            if (++checked % 10000 == 0) UiTasks.checkCancelled();
+            String status = apt.getStatus();
+            if (status.equalsIgnoreCase("SCHEDULED")) stats.scheduled++;
+            else if (status.equalsIgnoreCase("COMPLETED")) stats.completed++;
+            else if (status.equalsIgnoreCase("CANCELLED")) stats.cancelled++;
+        }
+        List<FinancialService> services = snapshot.getFinancialServices();
+        for (FinancialService service : services) {
+            stats.totalRevenue += service.getTotalAmount();
+        }
+        stats.transactions = services.size();
+        stats.healthReports = snapshot.getHealthReports().size();
+        stats.medicalDocuments = snapshot.getMedicalDocuments().size();
+        stats.reportText = clinic.generateClinicReport(snapshot);
+        return stats;
+    }
+
+    // Events
+
+    /**
+     * Be told about every change to the clinic, on a thread of its own.
+     * Close the subscription when it is no longer needed.
+     */
+    public EventBus.Subscription subscribe(String name, Consumer<ClinicEvent> handler) {
+        return clinic.getEventBus().subscribe(name, handler);
+    }
+
+    // Mutations
+
+    public void addDoctor(Doctor doctor) {
+        clinic.addDoctor(doctor);
+    }
+
+    public void removeDoctor(String doctorId) {
+        clinic.removeDoctor(doctorId);
+    }
+
+    public void registerPatient(Patient patient) {
+        clinic.registerPatient(patient);
+    }
+
+    public void removePatient(String patientId) {
+        clinic.removePatient(patientId);
+    }
+
+    public void addFinancialService(FinancialService service) {
+        clinic.addFinancialService(service);
+    }
+
+    public void addMedicalDocument(Medical_Document document) {
+        clinic.addMedicalDocument(document);
+    }
+
+    public void addHealthReport(Health_Report report) {
+        clinic.addHealthReport(report);
+    }
+
+    // Edit an entity's fields through these, so a background save never sees the edit half done,
+    // and it is saved and open tables redraw it
+
+    public void updateDoctor(Doctor doctor, Consumer<Doctor> edit) {
+        clinic.update(ClinicEvent.Type.DOCTOR_UPDATED, doctor.getId(), doctor, edit);
+    }
+
+    public void updatePatient(Patient patient, Consumer<Patient> edit) {
+        clinic.update(ClinicEvent.Type.PATIENT_UPDATED, patient.getId(), patient, edit);
+    }
+
+    public void updateAppointment(Appointment appointment, Consumer<Appointment> edit) {
+        clinic.update(ClinicEvent.Type.APPOINTMENT_UPDATED, appointment.getAppointmentId(), appointment, edit);
+    }
+
+    public void updateInvoice(FinancialService service, Consumer<FinancialService> edit) {
+        clinic.update(ClinicEvent.Type.PAYMENT_UPDATED, service.getId(), service, edit);
+    }
+
+    public void updateHealthReport(Health_Report report, Consumer<Health_Report> edit) {
+        clinic.update(ClinicEvent.Type.HEALTH_REPORT_UPDATED, report.getReportId(), report, edit);
+    }
+
+    public void updateSeries(AppointmentSeries series, Consumer<AppointmentSeries> edit) {
+        clinic.update(ClinicEvent.Type.SERIES_UPDATED, series.getSeriesId(), series, edit);
+    }
+
+    public Appointment bookAppointment(Patient patient, Doctor doctor, String date, String time, String reason) {
+        return clinic.bookAppointment(patient, doctor, date, time, reason);
+    }
+
+    public BatchScheduleResult scheduleAppointments(ArrayList<AppointmentRequest> requests) {
+        return clinic.scheduleAppointments(requests);
+    }
+
+    public Appointment cancelAppointment(Appointment appointment) {
+        return clinic.cancelAppointment(appointment);
+    }
+
+    public boolean rescheduleAppointment(Appointment appointment, String date, String time) {
+        return clinic.rescheduleAppointment(appointment, date, time);
+    }
+
+    public boolean restoreAppointment(Appointment appointment) {
+        return clinic.restoreAppointment(appointment);
+    }
+
+    public boolean completeAppointment(Appointment appointment) {
+        return clinic.completeAppointment(appointment);
+    }
+
+    public boolean addAppointmentSeries(AppointmentSeries series) {
+        return clinic.addAppointmentSeries(series);
+    }
+
+    public void addToWaitlist(WaitlistEntry entry) {
+        clinic.addToWaitlist(entry);
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * The doctors, patients, appointments and records of a clinic at one moment.
+ *
+ * Which entities are in each list never changes. Clinic swaps in a new
+ * snapshot whenever something is added or removed, so a report or export can
+ * walk one for as long as it likes without holding up bookings, and never
+ * sees an addition half applied (a batch of bookings shows up all at once or
+ * not at all).
+ *
+ * Only the lists are frozen. The doctor, patient and appointment objects in
+ * them are the live ones, so a cancellation or an edit made after the
+ * snapshot was taken shows through it.
+ */
+public final class ClinicSnapshot {
+    private final long version;
+    private final SnapshotList<Doctor> doctors;
+    private final SnapshotList<Patient> patients;
+    private final SnapshotList<Appointment> appointments;
+    private final SnapshotList<FinancialService> financialServices;
+    private final SnapshotList<Medical_Document> medicalDocuments;
+    private final SnapshotList<Health_Report> healthReports;
+
+    ClinicSnapshot(long version, SnapshotList<Doctor> doctors, SnapshotList<Patient> patients,
+                   SnapshotList<Appointment> appointments, SnapshotList<FinancialService> financialServices,
+                   SnapshotList<Medical_Document> medicalDocuments, SnapshotList<Health_Report> healthReports) {
+        this.version = version;
+        this.doctors = doctors;
+        this.patients = patients;
+        this.appointments = appointments;
+        this.financialServices = financialServices;
+        this.medicalDocuments = medicalDocuments;
+        this.healthReports = healthReports;
+    }
+
+    static ClinicSnapshot empty() {
+        return new ClinicSnapshot(0, SnapshotList.empty(), SnapshotList.empty(), SnapshotList.empty(),
+            SnapshotList.empty(), SnapshotList.empty(), SnapshotList.empty());
+    }
+
+    // Goes up by one with every change to the clinic's lists
+    public long getVersion() {
+        return version;
+    }
+
+    public SnapshotList<Doctor> getDoctors() {
+        return doctors;
+    }
+
+    public SnapshotList<Patient> getPatients() {
+        return patients;
+    }
+
+    public SnapshotList<Appointment> getAppointments() {
+        return appointments;
+    }
+
+    public SnapshotList<FinancialService> getFinancialServices() {
+        return financialServices;
+    }
+
+    public SnapshotList<Medical_Document> getMedicalDocuments() {
+        return medicalDocuments;
+    }
+
+    public SnapshotList<Health_Report> getHealthReports() {
+        return healthReports;
+    }
+
+    // Copies with one list replaced, used by Clinic under its write lock
+
+    ClinicSnapshot withDoctors(SnapshotList<Doctor> list) {
+        return new ClinicSnapshot(version + 1, list, patients, appointments, financialServices, medicalDocuments, healthReports);
+    }
+
+    ClinicSnapshot withPatients(SnapshotList<Patient> list) {
+        return new ClinicSnapshot(version + 1, doctors, list, appointments, financialServices, medicalDocuments, healthReports);
+    }
+
+    ClinicSnapshot withAppointments(SnapshotList<Appointment> list) {
+        return new ClinicSnapshot(version + 1, doctors, patients, list, financialServices, medicalDocuments, healthReports);
+    }
+
+    ClinicSnapshot withFinancialServices(SnapshotList<FinancialService> list) {
+        return new ClinicSnapshot(version + 1, doctors, patients, appointments, list, medicalDocuments, healthReports);
+    }
+
+    ClinicSnapshot withMedicalDocuments(SnapshotList<Medical_Document> list) {
+        return new ClinicSnapshot(version + 1, doctors, patients, appointments, financialServices, list, healthReports);
+    }
+
+    ClinicSnapshot withHealthReports(SnapshotList<Health_Report> list) {
+        return new ClinicSnapshot(version + 1, doctors, patients, appointments, financialServices, medicalDocuments, list);
+    }
+}
@@ -0,0 +1,425 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Stores every clinic in a file of its own under data/clinics/, so several
+ * front-desk PCs can share one data folder.
+ *
+ * Each shard starts with a version number that goes up on every write, and
+ * the time of the clinic's newest change. A
+ * terminal remembers the version it last read or wrote, and only writes a
+ * shard when its own copy changed (the clinic counts its changes). If the
+ * file is no longer at that version, another terminal saved in between:
+ * instead of overwriting that work, the shard is read and this terminal's
+ * unsaved changes are replayed onto it (Clinic.rebaseOnto), and the merged
+ * clinic is written.
+ *
+ * Reads take a shared lock and writes a short exclusive one, on a .lock file
+ * per shard that is never replaced. Terminals saving different clinics never
+ * wait for each other.
+ */
+public class ClinicStore {
+    private static final String SHARD_FOLDER = "data/clinics/";
+    private static final String LEGACY_FILE = "data/clinics.dat";
+    private static final int MAGIC = 0x434C4E32;     // "CLN2"
+    private static final int OLD_MAGIC = 0x434C4E31; // "CLN1", without the change time; still read
+    private static final int HEADER_SIZE = 20;       // magic + version + change time
+
+    private static final class Header {
+        final long version;
+        final long lastChange; // 0 in CLN1 shards
+
+        Header(long version, long lastChange) {
+            this.version = version;
+            this.lastChange = lastChange;
+        }
+    }
+
+    // What this process last read or wrote for a shard
+    private static final class Shard {
+        final long version;
+        final Clinic owner; // the copy this process saves; any other copy with the same id is not
+
+        Shard(long version, Clinic owner) {
+            this.version = version;
+            this.owner = owner;
+        }
+    }
+
+    private static final int MERGED = 2; // save(): written after merging another terminal's save
+
+    private static final ConcurrentHashMap<String, Shard> shards = new ConcurrentHashMap<>();
+    // A FileLock belongs to the whole process, so threads take turns per shard first
+    private static final ConcurrentHashMap<String, Object> monitors = new ConcurrentHashMap<>();
+
+    /**
+     * Load every clinic shard. The first time, clinics from the old single
+     * clinics.dat are split into shards.
+     */
+    public static ArrayList<Clinic> loadAll() {
+        return loadAll(clinicId -> true);
+    }
+
+    // Told about each shard as it is read, e.g. to show clinics while the rest load
+    public interface Progress {
+        // clinic is null if the shard could not be read; done counts up to total
+        void loaded(Clinic clinic, int done, int total);
+    }
+
+    /**
+     * Load the clinics whose id passes wanted; the others are not even read.
+     */
+    public static ArrayList<Clinic> loadAll(Predicate<String> wanted) {
+        return loadAll(wanted, (clinic, done, total) -> { });
+    }
+
+    /**
+     * Like loadAll(wanted), reporting every shard to progress as soon as it
+     * is read, on the loading thread.
+     */
+    public static ArrayList<Clinic> loadAll(Predicate<String> wanted, Progress progress) {
+        File folder = new File(SHARD_FOLDER);
+        folder.mkdirs();
+        migrateLegacyFile();
+
+        ArrayList<Clinic> clinics = new ArrayList<>();
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".dat"));
+        if (files == null || files.length == 0) {
+            System.out.println("No saved clinic data found. Starting fresh.");
+            return clinics;
+        }
+        Arrays.sort(files);
+        ArrayList<String> keys = new ArrayList<>();
+        for (File file : files) {
+            String key = file.getName().substring(0, file.getName().length() - ".dat".length());
+            if (wanted.test(key)) {
+                keys.add(key);
+            }
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            Clinic clinic = load(keys.get(i));
+            if (clinic != null) {
+                clinics.add(clinic);
+            }
+            progress.loaded(clinic, i + 1, keys.size());
+        }
+        System.out.println("Clinics loaded successfully! (" + clinics.size() + " clinics)");
+        return clinics;
+    }
+
+    // The file name (see keyFor) of every clinic shard, without reading any
+    static ArrayList<String> keys() {
+        ArrayList<String> keys = new ArrayList<>();
+        File[] files = new File(SHARD_FOLDER).listFiles((dir, name) -> name.endsWith(".dat"));
+        for (File file : files != null ? files : new File[0]) {
+            keys.add(file.getName().substring(0, file.getName().length() - ".dat".length()));
+        }
+        return keys;
+    }
+
+    /**
+     * Save the clinics that changed since this process last read or wrote
+     * them. Returns false if any of them could not be saved.
+     */
+    public static boolean saveAll(ArrayList<Clinic> clinics) {
+        return saveAll(clinics, clinic -> { });
+    }
+
+    /**
+     * Like saveAll(clinics); onMerged is told, on the saving thread, about
+     * each clinic that another terminal had saved in between. Those now hold
+     * both terminals' changes, in new entity objects.
+     */
+    public static boolean saveAll(ArrayList<Clinic> clinics, Consumer<Clinic> onMerged) {
+        new File(SHARD_FOLDER).mkdirs();
+        boolean ok = true;
+        int written = 0;
+        for (Clinic clinic : clinics) {
+            int result = save(clinic);
+            if (result < 0) {
+                ok = false;
+            } else if (result == MERGED) {
+                written++;
+                onMerged.accept(clinic);
+            } else {
+                written += result;
+            }
+        }
+        if (written > 0) {
+            System.out.println("Clinics saved! (" + written + " of " + clinics.size() + " changed)");
+        }
+        return ok;
+    }
+
+    /**
+     * Take over clinics that came from another process (one moved here from
+     * another server): their shards' current versions become the ones this
+     * process expects, and they count as changed, so the next save writes
+     * them instead of merging with what is on disk.
+     */
+    public static void adopt(ArrayList<Clinic> clinics) {
+        takeOver(clinics, false);
+    }
+
+    /**
+     * Like adopt(), for a replica being promoted. Its copies may be missing
+     * the primary's last changes, so a clinic whose shard was saved with a
+     * newer change than the copy has is read from the shard into the copy
+     * instead of overwriting it. Returns how many were read.
+     */
+    public static int adoptReplicas(ArrayList<Clinic> clinics) {
+        return takeOver(clinics, true);
+    }
+
+    @SuppressWarnings("try")
+    private static int takeOver(ArrayList<Clinic> clinics, boolean keepNewerShards) {
+        new File(SHARD_FOLDER).mkdirs();
+        int reloaded = 0;
+        for (Clinic clinic : clinics) {
+            String key = keyFor(clinic.getClinicId());
+            synchronized (monitor(key)) {
+                try (FileChannel channel = openLock(key);
+                     FileLock lock = channel.lock(0, Long.MAX_VALUE, true)) {
+                    Header header = readHeader(dataFile(key));
+                    if (keepNewerShards && header.lastChange > clinic.getLastChange()) {
+                        Clinic saved = deserialize(readBody(dataFile(key)));
+                        saved.setLastChange(header.lastChange);
+                        clinic.replaceWith(saved);
+                        clinic.markSaved(clinic.getChangeCount());
+                        reloaded++;
+                    } else {
+                        clinic.changed();
+                    }
+                    shards.put(key, new Shard(header.version, clinic));
+                } catch (IOException | ClassNotFoundException e) {
+                    System.out.println("Error taking over clinic " + clinic.getClinicId() + ": " + e.getMessage());
+                }
+            }
+        }
+        return reloaded;
+    }
+
+    /**
+     * Write every shard of these clinics again in the current format, even if
+     * unchanged, and delete temp files left by interrupted saves. Returns
+     * false if any clinic could not be written.
+     */
+    public static boolean compact(ArrayList<Clinic> clinics) {
+        boolean ok = true;
+        long before = 0;
+        long after = 0;
+        for (Clinic clinic : clinics) {
+            File file = dataFile(keyFor(clinic.getClinicId()));
+            before += file.length();
+            ok &= save(clinic, true) >= 0;
+            after += file.length();
+        }
+        int removed = 0;
+        File[] leftovers = new File(SHARD_FOLDER).listFiles((dir, name) -> name.endsWith(".dat.tmp"));
+        for (File leftover : leftovers != null ? leftovers : new File[0]) {
+            if (leftover.delete()) {
+                removed++;
+            }
+        }
+        System.out.println("Compacted " + clinics.size() + " clinics: " + before + " -> " + after + " bytes, "
+            + removed + " temp files removed");
+        return ok;
+    }
+
+    private static int save(Clinic clinic) {
+        return save(clinic, false);
+    }
+
+    // 1 if written, 0 if unchanged, MERGED if written after merging, -1 on an error.
+    // "try": the file locks here are held for their block, never referenced
+    @SuppressWarnings("try")
+    private static int save(Clinic clinic, boolean evenIfUnchanged) {
+        String key = keyFor(clinic.getClinicId());
+        synchronized (monitor(key)) {
+            Shard known = shards.get(key);
+            if (known != null && known.owner != clinic) {
+                System.out.println("Error: Another copy of clinic " + clinic.getClinicId() + " is saved by this process; this one was not saved");
+                return -1;
+            }
+            if (!evenIfUnchanged && known != null && !clinic.hasUnsavedChanges()) {
+                return 0;
+            }
+            long changes = clinic.getChangeCount(); // taken first: a change made while writing stays unsaved
+            long lastChange = clinic.getLastChange();
+            byte[] body;
+            try {
+                body = serialize(clinic);
+            } catch (IOException e) {
+                System.out.println("Error saving clinic " + clinic.getClinicId() + ": " + e.getMessage());
+                return -1;
+            }
+            long expected = known == null ? 0 : known.version;
+            try (FileChannel channel = openLock(key);
+                 FileLock lock = channel.lock()) {
+                Header onDisk = readHeader(dataFile(key));
+                boolean merged = onDisk.version != expected;
+                if (merged) {
+                    // Saved by another terminal in between: keep its work and replay ours onto it
+                    Clinic latest = deserialize(readBody(dataFile(key)));
+                    latest.setLastChange(onDisk.lastChange);
+                    if (!clinic.rebaseOnto(latest)) {
+                        System.out.println("Error: Clinic " + clinic.getClinicId() + " was changed by another terminal and is busy here; "
+                            + "it will be merged at the next save");
+                        return -1;
+                    }
+                    changes = clinic.getChangeCount();
+                    lastChange = clinic.getLastChange();
+                    body = serialize(clinic);
+                    System.out.println("Clinic " + clinic.getClinicId() + " was also changed by another terminal; both sets of changes were kept");
+                }
+                writeShard(key, onDisk.version + 1, lastChange, body);
+                shards.put(key, new Shard(onDisk.version + 1, clinic));
+                clinic.markSaved(changes);
+                return merged ? MERGED : 1;
+            } catch (IOException | ClassNotFoundException e) {
+                System.out.println("Error saving clinic " + clinic.getClinicId() + ": " + e.getMessage());
+                return -1;
+            }
+        }
+    }
+
+    @SuppressWarnings("try")
+    private static Clinic load(String key) {
+        synchronized (monitor(key)) {
+            Header header;
+            byte[] body;
+            try (FileChannel channel = openLock(key);
+                 FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(dataFile(key))))) {
+                header = readHeader(in, dataFile(key));
+                body = in.readAllBytes();
+            } catch (IOException e) {
+                System.out.println("Error loading clinic shard " + key + ": " + e.getMessage());
+                return null;
+            }
+
+            try {
+                Clinic clinic = deserialize(body);
+                clinic.setLastChange(header.lastChange);
+                shards.put(key, new Shard(header.version, clinic));
+                return clinic;
+            } catch (IOException | ClassNotFoundException e) {
+                System.out.println("Error loading clinic shard " + key + ": " + e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    // Split clinics.dat into shards once, then move it aside
+    @SuppressWarnings("try")
+    private static void migrateLegacyFile() {
+        File legacy = new File(LEGACY_FILE);
+        if (!legacy.exists()) {
+            return;
+        }
+        try (FileChannel channel = openLock(".migrate");
+             FileLock lock = channel.lock()) {
+            if (!legacy.exists()) {
+                return; // another terminal got here first
+            }
+            ArrayList<Clinic> clinics = FileManager.loadLegacyClinics(legacy);
+            if (clinics == null) {
+                return;
+            }
+            for (Clinic clinic : clinics) {
+                String key = keyFor(clinic.getClinicId());
+                if (!dataFile(key).exists()) {
+                    writeShard(key, 1, clinic.getLastChange(), serialize(clinic));
+                }
+            }
+            Files.move(legacy.toPath(), new File(LEGACY_FILE + ".migrated").toPath(), StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Moved " + clinics.size() + " clinics from clinics.dat into " + SHARD_FOLDER);
+        } catch (IOException e) {
+            System.out.println("Error moving clinics.dat into shards: " + e.getMessage());
+        }
+    }
+
+    // Only called with the shard's exclusive lock held
+    private static void writeShard(String key, long version, long lastChange, byte[] body) throws IOException {
+        File temp = new File(SHARD_FOLDER + key + ".dat.tmp");
+        try (FileOutputStream fos = new FileOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(MAGIC);
+            out.writeLong(version);
+            out.writeLong(lastChange);
+            out.write(body);
+            out.flush();
+            fos.getFD().sync();
+        }
+        Files.move(temp.toPath(), dataFile(key).toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Version 0 when the shard doesn't exist yet
+    private static Header readHeader(File file) throws IOException {
+        if (!file.exists()) {
+            return new Header(0, 0);
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), HEADER_SIZE))) {
+            return readHeader(in, file);
+        }
+    }
+
+    private static Header readHeader(DataInputStream in, File file) throws IOException {
+        int magic = in.readInt();
+        if (magic == MAGIC) {
+            return new Header(in.readLong(), in.readLong());
+        } else if (magic == OLD_MAGIC) {
+            return new Header(in.readLong(), 0);
+        }
+        throw new IOException(file.getName() + " is not a clinic file");
+    }
+
+    private static byte[] readBody(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            readHeader(in, file);
+            return in.readAllBytes();
+        }
+    }
+
+    private static FileChannel openLock(String key) throws IOException {
+        Path path = new File(SHARD_FOLDER + key + ".lock").toPath();
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static File dataFile(String key) {
+        return new File(SHARD_FOLDER + key + ".dat");
+    }
+
+    private static Object monitor(String key) {
+        return monitors.computeIfAbsent(key, k -> new Object());
+    }
+
+    // Clinic ids become file names, so keep them to safe characters
+    static String keyFor(String clinicId) {
+        return clinicId.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    private static byte[] serialize(Clinic clinic) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(clinic);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Clinic deserialize(byte[] body) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(body))) {
+            return (Clinic) ois.readObject();
+        }
+    }
+}
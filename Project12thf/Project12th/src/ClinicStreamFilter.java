@@ -0,0 +1,20 @@
+import java.io.ObjectInputFilter;
+
+/**
+ * The classes a clinic stream from elsewhere may contain: the replication
+ * stream, the body of POST /api/clinics/import and exported files given to
+ * ClinicBatch import. Anything else - and anything absurdly deep or large -
+ * is refused before it is created.
+ */
+public class ClinicStreamFilter {
+    public static final ObjectInputFilter CLINIC_DATA = ObjectInputFilter.Config.createFilter(
+        "maxdepth=64;maxarray=10000000;"
+        + "Clinic;ClinicEvent;ClinicEvent$*;ReplicationRecord;ReplicationRecord$*;"
+        + "Person;Doctor;Doctor$*;Patient;Appointment;AppointmentSeries;RecurrenceRule;"
+        + "Waitlist;WaitlistEntry;FinancialService;Health_Report;Medical_Document;"
+        + "AppointmentCheckerImpl;"
+        + "java.lang.Object;java.lang.Enum;java.lang.Number;java.lang.Integer;java.lang.Long;"
+        + "java.lang.Double;java.lang.Boolean;java.lang.String;"
+        + "java.util.*;java.util.concurrent.*;java.util.concurrent.atomic.*;java.util.concurrent.locks.*;"
+        + "!*");
+}
@@ -1,4 +1,6 @@
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 
 public class Doctor extends Person {
     private String specialization;
@@ -7,6 +9,11 @@ public class Doctor extends Person {
     private String availabilitySchedule;
     private ArrayList<String> availableDays; // Days of week: Monday, Tuesday, etc.
     private ArrayList<DateSlots> bookedSlots; // List of date and time slots
+    private int availabilityHorizonDays; // How far ahead patients can book (0 = default)
+    
+    // Rebuilt on demand after loading
+    private transient HashMap<String, DateSlots> slotIndex;
+    private transient AvailabilityCalendar calendar;
     
     // Helper class to store date and its booked times
     private static class DateSlots implements java.io.Serializable {
@@ -33,64 +40,93 @@ public class Doctor extends Person {
         return availableDays;
     }
 
-    public void addAvailableDay(String day) {
+    public synchronized void addAvailableDay(String day) {
         if (!availableDays.contains(day)) {
             availableDays.add(day);
+            if (calendar != null) calendar.workingDayChanged(day, true);
         }
     }
     
-    public void removeAvailableDay(String day) {
-        availableDays.remove(day);
+    public synchronized void removeAvailableDay(String day) {
+        if (availableDays.remove(day) && calendar != null) {
+            calendar.workingDayChanged(day, false);
+        }
     }
     
-    public void clearAvailableDays() {
+    public synchronized void clearAvailableDays() {
+        for (String day : availableDays) {
+            if (calendar != null) calendar.workingDayChanged(day, false);
+        }
         availableDays.clear();
     }
     
-    // Get dates for next 7 days that match the doctor's available days
-    public ArrayList<String> getAvailableDates() {
-        ArrayList<String> dates = new ArrayList<>();
-        java.time.LocalDate today = java.time.LocalDate.now();
-        java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        java.time.format.DateTimeFormatter dayFormatter = java.time.format.DateTimeFormatter.ofPattern("EEEE");
-        
-        for (int i = 0; i < 7; i++) {
-            java.time.LocalDate date = today.plusDays(i);
-            String dayOfWeek = date.getDayOfWeek().toString();
-            String dayName = date.format(dayFormatter);
-            
-            // Check if this day of week is in doctor's available days
-            if (availableDays.contains(dayOfWeek)) {
-                String dateStr = date.format(formatter);
-                // Only add if not fully booked
-                DateSlots dateSlot = findDateSlot(dateStr);
-                if (dateSlot == null || dateSlot.times.size() < 9) {
-                    dates.add(dayName + " - " + dateStr);
-                }
-            }
+    public synchronized int getAvailabilityHorizonDays() {
+        return availabilityHorizonDays > 0 ? availabilityHorizonDays : AvailabilityCalendar.DEFAULT_HORIZON_DAYS;
+    }
+    
+    public synchronized void setAvailabilityHorizonDays(int days) {
+        this.availabilityHorizonDays = days;
+        calendar = null;
+    }
+    
+    // Dates within the booking horizon that match the doctor's available days and aren't fully booked
+    public synchronized List<String> getAvailableDates() {
+        return calendar().getOpenDates();
+    }
+    
+    // Every working date within the horizon, including fully booked ones (for the waitlist)
+    public synchronized List<String> getWorkingDates() {
+        return calendar().getWorkingDates();
+    }
+    
+    private AvailabilityCalendar calendar() {
+        if (calendar == null) {
+            calendar = new AvailabilityCalendar(getAvailabilityHorizonDays());
+            calendar.build(availableDays, this::bookedCount);
+        } else {
+            calendar.rollForward(availableDays, this::bookedCount); // nothing to do until midnight
         }
-        return dates;
+        return calendar;
+    }
+    
+    private int bookedCount(String date) {
+        DateSlots dateSlot = findDateSlot(date);
+        return dateSlot == null ? 0 : dateSlot.times.size();
     }
     
-    private DateSlots findDateSlot(String date) {
-        for (DateSlots slot : bookedSlots) {
-            if (slot.date.equals(date)) {
-                return slot;
+    private synchronized DateSlots findDateSlot(String date) {
+        if (slotIndex == null) {
+            slotIndex = new HashMap<>();
+            for (DateSlots slot : bookedSlots) {
+                slotIndex.put(slot.date, slot);
             }
         }
-        return null;
+        return slotIndex.get(date);
     }
     
-    public void bookTimeSlot(String date, String time) {
+    public synchronized void bookTimeSlot(String date, String time) {
         DateSlots dateSlot = findDateSlot(date);
         if (dateSlot == null) {
             dateSlot = new DateSlots(date);
             bookedSlots.add(dateSlot);
+            slotIndex.put(date, dateSlot);
         }
         dateSlot.times.add(time);
+        if (calendar != null) calendar.slotBooked(date);
     }
     
-    public boolean isTimeSlotAvailable(String date, String time) {
+    public synchronized void releaseTimeSlot(String date, String time) {
+        DateSlots dateSlot = findDateSlot(date);
+        if (dateSlot != null && dateSlot.times.remove(time)) {
+            if (dateSlot.times.isEmpty()) {
+                bookedSlots.remove(dateSlot);
+                slotIndex.remove(date);
+            }
+            if (calendar != null) calendar.slotReleased(date);
+        }
+    }
+    
+    public synchronized boolean isTimeSlotAvailable(String date, String time) {
         DateSlots dateSlot = findDateSlot(date);
         if (dateSlot == null) {
             return true;
@@ -98,7 +134,7 @@ public class Doctor extends Person {
         return !dateSlot.times.contains(time);
     }
     
-    public ArrayList<String> getAvailableTimesForDate(String date) {
+    public synchronized ArrayList<String> getAvailableTimesForDate(String date) {
         ArrayList<String> allTimes = new ArrayList<>();
         allTimes.add("09:00 AM");
         allTimes.add("10:00 AM");
@@ -118,6 +154,26 @@ public class Doctor extends Person {
         return allTimes;
     }
 
+    /**
+     * Take what an edit can change from another copy of this doctor (one sent
+     * by a primary). Booked slots stay as they are; they follow appointments.
+     */
+    synchronized void copyEditsFrom(Doctor other) {
+        copyContactFrom(other);
+        specialization = other.specialization;
+        licenseNumber = other.licenseNumber;
+        yearsOfExperience = other.yearsOfExperience;
+        availabilitySchedule = other.availabilitySchedule;
+        availableDays = new ArrayList<>(other.availableDays);
+        availabilityHorizonDays = other.availabilityHorizonDays;
+        calendar = null; // working days may have changed
+    }
+
+    // Slot data is only touched under the doctor's monitor, so don't save it half-written
+    private synchronized void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+        out.defaultWriteObject();
+    }
+
     public String getSpecialization() {
         return specialization;
     }
@@ -0,0 +1,253 @@
+import java.awt.AWTEvent;
+import java.awt.Component;
+import java.awt.Dialog;
+import java.awt.EventQueue;
+import java.awt.Frame;
+import java.awt.Toolkit;
+import java.awt.Window;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.swing.AbstractButton;
+import javax.swing.SwingUtilities;
+
+/**
+ * Notices when the event dispatch thread stops answering, i.e. when the GUI
+ * freezes, and records what it was doing.
+ *
+ * A background thread keeps posting a small task to the EDT: every 100 ms
+ * for a few seconds after a click or key press, and every 2 s while nobody
+ * is using the window, so an idle terminal costs next to nothing. If the
+ * task hasn't run within the threshold, the EDT's stack is taken right then,
+ * together with the last click or key press (which button, in which
+ * window), since that is usually what started the stall. The incident is
+ * written to data/logs/edt-stalls.log at once, so a freeze that never ends
+ * is on disk too, and again with its length when the EDT is back. The log
+ * is rotated at 1 MB, keeping three old files. The last incidents are kept
+ * for the diagnostics dialog.
+ *
+ * While it runs, AWT never shuts down on its own; stop() it, or exit.
+ */
+public class EdtWatchdog {
+    public static final long DEFAULT_THRESHOLD_MS = 500;
+    private static final long CHECK_INTERVAL_MS = 100;
+    private static final long IDLE_CHECK_INTERVAL_MS = 2000;
+    private static final long ACTIVE_FOR_NANOS = TimeUnit.SECONDS.toNanos(5); // after the last input
+    private static final int MAX_KEPT = 100;
+    private static final String LOG_FOLDER = "data/logs/";
+    private static final String LOG_FILE = LOG_FOLDER + "edt-stalls.log";
+    private static final long MAX_LOG_BYTES = 1024 * 1024;
+    private static final int OLD_LOGS = 3;
+
+    public static class Incident {
+        private final int number;
+        private final Date started;
+        private final String action;
+        private final String stack;
+        private volatile long durationMillis = -1; // -1 while still blocked
+
+        Incident(int number, Date started, String action, String stack) {
+            this.number = number;
+            this.started = started;
+            this.action = action;
+            this.stack = stack;
+        }
+
+        public int getNumber() { return number; }
+        public Date getStarted() { return started; }
+        public String getAction() { return action; }
+        public String getStack() { return stack; }
+        public long getDurationMillis() { return durationMillis; }
+    }
+
+    private final long thresholdMillis;
+    private final Thread thread;
+    private final ArrayList<Incident> incidents = new ArrayList<>(); // guarded by itself
+    private final CopyOnWriteArrayList<Consumer<Incident>> listeners = new CopyOnWriteArrayList<>();
+    private volatile Thread edt;
+    private volatile String lastAction = "(no click or key press yet)";
+    private volatile long lastInput = System.nanoTime();
+    private final Object wake = new Object(); // notified when input ends an idle spell
+    private volatile boolean running;
+    private int count;
+
+    public EdtWatchdog(long thresholdMillis) {
+        this.thresholdMillis = thresholdMillis;
+        this.thread = new Thread(this::watch, "EDT watchdog");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        Toolkit.getDefaultToolkit().addAWTEventListener(this::noteInput,
+            AWTEvent.MOUSE_EVENT_MASK | AWTEvent.KEY_EVENT_MASK);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        thread.interrupt();
+    }
+
+    public long getThresholdMillis() {
+        return thresholdMillis;
+    }
+
+    // Most recent first
+    public List<Incident> getIncidents() {
+        synchronized (incidents) {
+            ArrayList<Incident> copy = new ArrayList<>(incidents);
+            Collections.reverse(copy);
+            return copy;
+        }
+    }
+
+    /**
+     * Called on the EDT when a stall is over (the EDT could not have shown
+     * it earlier anyway).
+     */
+    public void addListener(Consumer<Incident> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<Incident> listener) {
+        listeners.remove(listener);
+    }
+
+    private void watch() {
+        try {
+            while (running) {
+                long sent = System.nanoTime();
+                CountDownLatch answered = new CountDownLatch(1);
+                EventQueue.invokeLater(() -> {
+                    edt = Thread.currentThread(); // a new one after an uncaught exception
+                    answered.countDown();
+                });
+                if (!answered.await(thresholdMillis, TimeUnit.MILLISECONDS)) {
+                    Incident incident = stalled();
+                    answered.await();
+                    ended(incident, (System.nanoTime() - sent) / 1_000_000);
+                }
+                synchronized (wake) {
+                    wake.wait(isActive() ? CHECK_INTERVAL_MS : IDLE_CHECK_INTERVAL_MS);
+                }
+            }
+        } catch (InterruptedException e) {
+            // stopped
+        }
+    }
+
+    private Incident stalled() {
+        Thread blocked = edt;
+        StringBuilder stack = new StringBuilder();
+        if (blocked == null) {
+            stack.append("(EDT not started yet)\n");
+        } else {
+            stack.append(blocked.getName()).append(" (").append(blocked.getState()).append(")\n");
+            for (StackTraceElement frame : blocked.getStackTrace()) {
+                stack.append("    at ").append(frame).append('\n');
+            }
+        }
+        Incident incident;
+        synchronized (incidents) {
+            incident = new Incident(++count, new Date(), lastAction, stack.toString());
+            incidents.add(incident);
+            if (incidents.size() > MAX_KEPT) {
+                incidents.remove(0);
+            }
+        }
+        log("STALL #" + incident.getNumber() + " EDT blocked for more than " + thresholdMillis + " ms\n"
+            + "Last action: " + incident.getAction() + "\n" + incident.getStack());
+        return incident;
+    }
+
+    private void ended(Incident incident, long durationMillis) {
+        incident.durationMillis = durationMillis;
+        log("STALL #" + incident.getNumber() + " ended after " + durationMillis + " ms\n");
+        SwingUtilities.invokeLater(() -> {
+            for (Consumer<Incident> listener : listeners) {
+                listener.accept(incident);
+            }
+        });
+    }
+
+    private boolean isActive() {
+        return System.nanoTime() - lastInput < ACTIVE_FOR_NANOS;
+    }
+
+    // Runs on the EDT for every mouse and key event, before it is handled
+    private void noteInput(AWTEvent event) {
+        boolean wasIdle = !isActive();
+        lastInput = System.nanoTime();
+        if (wasIdle) {
+            synchronized (wake) {
+                wake.notify();
+            }
+        }
+        if (!(event.getSource() instanceof Component)) {
+            return;
+        }
+        Component source = (Component) event.getSource();
+        String what;
+        if (event.getID() == MouseEvent.MOUSE_RELEASED) {
+            what = "Click on " + describe(source);
+        } else if (event.getID() == KeyEvent.KEY_PRESSED) {
+            what = "Key " + KeyEvent.getKeyText(((KeyEvent) event).getKeyCode()) + " in " + describe(source);
+        } else {
+            return;
+        }
+        Window window = source instanceof Window ? (Window) source : SwingUtilities.getWindowAncestor(source);
+        String title = window instanceof Dialog ? ((Dialog) window).getTitle()
+            : window instanceof Frame ? ((Frame) window).getTitle() : null;
+        if (title != null && !title.isEmpty()) {
+            what += " in '" + title + "'";
+        }
+        lastAction = new SimpleDateFormat("HH:mm:ss").format(new Date()) + " " + what;
+    }
+
+    private static String describe(Component component) {
+        if (component instanceof AbstractButton && ((AbstractButton) component).getText() != null) {
+            return "'" + ((AbstractButton) component).getText() + "' button";
+        }
+        Class<?> type = component.getClass();
+        while (type.isAnonymousClass()) {
+            type = type.getSuperclass();
+        }
+        return type.getSimpleName();
+    }
+
+    // Called on the watchdog thread only
+    private void log(String text) {
+        new File(LOG_FOLDER).mkdirs();
+        File file = new File(LOG_FILE);
+        if (file.length() > MAX_LOG_BYTES) {
+            rotate();
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(file, true))) {
+            out.print(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date()) + " " + text);
+        } catch (IOException e) {
+            System.out.println("Error writing EDT stall log: " + e.getMessage());
+        }
+    }
+
+    // edt-stalls.log -> .1 -> .2 -> .3, the oldest is dropped
+    private static void rotate() {
+        new File(LOG_FILE + "." + OLD_LOGS).delete();
+        for (int i = OLD_LOGS - 1; i >= 1; i--) {
+            new File(LOG_FILE + "." + i).renameTo(new File(LOG_FILE + "." + (i + 1)));
+        }
+        new File(LOG_FILE).renameTo(new File(LOG_FILE + ".1"));
+    }
+}
@@ -0,0 +1,216 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Function;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * A table whose rows are the entities themselves (doctors, appointments...).
+ *
+ * Each column is a function of the entity, called only when a cell is drawn,
+ * so nothing is copied or formatted for rows that are never on screen, and a
+ * changed entity shows its new values on the next repaint. setRows() compares
+ * the new list with the current one by id and only reports the rows that were
+ * inserted or removed.
+ *
+ * Like any Swing model, use it on the EDT only.
+ */
+public class EntityTableModel<T> extends AbstractTableModel {
+    // Scattered changes beyond this many runs are one data change, not an event per run
+    private static final int MAX_RUN_EVENTS = 16;
+
+    private final Function<T, String> idOf;
+    private final ArrayList<String> columnNames = new ArrayList<>();
+    private final ArrayList<Function<T, Object>> columns = new ArrayList<>();
+    private final ArrayList<T> rows = new ArrayList<>();
+    private HashMap<String, Integer> rowById; // rebuilt when rows move
+
+    public EntityTableModel(Function<T, String> idOf) {
+        this.idOf = idOf;
+    }
+
+    // Add a column; value is called for every cell as it is drawn
+    public EntityTableModel<T> column(String name, Function<T, Object> value) {
+        columnNames.add(name);
+        columns.add(value);
+        return this;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames.get(column);
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return columns.get(column).apply(rows.get(row));
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    public T getRow(int row) {
+        return rows.get(row);
+    }
+
+    // Row of the entity with this id, or -1
+    public int indexOf(String id) {
+        if (rowById == null) {
+            rowById = new HashMap<>();
+            for (int i = 0; i < rows.size(); i++) {
+                rowById.put(idOf.apply(rows.get(i)), i);
+            }
+        }
+        Integer row = rowById.get(id);
+        return row != null ? row : -1;
+    }
+
+    /**
+     * Show items, in their order. Rows that are in both the old and the new
+     * list stay where they are; only inserted and removed rows are reported,
+     * one event per run of rows. A new order (e.g. after sorting), or changes
+     * in more than MAX_RUN_EVENTS places, is reported as one data change.
+     * Takes time in proportion to the rows, however many changed.
+     */
+    public void setRows(List<? extends T> items) {
+        HashSet<String> wanted = new HashSet<>();
+        for (T item : items) {
+            wanted.add(idOf.apply(item));
+        }
+
+        // Runs of rows that are gone, as {first, last}
+        ArrayList<int[]> gone = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (!wanted.contains(idOf.apply(rows.get(i)))) {
+                int[] last = gone.isEmpty() ? null : gone.get(gone.size() - 1);
+                if (last != null && last[1] == i - 1) {
+                    last[1] = i;
+                } else {
+                    gone.add(new int[] {i, i});
+                }
+            }
+        }
+        if (gone.size() > MAX_RUN_EVENTS) {
+            replaceAll(items);
+            return;
+        }
+        // Bottom-up, so the rows of the runs above don't move
+        for (int r = gone.size() - 1; r >= 0; r--) {
+            int[] run = gone.get(r);
+            rows.subList(run[0], run[1] + 1).clear();
+            rowById = null;
+            fireTableRowsDeleted(run[0], run[1]);
+        }
+
+        // What is left must be in the same order in the new list, or it was re-sorted.
+        // Count the runs of new items on the way.
+        int kept = 0;
+        int added = 0;
+        boolean inRun = false;
+        for (T item : items) {
+            if (kept < rows.size() && idOf.apply(rows.get(kept)).equals(idOf.apply(item))) {
+                kept++;
+                inRun = false;
+            } else if (!inRun) {
+                added++;
+                inRun = true;
+            }
+        }
+        if (kept < rows.size() || added > MAX_RUN_EVENTS) {
+            replaceAll(items);
+            return;
+        }
+
+        // Insert each run of new items where it belongs; kept rows take the
+        // new object, in case the entity was replaced
+        int start = -1;
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            int next = start < 0 ? i : start; // where the next kept row is now
+            if (next < rows.size() && idOf.apply(rows.get(next)).equals(idOf.apply(item))) {
+                if (start >= 0) {
+                    insertRun(start, items.subList(start, i));
+                    start = -1;
+                }
+                rows.set(i, item);
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+        if (start >= 0) {
+            insertRun(start, items.subList(start, items.size()));
+        }
+        if (!rows.isEmpty()) {
+            // Kept rows may show new values; this only repaints
+            fireTableRowsUpdated(0, rows.size() - 1);
+        }
+    }
+
+    private void insertRun(int start, List<? extends T> run) {
+        rows.addAll(start, run);
+        rowById = null;
+        fireTableRowsInserted(start, start + run.size() - 1);
+    }
+
+    private void replaceAll(List<? extends T> items) {
+        rows.clear();
+        rows.addAll(items);
+        rowById = null;
+        fireTableDataChanged();
+    }
+
+    // Add one entity at the end
+    public void add(T item) {
+        rows.add(item);
+        if (rowById != null) {
+            rowById.put(idOf.apply(item), rows.size() - 1);
+        }
+        fireTableRowsInserted(rows.size() - 1, rows.size() - 1);
+    }
+
+    // Insert one entity at this row, e.g. where it belongs in the current order
+    public void insert(int row, T item) {
+        if (row == rows.size()) {
+            add(item);
+            return;
+        }
+        rows.add(row, item);
+        rowById = null;
+        fireTableRowsInserted(row, row);
+    }
+
+    // Redraw the row of an entity that changed (or put the new object in its place)
+    public boolean update(T item) {
+        int row = indexOf(idOf.apply(item));
+        if (row < 0) {
+            return false;
+        }
+        rows.set(row, item);
+        fireTableRowsUpdated(row, row);
+        return true;
+    }
+
+    public boolean remove(String id) {
+        int row = indexOf(id);
+        if (row < 0) {
+            return false;
+        }
+        rows.remove(row);
+        rowById = null;
+        fireTableRowsDeleted(row, row);
+        return true;
+    }
+}
@@ -0,0 +1,123 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hands clinic events to subscribers such as saving, statistics and screen
+ * refreshes, so the booking that caused them doesn't wait for that work.
+ *
+ * Every subscriber has its own thread and a bounded queue. Events reach a
+ * subscriber in the order they were published. When a subscriber falls
+ * behind and its queue is full, publish() waits for room instead of growing
+ * without limit.
+ */
+public class EventBus {
+    public static final int DEFAULT_CAPACITY = 256;
+    private static final long CLOSED_CHECK_MILLIS = 100; // how often a waiting publisher looks for close()
+
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    public class Subscription {
+        private final String name;
+        private final BlockingQueue<ClinicEvent> queue;
+        private final Consumer<ClinicEvent> handler;
+        private final Thread worker;
+        private volatile boolean closed = false;
+
+        private Subscription(String name, int capacity, Consumer<ClinicEvent> handler) {
+            this.name = name;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+            this.handler = handler;
+            this.worker = new Thread(this::runLoop, "event-" + name);
+            this.worker.setDaemon(true);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // Events waiting to be handled
+        public int getBacklog() {
+            return queue.size();
+        }
+
+        // Stop receiving events; anything still queued is dropped, and publishers waiting for room go on
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+            queue.clear();
+            worker.interrupt();
+        }
+
+        private void deliver(ClinicEvent event) {
+            if (closed) {
+                return;
+            }
+            if (Thread.currentThread() == worker) {
+                // Published from our own handler - waiting for room here would never end
+                if (!queue.offer(event)) {
+                    System.out.println("Error: Event queue '" + name + "' is full, dropped " + event);
+                }
+                return;
+            }
+            try {
+                while (!queue.offer(event, CLOSED_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (closed) {
+                        return; // nobody will take it
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.out.println("Error: Interrupted while publishing " + event);
+            }
+        }
+
+        private void runLoop() {
+            while (!closed) {
+                ClinicEvent event;
+                try {
+                    event = queue.take();
+                } catch (InterruptedException e) {
+                    continue; // closed, or a stray interrupt
+                }
+                try {
+                    handler.accept(event);
+                } catch (RuntimeException e) {
+                    System.out.println("Error: Subscriber '" + name + "' failed on " + event + ": " + e);
+                }
+            }
+        }
+    }
+
+    public Subscription subscribe(String name, Consumer<ClinicEvent> handler) {
+        return subscribe(name, DEFAULT_CAPACITY, handler);
+    }
+
+    /**
+     * Start a subscriber on its own thread. capacity is how many events may
+     * wait for it before publishers are held up.
+     */
+    public Subscription subscribe(String name, int capacity, Consumer<ClinicEvent> handler) {
+        Subscription subscription = new Subscription(name, capacity, handler);
+        subscriptions.add(subscription);
+        subscription.worker.start();
+        return subscription;
+    }
+
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * Queue an event for every subscriber. Must not be called while holding a
+     * clinic lock: a subscriber that is calling into the clinic could then
+     * never make room in its queue.
+     */
+    public void publish(ClinicEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.deliver(event);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 import java.io.*;
 import java.util.ArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Simple FileManager - Handles saving and loading clinic data to files
@@ -80,14 +82,68 @@ public class FileManager {
     public static void saveAll(Clinic clinic) {
         System.out.println("\n=== Saving all data ===");
         saveClinic(clinic);
-        saveDoctors(clinic.getDoctors());
-        savePatients(clinic.getPatients());
-        saveAppointments(clinic.getAppointments());
+        ClinicSnapshot snapshot = clinic.snapshot();
+        saveDoctors(new ArrayList<>(snapshot.getDoctors()));
+        savePatients(new ArrayList<>(snapshot.getPatients()));
+        saveAppointments(new ArrayList<>(snapshot.getAppointments()));
         System.out.println("All data saved!\n");
     }
 
+    /**
+     * Save every clinic that changed, each to its own shard in data/clinics/.
+     * Returns false if a clinic could not be saved. Safe to call from any thread.
+     */
+    public static boolean saveClinics(ArrayList<Clinic> clinics) {
+        initializeDataFolder();
+        return ClinicStore.saveAll(clinics);
+    }
+
+    /**
+     * Like saveClinics(clinics); onMerged is told about each clinic that
+     * another terminal had saved meanwhile, whose changes were merged in.
+     */
+    public static boolean saveClinics(ArrayList<Clinic> clinics, Consumer<Clinic> onMerged) {
+        initializeDataFolder();
+        return ClinicStore.saveAll(clinics, onMerged);
+    }
+
     // ========== LOAD METHODS ==========
 
+    /**
+     * Load every clinic from data/clinics/. Returns an empty list if there is none.
+     */
+    public static ArrayList<Clinic> loadClinics() {
+        initializeDataFolder();
+        return ClinicStore.loadAll();
+    }
+
+    /**
+     * Load only the clinics whose id passes wanted (one server's share of them).
+     */
+    public static ArrayList<Clinic> loadClinics(Predicate<String> wanted) {
+        initializeDataFolder();
+        return ClinicStore.loadAll(wanted);
+    }
+
+    /**
+     * Load every clinic, reporting each one to progress as soon as it is read.
+     */
+    public static ArrayList<Clinic> loadClinics(ClinicStore.Progress progress) {
+        initializeDataFolder();
+        return ClinicStore.loadAll(clinicId -> true, progress);
+    }
+
+    // The single clinics.dat used before clinics had a file each
+    @SuppressWarnings("unchecked")
+    static ArrayList<Clinic> loadLegacyClinics(File file) {
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return (ArrayList<Clinic>) ois.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            System.out.println("Error loading clinics: " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Load clinic information from file
      */
@@ -97,6 +97,15 @@ public class FinancialService implements Serializable {
         this.items = items;
     }
 
+    // Take what an edit can change from another copy of this invoice (one sent by a primary)
+    void copyEditsFrom(FinancialService other) {
+        this.amount = other.amount;
+        this.totalAmount = other.totalAmount;
+        this.status = other.status;
+        this.paymentMethod = other.paymentMethod;
+        this.items = new ArrayList<>(other.items);
+    }
+
     public boolean isValidPaymentMethod(String method) {
         if (method == null || method.isEmpty()) {
             return false;
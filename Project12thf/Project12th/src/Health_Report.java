@@ -75,6 +75,19 @@ public class Health_Report implements Serializable {
         return healthNotes;
     }
 
+    // Take what an edit can change from another copy of this report (one sent by a primary)
+    void copyEditsFrom(Health_Report other) {
+        this.height = other.height;
+        this.weight = other.weight;
+        this.bloodPressure = other.bloodPressure;
+        this.bmi = other.bmi;
+        this.heartRate = other.heartRate;
+        this.temperature = other.temperature;
+        this.bloodSugar = other.bloodSugar;
+        this.generalCondition = other.generalCondition;
+        this.healthNotes = new ArrayList<>(other.healthNotes);
+    }
+
     // Setters with Validation
 
     public void setReportId(String reportId) {
@@ -1,81 +1,364 @@
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out unique IDs such as PAT1001 or APT3001.
+ *
+ * Each prefix has its own counter. Numbers are taken from a block reserved
+ * in data/ids.properties, so several threads - or several copies of the
+ * program sharing the data folder - never get the same ID, and the file is
+ * only touched once per block. The file keeps the next free number for every
+ * prefix, so IDs carry on after a restart instead of starting over.
+ *
+ * While saved data is still being read (see holdUntilLoaded()), new IDs
+ * wait until every loaded ID has been observed, so a lost or old ID file
+ * can't hand out a number that a clinic not yet read already uses.
+ */
 public class IdGenerator {
-    
-    // Counters for generating unique IDs
-    private static int patientCounter = 1000;
-    private static int doctorCounter = 2000;
-    private static int appointmentCounter = 3000;
-    private static int medicalDocCounter = 4000;
-    private static int financialCounter = 5000;
-    private static int healthReportCounter = 6000;
-    private static int invoiceCounter = 7000;
-    private static int documentCounter = 8000;
-    private static int clinicCounter = 9000;
-    
+    private static final String DEFAULT_ID_FILE = "data" + File.separator + "ids.properties";
+    private static final int DEFAULT_BLOCK_SIZE = 100;
+
+    private static volatile String idFile = DEFAULT_ID_FILE;
+    private static volatile int blockSize = DEFAULT_BLOCK_SIZE;
+    private static volatile boolean persistent = true;
+
+    // Open except while saved data is being read
+    private static volatile CountDownLatch loading = new CountDownLatch(0);
+
+    // One reservation at a time inside this JVM; the file lock covers other processes
+    private static final Object FILE_LOCK = new Object();
+
+    // A reserved range of numbers [next, end)
+    private static final class Block {
+        final AtomicLong next;
+        final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+
+    private static final class Sequence {
+        final String prefix;
+        final long initial;
+        final AtomicReference<Block> block;
+        final AtomicLong seen; // highest number found in loaded data
+
+        Sequence(String prefix, long initial) {
+            this.prefix = prefix;
+            this.initial = initial;
+            this.block = new AtomicReference<>(new Block(0, 0));
+            this.seen = new AtomicLong(initial);
+        }
+
+        long nextValue() {
+            awaitLoaded();
+            while (true) {
+                Block current = block.get();
+                long value = current.next.getAndIncrement();
+                if (value < current.end) {
+                    if (value > seen.get()) {
+                        return value;
+                    }
+                    continue; // already used by loaded data
+                }
+                synchronized (this) {
+                    if (block.get() == current) {
+                        block.set(reserve(this));
+                    }
+                }
+            }
+        }
+
+        void observe(long value) {
+            seen.accumulateAndGet(value, Math::max);
+        }
+
+        void reset() {
+            block.set(new Block(0, 0));
+            seen.set(initial);
+        }
+
+        long lastIssued() {
+            Block current = block.get();
+            return Math.max(seen.get(), Math.min(current.next.get(), current.end) - 1);
+        }
+    }
+
+    private static final Sequence PATIENT = new Sequence("PAT", 1000);
+    private static final Sequence DOCTOR = new Sequence("DOC", 2000);
+    private static final Sequence APPOINTMENT = new Sequence("APT", 3000);
+    private static final Sequence MEDICAL_DOC = new Sequence("MED", 4000);
+    private static final Sequence FINANCIAL = new Sequence("FIN", 5000);
+    private static final Sequence HEALTH_REPORT = new Sequence("HLT", 6000);
+    private static final Sequence INVOICE = new Sequence("INV", 7000);
+    private static final Sequence DOCUMENT = new Sequence("DOC_ID", 8000);
+    private static final Sequence CLINIC = new Sequence("CLINIC", 9000);
+    private static final Sequence SERIES = new Sequence("SER", 10000);
+    private static final Sequence RECORD = new Sequence("REC", 4000);
+
+    // Longest prefixes first so DOC_ID1 isn't read as a DOC id
+    private static final Sequence[] BY_PREFIX = {
+        DOCUMENT, CLINIC, PATIENT, DOCTOR, APPOINTMENT, MEDICAL_DOC, FINANCIAL, HEALTH_REPORT, INVOICE, SERIES, RECORD
+    };
+
     // ID Generation Methods with unique prefixes
-    
+
     public static String generatePatientId() {
-        return "PAT" + (++patientCounter);
+        return "PAT" + PATIENT.nextValue();
     }
-    
+
     public static String generateDoctorId() {
-        return "DOC" + (++doctorCounter);
+        return "DOC" + DOCTOR.nextValue();
     }
-    
+
     public static String generateAppointmentId() {
-        return "APT" + (++appointmentCounter);
+        return "APT" + APPOINTMENT.nextValue();
     }
-    
+
     public static String generateMedicalDocumentId() {
-        return "MED" + (++medicalDocCounter);
+        return "MED" + MEDICAL_DOC.nextValue();
     }
-    
+
     public static String generateFinancialServiceId() {
-        return "FIN" + (++financialCounter);
+        return "FIN" + FINANCIAL.nextValue();
     }
-    
+
     public static String generateHealthReportId() {
-        return "HLT" + (++healthReportCounter);
+        return "HLT" + HEALTH_REPORT.nextValue();
     }
-    
+
     public static String generateInvoiceId() {
-        return "INV" + (++invoiceCounter);
+        return "INV" + INVOICE.nextValue();
     }
-    
+
     public static String generateRecordId() {
-        return "REC" + (++medicalDocCounter);
+        return "REC" + RECORD.nextValue();
     }
-    
+
     public static String generateDocumentId() {
-        return "DOC_ID" + (++documentCounter);
+        return "DOC_ID" + DOCUMENT.nextValue();
     }
-    
+
     public static String generateClinicId() {
-        return "CLINIC" + (++clinicCounter);
+        return "CLINIC" + CLINIC.nextValue();
+    }
+
+    public static String generateSeriesId() {
+        return "SER" + SERIES.nextValue();
+    }
+
+    /**
+     * Tell the generator about an ID that already exists (e.g. one just loaded
+     * from file) so it is never handed out again. Unknown formats are ignored.
+     */
+    public static void observe(String id) {
+        if (id == null) {
+            return;
+        }
+        for (Sequence sequence : BY_PREFIX) {
+            if (id.startsWith(sequence.prefix) && id.length() > sequence.prefix.length()) {
+                try {
+                    sequence.observe(Long.parseLong(id.substring(sequence.prefix.length())));
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Saved data is about to be read in the background: hold back new IDs
+     * until loaded() is called. The loading thread must not create entities
+     * itself, and must call loaded() however the load ends.
+     */
+    public static void holdUntilLoaded() {
+        loading = new CountDownLatch(1);
+    }
+
+    // Every saved ID has been observed; let held-back IDs through
+    public static void loaded() {
+        loading.countDown();
+    }
+
+    private static void awaitLoaded() {
+        CountDownLatch latch = loading;
+        if (latch.getCount() == 0) {
+            return;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true; // an ID is still owed; ask again once it's handed out
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Where the high-water marks are kept. Pass null to keep IDs in memory only.
+     */
+    public static void setIdFile(String path) {
+        synchronized (FILE_LOCK) {
+            persistent = path != null;
+            idFile = path;
+        }
     }
-    
-    // Reset counters if needed (for testing purposes)
+
+    // How many IDs each reservation takes from the file
+    public static void setBlockSize(int size) {
+        blockSize = Math.max(1, size);
+    }
+
+    // Reset counters if needed (for testing purposes). The ID file is left alone.
     public static void resetCounters() {
-        patientCounter = 1000;
-        doctorCounter = 2000;
-        appointmentCounter = 3000;
-        medicalDocCounter = 4000;
-        financialCounter = 5000;
-        healthReportCounter = 6000;
-        invoiceCounter = 7000;
-        documentCounter = 8000;
-        clinicCounter = 9000;
-    }
-    
+        for (Sequence sequence : BY_PREFIX) {
+            sequence.reset();
+        }
+    }
+
     // Get current counter values
     public static int getPatientCount() {
-        return patientCounter;
+        return (int) PATIENT.lastIssued();
     }
-    
+
     public static int getDoctorCount() {
-        return doctorCounter;
+        return (int) DOCTOR.lastIssued();
     }
-    
+
     public static int getAppointmentCount() {
-        return appointmentCounter;
+        return (int) APPOINTMENT.lastIssued();
+    }
+
+    /**
+     * Take the next block for a sequence. The file is locked, read, bumped
+     * and written back in one go, so two programs can't reserve the same range.
+     * If the file can't be used the block is reserved in memory only.
+     */
+    private static Block reserve(Sequence sequence) {
+        int size = blockSize;
+        synchronized (FILE_LOCK) {
+            long start = sequence.seen.get() + 1;
+            if (persistent) {
+                try {
+                    start = Math.max(start, reserveInFile(sequence.prefix, start, size));
+                } catch (IOException e) {
+                    System.out.println("Error: Could not reserve IDs in " + idFile + ": " + e.getMessage());
+                }
+            }
+            Block current = sequence.block.get();
+            start = Math.max(start, Math.min(current.next.get(), current.end));
+            return new Block(start, start + size);
+        }
+    }
+
+    // Returns the first number of the reserved range
+    @SuppressWarnings("try")
+    private static long reserveInFile(String prefix, long floor, int size) throws IOException {
+        File file = new File(idFile);
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists()) {
+            dir.mkdirs();
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel();
+             FileLock lock = channel.lock()) {
+            Properties marks = readMarks(channel);
+
+            long start = floor;
+            String saved = marks.getProperty(prefix);
+            if (saved != null) {
+                try {
+                    start = Math.max(start, Long.parseLong(saved.trim()));
+                } catch (NumberFormatException e) {
+                    System.out.println("Error: Bad ID mark for " + prefix + " in " + idFile + ": " + saved);
+                }
+            }
+            marks.setProperty(prefix, String.valueOf(start + size));
+            writeMarks(channel, marks);
+            return start;
+        }
+    }
+
+    /**
+     * Raise every mark in the ID file that is not above the highest ID seen in
+     * loaded data (a lost or old file). Marks are never lowered, since other
+     * programs may hold blocks below them. Returns how many were raised.
+     */
+    @SuppressWarnings("try")
+    public static int repairIdFile() throws IOException {
+        synchronized (FILE_LOCK) {
+            File file = new File(idFile);
+            File dir = file.getAbsoluteFile().getParentFile();
+            if (dir != null && !dir.exists()) {
+                dir.mkdirs();
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                 FileChannel channel = raf.getChannel();
+                 FileLock lock = channel.lock()) {
+                Properties marks = readMarks(channel);
+                int raised = 0;
+                for (Sequence sequence : BY_PREFIX) {
+                    long needed = sequence.seen.get() + 1;
+                    long saved = -1;
+                    try {
+                        saved = Long.parseLong(marks.getProperty(sequence.prefix, "-1").trim());
+                    } catch (NumberFormatException e) {
+                        // bad mark, replaced below
+                    }
+                    boolean used = saved >= 0 || sequence.seen.get() > sequence.initial;
+                    if (used && saved < needed) {
+                        marks.setProperty(sequence.prefix, String.valueOf(needed));
+                        raised++;
+                    }
+                }
+                if (raised > 0) {
+                    writeMarks(channel, marks);
+                }
+                return raised;
+            }
+        }
+    }
+
+    private static Properties readMarks(FileChannel channel) throws IOException {
+        byte[] bytes = new byte[(int) channel.size()];
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        while (in.hasRemaining() && channel.read(in, in.position()) >= 0) {
+            // keep reading until the buffer is full
+        }
+        Properties marks = new Properties();
+        marks.load(new ByteArrayInputStream(bytes));
+        return marks;
+    }
+
+    // Written by hand in a fixed order so the file is easy to read
+    private static void writeMarks(FileChannel channel, Properties marks) throws IOException {
+        StringBuilder sb = new StringBuilder("# Next free ID number per prefix - managed by IdGenerator\n");
+        for (Sequence sequence : BY_PREFIX) {
+            String value = marks.getProperty(sequence.prefix);
+            if (value != null) {
+                sb.append(sequence.prefix).append('=').append(value).append('\n');
+            }
+        }
+        channel.truncate(0);
+        channel.write(ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.ISO_8859_1)), 0);
+        channel.force(true);
     }
 }
@@ -0,0 +1,272 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+
+/**
+ * Just enough JSON for the server: a streaming writer for responses and a
+ * reader for flat request bodies like {"patientId": "PAT1001", "time": "09:00 AM"}.
+ */
+public class Json {
+
+    /**
+     * Writes JSON straight to a Writer, one value at a time, so large lists
+     * never have to be built in memory. Commas are added automatically.
+     */
+    public static class Out {
+        private final Writer out;
+        private boolean[] first = new boolean[16];
+        private int depth = 0;
+        private boolean afterName = false;
+
+        public Out(Writer out) {
+            this.out = out;
+        }
+
+        public Out beginObject() throws IOException {
+            separator();
+            out.write('{');
+            push();
+            return this;
+        }
+
+        public Out endObject() throws IOException {
+            depth--;
+            out.write('}');
+            return this;
+        }
+
+        public Out beginArray() throws IOException {
+            separator();
+            out.write('[');
+            push();
+            return this;
+        }
+
+        public Out endArray() throws IOException {
+            depth--;
+            out.write(']');
+            return this;
+        }
+
+        public Out name(String name) throws IOException {
+            separator();
+            writeString(out, name);
+            out.write(':');
+            afterName = true;
+            return this;
+        }
+
+        public Out value(String value) throws IOException {
+            separator();
+            if (value == null) {
+                out.write("null");
+            } else {
+                writeString(out, value);
+            }
+            return this;
+        }
+
+        public Out value(long value) throws IOException {
+            separator();
+            out.write(Long.toString(value));
+            return this;
+        }
+
+        public Out value(double value) throws IOException {
+            separator();
+            out.write(Double.isFinite(value) ? Double.toString(value) : "null");
+            return this;
+        }
+
+        public Out value(boolean value) throws IOException {
+            separator();
+            out.write(value ? "true" : "false");
+            return this;
+        }
+
+        public Out field(String name, String value) throws IOException {
+            return name(name).value(value);
+        }
+
+        public Out field(String name, long value) throws IOException {
+            return name(name).value(value);
+        }
+
+        public Out field(String name, double value) throws IOException {
+            return name(name).value(value);
+        }
+
+        public Out field(String name, boolean value) throws IOException {
+            return name(name).value(value);
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        private void push() {
+            depth++;
+            if (depth == first.length) {
+                first = java.util.Arrays.copyOf(first, depth * 2);
+            }
+            first[depth] = true;
+        }
+
+        private void separator() throws IOException {
+            if (afterName) {
+                afterName = false;
+                return;
+            }
+            if (depth > 0) {
+                if (!first[depth]) {
+                    out.write(',');
+                }
+                first[depth] = false;
+            }
+        }
+    }
+
+    public static String quote(String value) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeString(sb, value);
+        } catch (IOException e) {
+            // StringBuilder doesn't throw
+        }
+        return sb.toString();
+    }
+
+    private static void writeString(Appendable out, String value) throws IOException {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Read a flat JSON object. Strings, numbers, true/false and null are
+     * returned as strings (null as Java null). Nested values are rejected.
+     * Throws IllegalArgumentException if the text isn't such an object.
+     */
+    public static HashMap<String, String> parseObject(String text) {
+        Reader reader = new Reader(text == null ? "" : text);
+        HashMap<String, String> result = new HashMap<>();
+        reader.skipSpace();
+        reader.expect('{');
+        reader.skipSpace();
+        if (reader.peek() == '}') {
+            reader.pos++;
+        } else {
+            while (true) {
+                reader.skipSpace();
+                String name = reader.readString();
+                reader.skipSpace();
+                reader.expect(':');
+                reader.skipSpace();
+                result.put(name, reader.readScalar());
+                reader.skipSpace();
+                char c = reader.next();
+                if (c == '}') break;
+                if (c != ',') throw reader.error("Expected ',' or '}'");
+            }
+        }
+        reader.skipSpace();
+        if (reader.pos < reader.text.length()) {
+            throw reader.error("Unexpected text after the object");
+        }
+        return result;
+    }
+
+    private static class Reader {
+        final String text;
+        int pos = 0;
+
+        Reader(String text) {
+            this.text = text;
+        }
+
+        char peek() {
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+
+        char next() {
+            if (pos >= text.length()) throw error("Unexpected end of JSON");
+            return text.charAt(pos++);
+        }
+
+        void expect(char c) {
+            if (next() != c) throw error("Expected '" + c + "'");
+        }
+
+        void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = next();
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) throw error("Bad \\u escape");
+                        try {
+                            sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("Bad \\u escape");
+                        }
+                        pos += 4;
+                        break;
+                    default: sb.append(e);
+                }
+            }
+        }
+
+        String readScalar() {
+            char c = peek();
+            if (c == '"') return readString();
+            if (c == '{' || c == '[') throw error("Nested values are not supported");
+            int start = pos;
+            while (pos < text.length() && ",} \t\r\n".indexOf(text.charAt(pos)) < 0) pos++;
+            String word = text.substring(start, pos);
+            if (word.isEmpty()) throw error("Missing value");
+            if (word.equals("null")) return null;
+            if (word.equals("true") || word.equals("false")) return word;
+            try {
+                Double.parseDouble(word);
+            } catch (NumberFormatException e) {
+                throw error("Bad value '" + word + "'");
+            }
+            return word;
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+import javax.swing.JComboBox;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+
+/**
+ * A combo box over a long entity list (every appointment, every invoice) that
+ * opens at once whatever the size of the list.
+ *
+ * The list is not copied but read by index, so it must not change while the
+ * combo shows it; a clinic snapshot list never does. Only the first
+ * MAX_SHOWN matches are offered, and an item's text is only made when the
+ * popup draws it. Typing in the combo narrows the matches down; the search
+ * stops as soon as it has MAX_SHOWN of them. Ask for the chosen entity with
+ * getSelectedEntity(), not by index.
+ *
+ * Like any Swing model, use it on the EDT only.
+ */
+public class LazyComboBoxModel<T> extends AbstractListModel<String> implements ComboBoxModel<String> {
+    public static final int MAX_SHOWN = 200;
+
+    private final List<T> items;
+    private final Function<T, String> label;
+    private final Function<T, String> searchText;
+    private final int[] shown = new int[MAX_SHOWN]; // indexes into items
+    private final String[] shownLabels = new String[MAX_SHOWN]; // made when first drawn
+    private int shownCount;
+    private String filter = "";
+    private T selected;
+    private String selectedText;
+
+    // label is what the combo shows; typing matches it too
+    public LazyComboBoxModel(List<T> items, Function<T, String> label) {
+        this(items, label, label);
+    }
+
+    /**
+     * searchText is what typing is matched against, for when the label is
+     * expensive to make (dates) and a cheaper text finds the same items.
+     */
+    public LazyComboBoxModel(List<T> items, Function<T, String> label, Function<T, String> searchText) {
+        this.items = items;
+        this.label = label;
+        this.searchText = searchText;
+        shownCount = Math.min(items.size(), MAX_SHOWN);
+        for (int i = 0; i < shownCount; i++) {
+            shown[i] = i;
+        }
+        if (shownCount > 0) {
+            selected = items.get(0);
+            selectedText = labelAt(0);
+        }
+    }
+
+    /**
+     * An editable combo on this model: typing filters the items. The
+     * prototype keeps Swing from measuring every item to size the combo.
+     */
+    public JComboBox<String> createComboBox() {
+        JComboBox<String> combo = new JComboBox<>(this);
+        combo.setPrototypeDisplayValue(shownCount > 0 ? labelAt(0) : "");
+        combo.setEditable(true);
+        JTextComponent editor = (JTextComponent) combo.getEditor().getEditorComponent();
+        editor.getDocument().addDocumentListener(new DocumentListener() {
+            public void changedUpdate(DocumentEvent e) { typed(); }
+            public void removeUpdate(DocumentEvent e) { typed(); }
+            public void insertUpdate(DocumentEvent e) { typed(); }
+
+            private void typed() {
+                // Not from inside the document event: the combo writes the editor back
+                SwingUtilities.invokeLater(() -> {
+                    String text = editor.getText();
+                    if (text.equals(selectedText) || text.equals(filter)) {
+                        return; // an item was picked, or nothing new
+                    }
+                    setFilter(text);
+                    if (combo.isShowing()) {
+                        combo.showPopup();
+                    }
+                });
+            }
+        });
+        return combo;
+    }
+
+    /**
+     * Offer only the items whose text contains this (ignoring case), the first
+     * MAX_SHOWN of them.
+     */
+    public void setFilter(String text) {
+        filter = text;
+        String wanted = text.trim().toLowerCase(Locale.ROOT);
+        int before = shownCount;
+        shownCount = 0;
+        for (int i = 0; i < items.size() && shownCount < MAX_SHOWN; i++) {
+            if (wanted.isEmpty() || searchText.apply(items.get(i)).toLowerCase(Locale.ROOT).contains(wanted)) {
+                shownLabels[shownCount] = null;
+                shown[shownCount++] = i;
+            }
+        }
+        if (before > 0) {
+            fireIntervalRemoved(this, 0, before - 1);
+        }
+        if (shownCount > 0) {
+            fireIntervalAdded(this, 0, shownCount - 1);
+        }
+    }
+
+    /**
+     * The chosen entity. If nothing was picked but the typed text leaves
+     * exactly one item, that one; otherwise null.
+     */
+    public T getSelectedEntity() {
+        if (selected != null) {
+            return selected;
+        }
+        return shownCount == 1 ? items.get(shown[0]) : null;
+    }
+
+    @Override
+    public int getSize() {
+        return shownCount;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return labelAt(index);
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return selectedText;
+    }
+
+    // The combo passes an item's text, or what was typed
+    @Override
+    public void setSelectedItem(Object item) {
+        String text = item != null ? item.toString() : null;
+        if (text == null ? selectedText == null : text.equals(selectedText)) {
+            return;
+        }
+        selected = null;
+        for (int i = 0; i < shownCount && text != null; i++) {
+            if (text.equals(labelAt(i))) {
+                selected = items.get(shown[i]);
+                break;
+            }
+        }
+        selectedText = text;
+        fireContentsChanged(this, -1, -1);
+    }
+
+    private String labelAt(int index) {
+        if (shownLabels[index] == null) {
+            shownLabels[index] = label.apply(items.get(shown[index]));
+        }
+        return shownLabels[index];
+    }
+}
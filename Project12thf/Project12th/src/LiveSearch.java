@@ -0,0 +1,155 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.swing.AbstractButton;
+import javax.swing.JComboBox;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+
+/**
+ * Live search for an entity table: filters and sorts a clinic list off the EDT.
+ *
+ * Typing restarts a short timer, so a query only runs once the user pauses.
+ * The query (search text, sort order) is read from the widgets on the EDT,
+ * the work runs through UiTasks, and a new query cancels the one still
+ * running. A result is only shown if no newer query was started after it.
+ * A single added, edited or removed entity is shown with patch(), which
+ * touches one row instead of searching again.
+ */
+public class LiveSearch<T> {
+    public static final int TYPING_DELAY_MS = 200;
+
+    // What to show, taken from the widgets when the query starts
+    public static class Query<T> {
+        final Predicate<T> filter;
+        final Comparator<T> order;
+
+        public Query(Predicate<T> filter, Comparator<T> order) {
+            this.filter = filter;
+            this.order = order;
+        }
+    }
+
+    private final UiTasks tasks;
+    private final String key;
+    private final String label;
+    private final EntityTableModel<T> model;
+    private final Supplier<List<T>> source;
+    private final Supplier<Query<T>> query;
+    private final Timer timer;
+    // EDT only
+    private long generation;
+    private long finished; // the last generation whose rows were shown, or whose search failed
+    private Future<?> running; // the search of the latest generation
+
+    public LiveSearch(UiTasks tasks, String label, EntityTableModel<T> model,
+                      Supplier<List<T>> source, Supplier<Query<T>> query) {
+        this.tasks = tasks;
+        this.key = "search:" + label;
+        this.label = label;
+        this.model = model;
+        this.source = source;
+        this.query = query;
+        this.timer = new Timer(TYPING_DELAY_MS, e -> runNow());
+        this.timer.setRepeats(false);
+    }
+
+    // Search a little after the text stops changing
+    public LiveSearch<T> listenTo(JTextComponent field) {
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            public void changedUpdate(DocumentEvent e) { schedule(); }
+            public void removeUpdate(DocumentEvent e) { schedule(); }
+            public void insertUpdate(DocumentEvent e) { schedule(); }
+        });
+        return this;
+    }
+
+    // Sort options apply straight away
+    public LiveSearch<T> listenTo(JComboBox<?> combo) {
+        combo.addActionListener(e -> runNow());
+        return this;
+    }
+
+    public LiveSearch<T> listenTo(AbstractButton button) {
+        button.addActionListener(e -> runNow());
+        return this;
+    }
+
+    public void schedule() {
+        timer.restart();
+    }
+
+    public void runNow() {
+        timer.stop();
+        long mine = ++generation;
+        Query<T> current = query.get();
+        running = tasks.runLatest(key, "Searching " + label, () -> search(current), rows -> {
+            if (mine == generation) {
+                finished = mine;
+                model.setRows(rows);
+            }
+        }, ex -> {
+            if (mine == generation) {
+                finished = mine;
+            }
+            System.out.println("Error searching " + label + ": " + ex.getMessage());
+        });
+    }
+
+    // The latest search hasn't shown its rows yet. One cancelled from elsewhere
+    // (e.g. UiTasks.cancelAll()) never will, so it doesn't count.
+    private boolean searching() {
+        return finished != generation && running != null && !running.isCancelled();
+    }
+
+    /**
+     * Show one change without searching again. A removed entity loses its
+     * row; a new or edited one is shown if it matches the search (a new one
+     * where it belongs in the current order) and hidden if it no longer does.
+     * An edited row stays where it is, even if its sort key changed.
+     */
+    public void patch(ClinicEvent.Change change, String id, T item) {
+        if (searching()) {
+            runNow(); // the search under way may have missed this change
+            return;
+        }
+        Query<T> current = query.get();
+        if (change == ClinicEvent.Change.REMOVED || item == null || !current.filter.test(item)) {
+            model.remove(id);
+            return;
+        }
+        if (model.update(item)) {
+            return;
+        }
+        int low = 0;
+        int high = model.getRowCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (current.order.compare(model.getRow(mid), item) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        model.insert(low, item);
+    }
+
+    private ArrayList<T> search(Query<T> current) {
+        ArrayList<T> matches = new ArrayList<>();
+        int checked = 0;
+        for (T item : source.get()) {
+            if (++checked % 5000 == 0) UiTasks.checkCancelled();
+            if (current.filter.test(item)) {
+                matches.add(item);
+            }
+        }
+        UiTasks.checkCancelled();
+        matches.sort(current.order);
+        return matches;
+    }
+}
@@ -0,0 +1,230 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * A table over a very long list (every appointment, every invoice) that only
+ * formats the rows someone is looking at.
+ *
+ * The list is not copied but read by index, so it must not change while the
+ * model shows it; a clinic snapshot list never does. When the table draws a
+ * row whose page isn't ready, that page is formatted in the background, and
+ * the pages either side of it too, so scrolling finds them ready. Only the
+ * most recently used pages are kept, however long the list is. Until its
+ * page arrives a row shows empty cells. A newer snapshot of the same list
+ * with rows added at the end, or with one entity changed, is shown with
+ * changed(), which keeps the formatted pages.
+ *
+ * Column functions run on a background thread: they must not share a
+ * SimpleDateFormat or touch Swing. Everything else is EDT only.
+ */
+public class PagedTableModel<T> extends AbstractTableModel {
+    public static final int PAGE_SIZE = 128;
+    public static final int MAX_PAGES = 32; // at most about 4000 formatted rows
+
+    private final UiTasks tasks;
+    private final String label;
+    private final Function<T, String> idOf;
+    private final ArrayList<String> columnNames = new ArrayList<>();
+    private final ArrayList<Function<T, Object>> columns = new ArrayList<>();
+    private List<T> rows = Collections.emptyList();
+    private long generation; // goes up with setRows(), so pages of the old list are dropped
+
+    private final LinkedHashMap<Integer, Object[][]> pages = new LinkedHashMap<Integer, Object[][]>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+    private final ArrayDeque<Integer> wanted = new ArrayDeque<>(); // most recently drawn first
+    private final HashSet<Integer> pending = new HashSet<>();      // wanted or being formatted
+    private Future<?> loading;
+    private int loadingPage;
+
+    public PagedTableModel(UiTasks tasks, String label, Function<T, String> idOf) {
+        this.tasks = tasks;
+        this.label = label;
+        this.idOf = idOf;
+    }
+
+    public PagedTableModel<T> column(String name, Function<T, Object> value) {
+        columnNames.add(name);
+        columns.add(value);
+        return this;
+    }
+
+    /**
+     * Show this list. Also call it with the same list to drop formatted rows
+     * after the entities changed.
+     */
+    public void setRows(List<T> list) {
+        rows = list;
+        generation++;
+        pages.clear();
+        wanted.clear();
+        pending.clear();
+        if (loading != null) {
+            loading.cancel(true);
+            loading = null;
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * Show list, a newer snapshot of the one shown: the same rows, maybe with
+     * more at the end. Then, if id isn't null, format that entity's row again.
+     * Only the new rows and that one are reported, so the table keeps its
+     * selection and scroll position. A shorter list is shown with setRows().
+     */
+    public void changed(List<T> list, String id) {
+        if (list.size() < rows.size()) {
+            setRows(list);
+            return;
+        }
+        int before = rows.size();
+        rows = list;
+        if (list.size() > before) {
+            // The last page was cut short at the old end; format it again
+            int last = (before - 1) / PAGE_SIZE;
+            if (before % PAGE_SIZE != 0) {
+                pages.remove(last);
+            }
+            fireTableRowsInserted(before, list.size() - 1);
+        }
+        if (id == null) {
+            return;
+        }
+        // A row on a page that isn't formatted shows the new values when it is,
+        // so only the kept pages are searched: at most MAX_PAGES * PAGE_SIZE rows
+        for (Map.Entry<Integer, Object[][]> entry : pages.entrySet()) {
+            int first = entry.getKey() * PAGE_SIZE;
+            Object[][] cells = entry.getValue();
+            for (int offset = 0; offset < cells.length; offset++) {
+                T item = list.get(first + offset);
+                if (id.equals(idOf.apply(item))) {
+                    // One row; quick enough for the EDT
+                    for (int c = 0; c < columns.size(); c++) {
+                        cells[offset][c] = columns.get(c).apply(item);
+                    }
+                    fireTableRowsUpdated(first + offset, first + offset);
+                    return;
+                }
+            }
+        }
+    }
+
+    public T getRow(int row) {
+        return rows.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames.get(column);
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int page = row / PAGE_SIZE;
+        // Neighbours first, so the page being drawn ends up at the front
+        want(page - 1);
+        want(page + 1);
+        want(page);
+        Object[][] cells = pages.get(page);
+        int offset = row - page * PAGE_SIZE;
+        return cells != null && offset < cells.length ? cells[offset][column] : null;
+    }
+
+    private void want(int page) {
+        if (page < 0 || page * PAGE_SIZE >= rows.size() || pages.containsKey(page)) {
+            return;
+        }
+        if (pending.contains(page)) {
+            if (!wanted.remove(page)) {
+                return; // being formatted right now
+            }
+        } else {
+            pending.add(page);
+        }
+        wanted.addFirst(page);
+        // Pages scrolled past long ago aren't worth formatting any more
+        while (wanted.size() > MAX_PAGES / 2) {
+            pending.remove(wanted.removeLast());
+        }
+        loadNext();
+    }
+
+    private void loadNext() {
+        if (loading != null) {
+            if (!loading.isCancelled()) {
+                return; // its callback starts the next one
+            }
+            pending.remove(loadingPage); // cancelled from the status bar
+            loading = null;
+        }
+        if (wanted.isEmpty()) {
+            return;
+        }
+        int page = wanted.removeFirst();
+        long mine = generation;
+        List<T> source = rows;
+        loadingPage = page;
+        loading = tasks.run("Loading " + label, () -> format(source, page), cells -> {
+            if (mine != generation) {
+                return; // finished just as setRows() replaced the list
+            }
+            loading = null;
+            pending.remove(page);
+            if (cells.length < Math.min(PAGE_SIZE, rows.size() - page * PAGE_SIZE)) {
+                want(page); // rows were added to this page while it was formatted
+                return;
+            }
+            pages.put(page, cells);
+            fireTableRowsUpdated(page * PAGE_SIZE, page * PAGE_SIZE + cells.length - 1);
+            loadNext();
+        }, ex -> {
+            if (mine != generation) {
+                return;
+            }
+            loading = null;
+            pending.remove(page);
+            System.out.println("Error loading " + label + ": " + ex.getMessage());
+        });
+    }
+
+    private Object[][] format(List<T> source, int page) {
+        int first = page * PAGE_SIZE;
+        int end = Math.min(source.size(), first + PAGE_SIZE);
+        Object[][] cells = new Object[end - first][];
+        for (int i = first; i < end; i++) {
+            T item = source.get(i);
+            Object[] row = new Object[columns.size()];
+            for (int c = 0; c < row.length; c++) {
+                row[c] = columns.get(c).apply(item);
+            }
+            cells[i - first] = row;
+        }
+        return cells;
+    }
+}
@@ -65,6 +65,16 @@ public class Patient extends Person {
         return contactInfo;
     }
 
+    // Take what an edit can change from another copy of this patient (one sent by a primary)
+    void copyEditsFrom(Patient other) {
+        copyContactFrom(other);
+        this.age = other.age;
+        this.gender = other.gender;
+        this.bloodType = other.bloodType;
+        this.contactInfo = other.contactInfo;
+        this.MedicalRecords = new ArrayList<>(other.MedicalRecords);
+    }
+
     public void updateContactInfo(String newcontactInfo) {
         this.contactInfo = newcontactInfo;
         System.out.println("You have updated your contactInfo sucessfuly!!");
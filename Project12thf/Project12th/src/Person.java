@@ -43,6 +43,12 @@ public abstract class Person implements Serializable {
     public void setPhone(String phone) {
         this.phone = phone;
     }
+    // Name and contact details of another copy of this person (a replicated one)
+    protected void copyContactFrom(Person other) {
+        this.name = other.name;
+        this.address = other.address;
+        this.phone = other.phone;
+    }
     public void updateInfo(String id, String name, String address, String phone) {
         setId(id);
         setName(name);
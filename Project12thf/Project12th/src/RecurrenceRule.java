@@ -0,0 +1,111 @@
+import java.util.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.io.Serializable;
+
+/**
+ * How a series of appointments repeats: every N days from a first
+ * date and time, ending on a date, after a number of visits, or never.
+ * Only the rule is stored - occurrence dates are worked out when asked for.
+ */
+public class RecurrenceRule implements Serializable {
+    private Date start;
+    private int intervalDays;
+    private Date until; // last day (inclusive), or null
+    private int count;  // number of occurrences, or 0 for no limit
+
+    public RecurrenceRule(Date start, int intervalDays, Date until, int count) {
+        this.start = start;
+        this.intervalDays = Math.max(1, intervalDays);
+        this.until = until;
+        this.count = Math.max(0, count);
+    }
+
+    public static RecurrenceRule weekly(Date start, Date until, int count) {
+        return new RecurrenceRule(start, 7, until, count);
+    }
+
+    public static RecurrenceRule everyNDays(Date start, int days, Date until, int count) {
+        return new RecurrenceRule(start, days, until, count);
+    }
+
+    public Date getStart() {
+        return start;
+    }
+
+    public int getIntervalDays() {
+        return intervalDays;
+    }
+
+    public Date getUntil() {
+        return until;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    // Date and time of the given occurrence (0 = the first one)
+    public Date occurrence(int index) {
+        LocalDateTime first = toLocal(start);
+        return Date.from(first.plusDays((long) index * intervalDays).atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    // Index of the last occurrence, or Integer.MAX_VALUE if the series never ends
+    public int lastIndex() {
+        int last = Integer.MAX_VALUE;
+        if (count > 0) {
+            last = count - 1;
+        }
+        if (until != null) {
+            long days = ChronoUnit.DAYS.between(toLocal(start).toLocalDate(), toLocal(until).toLocalDate());
+            if (days < 0) {
+                return -1;
+            }
+            last = (int) Math.min(last, days / intervalDays);
+        }
+        return last;
+    }
+
+    // Index of the first occurrence falling on or after the given day
+    public int firstIndexOnOrAfter(LocalDate day) {
+        long days = ChronoUnit.DAYS.between(toLocal(start).toLocalDate(), day);
+        if (days <= 0) {
+            return 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (days + intervalDays - 1) / intervalDays);
+    }
+
+    // Index of the occurrence at exactly this date and time, or -1 if it isn't one
+    public int indexOf(Date when) {
+        LocalDateTime first = toLocal(start);
+        LocalDateTime target = toLocal(when);
+        if (!first.toLocalTime().equals(target.toLocalTime())) {
+            return -1;
+        }
+        long days = ChronoUnit.DAYS.between(first.toLocalDate(), target.toLocalDate());
+        if (days < 0 || days % intervalDays != 0) {
+            return -1;
+        }
+        long index = days / intervalDays;
+        return index > lastIndex() ? -1 : (int) index;
+    }
+
+    static LocalDateTime toLocal(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+    public String getRuleDetails() {
+        String every = intervalDays == 7 ? "Weekly" : intervalDays % 7 == 0 ? "Every " + (intervalDays / 7) + " weeks" : "Every " + intervalDays + " days";
+        String end = "";
+        if (count > 0) {
+            end += ", " + count + " visits";
+        }
+        if (until != null) {
+            end += ", until " + new java.text.SimpleDateFormat("dd/MM/yyyy").format(until);
+        }
+        return every + end;
+    }
+}
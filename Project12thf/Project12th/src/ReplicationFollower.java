@@ -0,0 +1,213 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Keeps this process's clinics in step with a ReplicationPrimary.
+ *
+ * Changes are applied to the clinics in memory as they arrive, so when the
+ * primary goes away this process already has everything and can take over
+ * straight away - nothing is read from disk. If the connection drops it keeps
+ * trying, and picks up from a fresh snapshot when it gets back in.
+ *
+ * Only a primary that holds the same admin token is followed, and only
+ * clinic classes are read from the stream (see ClinicStreamFilter).
+ */
+public class ReplicationFollower {
+    private static final long RETRY_MILLIS = 1000;
+    private static final int HANDSHAKE_MILLIS = 5000;
+
+    private final int port;
+    private final List<Clinic> clinics;
+    private final Consumer<Clinic> onNewClinic;
+    private final ConcurrentHashMap<String, Clinic> byId = new ConcurrentHashMap<>();
+    private final CountDownLatch firstSync = new CountDownLatch(1);
+    private final AtomicLong applied = new AtomicLong();
+
+    private Thread thread;
+    private volatile Socket socket;
+    private volatile boolean running = false;
+    private volatile boolean connected = false;
+    private volatile long primaryTime = 0; // newest primary time reflected here
+
+    /**
+     * clinics is updated in place; onNewClinic is told about clinics the
+     * primary has that this process didn't have yet.
+     */
+    public ReplicationFollower(int port, List<Clinic> clinics, Consumer<Clinic> onNewClinic) {
+        this.port = port;
+        this.clinics = clinics;
+        this.onNewClinic = onNewClinic;
+        synchronized (clinics) {
+            for (Clinic clinic : clinics) {
+                byId.put(clinic.getClinicId(), clinic);
+            }
+        }
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this::runLoop, "replication-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Wait until the first snapshot has been applied
+    public boolean awaitSync(long timeoutMillis) {
+        try {
+            return firstSync.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * How far behind the primary this copy is, in milliseconds: the time since
+     * the newest change (or heartbeat) applied here was made on the primary.
+     * -1 before the first snapshot.
+     */
+    public long getLagMillis() {
+        if (primaryTime == 0) {
+            return -1;
+        }
+        return Math.max(0, System.currentTimeMillis() - primaryTime);
+    }
+
+    // Changes applied since start
+    public long getAppliedCount() {
+        return applied.get();
+    }
+
+    // Stop following; the clinics keep what they have
+    public void stop() {
+        running = false;
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+        if (thread != null && Thread.currentThread() != thread) {
+            thread.interrupt(); // it may be waiting to retry
+            try {
+                thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void runLoop() {
+        boolean reported = false;
+        while (running) {
+            try (Socket s = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                socket = s;
+                BufferedInputStream buffered = new BufferedInputStream(s.getInputStream());
+                handshake(s, buffered);
+                connected = true;
+                reported = false;
+                ObjectInputStream in = new ObjectInputStream(buffered);
+                in.setObjectInputFilter(ClinicStreamFilter.CLINIC_DATA);
+                while (running) {
+                    apply((ReplicationRecord) in.readObject());
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                if (running && !reported) {
+                    if (connected) {
+                        System.out.println("Error: Lost connection to primary on port " + port + " (retrying)");
+                    } else {
+                        System.out.println("Error: Cannot reach primary on port " + port + ": " + e.getMessage() + " (retrying)");
+                    }
+                    reported = true;
+                }
+            } finally {
+                connected = false;
+                socket = null;
+            }
+            if (running) {
+                try {
+                    Thread.sleep(RETRY_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Answer the primary's challenge, then check its answer to ours
+    private void handshake(Socket s, BufferedInputStream buffered) throws IOException {
+        s.setSoTimeout(HANDSHAKE_MILLIS);
+        DataInputStream in = new DataInputStream(buffered);
+        DataOutputStream out = new DataOutputStream(s.getOutputStream());
+        String primaryChallenge = in.readUTF();
+        String challenge = AccessTokens.challenge();
+        out.writeUTF(AccessTokens.answer(primaryChallenge));
+        out.writeUTF(challenge);
+        out.flush();
+        String answer;
+        try {
+            answer = in.readUTF();
+        } catch (EOFException e) {
+            throw new IOException("the primary refused our admin token");
+        }
+        if (!AccessTokens.isAnswer(challenge, answer)) {
+            throw new IOException("it does not hold our admin token");
+        }
+        s.setSoTimeout(0);
+    }
+
+    private void apply(ReplicationRecord record) {
+        switch (record.getKind()) {
+            case SNAPSHOT:
+                for (Clinic copy : record.getClinics()) {
+                    copy.setLastChange(record.getTimestamp());
+                    Clinic clinic = byId.get(copy.getClinicId());
+                    if (clinic != null) {
+                        clinic.replaceWith(copy);
+                    } else {
+                        synchronized (clinics) {
+                            clinics.add(copy);
+                        }
+                        byId.put(copy.getClinicId(), copy);
+                        onNewClinic.accept(copy);
+                    }
+                }
+                System.out.println("In sync with primary (" + record.getClinics().size() + " clinics)");
+                firstSync.countDown();
+                break;
+            case CHANGE:
+                ClinicEvent event = record.getEvent();
+                Clinic clinic = byId.get(event.getClinicId());
+                if (clinic == null) {
+                    System.out.println("Error: Change for unknown clinic " + event);
+                } else {
+                    clinic.applyReplicated(event);
+                    applied.incrementAndGet();
+                }
+                break;
+            default:
+                break;
+        }
+        // Changes queued before the snapshot arrive after it; they don't make us older
+        primaryTime = Math.max(primaryTime, record.getTimestamp());
+    }
+}
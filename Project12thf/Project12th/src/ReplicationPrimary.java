@@ -0,0 +1,213 @@
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams every change of this process's clinics to follower processes, so a
+ * follower keeps a warm copy in memory and can take over in seconds.
+ *
+ * A follower that connects first gets a snapshot of all clinics, then every
+ * clinic event as it is published, plus a heartbeat each second when nothing
+ * happens. A follower that falls too far behind is disconnected instead of
+ * holding up bookings; it reconnects and starts again from a new snapshot.
+ *
+ * Listens on the loopback interface only - the stream is plain serialized
+ * objects and is meant for a second process on the same machine. Before
+ * anything is sent, each side proves it holds the admin token from data/, so
+ * other local processes get nothing.
+ */
+public class ReplicationPrimary {
+    public static final int MAX_BACKLOG = 10000;
+    private static final long HEARTBEAT_MILLIS = 1000;
+    private static final int HANDSHAKE_MILLIS = 5000;
+
+    private final List<Clinic> clinics;
+    private final int port;
+    private final CopyOnWriteArrayList<Link> links = new CopyOnWriteArrayList<>();
+    private ServerSocket serverSocket;
+    private volatile boolean running = false;
+
+    // One connected follower
+    private class Link {
+        private final Socket socket;
+        private final BlockingQueue<ReplicationRecord> queue = new ArrayBlockingQueue<>(MAX_BACKLOG);
+        private final ArrayList<EventBus.Subscription> subscriptions = new ArrayList<>();
+        private volatile boolean closed = false;
+
+        Link(Socket socket) {
+            this.socket = socket;
+        }
+
+        void start() {
+            Thread sender = new Thread(this::run, "replication-" + socket.getPort());
+            sender.setDaemon(true);
+            sender.start();
+        }
+
+        // Each side answers the other's challenge with the admin token
+        private boolean handshake() throws IOException {
+            socket.setSoTimeout(HANDSHAKE_MILLIS);
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            String challenge = AccessTokens.challenge();
+            out.writeUTF(challenge);
+            out.flush();
+            String answer = in.readUTF();
+            String followerChallenge = in.readUTF();
+            if (!AccessTokens.isAnswer(challenge, answer)) {
+                System.out.println("Error: Refused follower " + socket.getRemoteSocketAddress() + ": it does not hold the admin token");
+                return false;
+            }
+            out.writeUTF(AccessTokens.answer(followerChallenge));
+            out.flush();
+            socket.setSoTimeout(0);
+            return true;
+        }
+
+        void enqueue(ClinicEvent event) {
+            if (!closed && !queue.offer(ReplicationRecord.change(event))) {
+                System.out.println("Error: Follower " + socket.getRemoteSocketAddress() + " fell " + MAX_BACKLOG
+                    + " changes behind and was disconnected; it will resync.");
+                close();
+            }
+        }
+
+        private void run() {
+            boolean trusted;
+            try {
+                trusted = handshake();
+            } catch (IOException e) {
+                System.out.println("Error: Replication handshake with " + socket.getRemoteSocketAddress() + " failed: " + e.getMessage());
+                trusted = false;
+            }
+            if (!trusted) {
+                close();
+                return;
+            }
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                ArrayList<Clinic> current;
+                synchronized (clinics) {
+                    current = new ArrayList<>(clinics);
+                }
+                // Subscribe before the snapshot is taken, so no change falls in between;
+                // changes already in the snapshot are simply applied again
+                for (Clinic clinic : current) {
+                    subscriptions.add(clinic.getEventBus().subscribe("replica-" + socket.getPort(), this::enqueue));
+                }
+                send(out, ReplicationRecord.snapshot(current));
+                System.out.println("Follower " + socket.getRemoteSocketAddress() + " in sync (" + current.size() + " clinics)");
+                while (!closed) {
+                    ReplicationRecord record = queue.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                    send(out, record != null ? record : ReplicationRecord.heartbeat());
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    System.out.println("Follower " + socket.getRemoteSocketAddress() + " disconnected: " + e.getMessage());
+                }
+            } catch (InterruptedException e) {
+                // closed
+            } catch (RuntimeException e) {
+                // A record that could not be written; drop the link so the follower
+                // reconnects and starts again from a fresh snapshot
+                System.out.println("Error: Replication to " + socket.getRemoteSocketAddress() + " failed, follower will resync: " + e);
+                e.printStackTrace();
+            } finally {
+                close();
+            }
+        }
+
+        private void send(ObjectOutputStream out, ReplicationRecord record) throws IOException {
+            out.writeObject(record);
+            // Forget what was sent, so an appointment sent again goes out as it is now
+            out.reset();
+            if (queue.isEmpty()) {
+                out.flush();
+            }
+        }
+
+        void close() {
+            closed = true;
+            links.remove(this);
+            for (EventBus.Subscription subscription : subscriptions) {
+                subscription.close();
+            }
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+    }
+
+    public ReplicationPrimary(List<Clinic> clinics, int port) {
+        this.clinics = clinics;
+        this.port = port;
+    }
+
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(port, 8, InetAddress.getLoopbackAddress());
+        running = true;
+        Thread acceptor = new Thread(this::acceptLoop, "replication-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        System.out.println("Replicating to followers on port " + getPort());
+    }
+
+    public int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : port;
+    }
+
+    public int getFollowerCount() {
+        return links.size();
+    }
+
+    // Changes waiting to be sent to the slowest follower
+    public int getBacklog() {
+        int backlog = 0;
+        for (Link link : links) {
+            backlog = Math.max(backlog, link.queue.size());
+        }
+        return backlog;
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            // already closed
+        }
+        for (Link link : links) {
+            link.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Link link = new Link(socket);
+                links.add(link);
+                link.start();
+            } catch (IOException e) {
+                if (running) {
+                    System.out.println("Error: Replication accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
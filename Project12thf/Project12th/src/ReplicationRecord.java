@@ -0,0 +1,54 @@
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * One message on the replication stream from a primary to a follower.
+ */
+public class ReplicationRecord implements Serializable {
+
+    public enum Kind {
+        SNAPSHOT,  // every clinic, sent once when a follower connects
+        CHANGE,    // one clinic event
+        HEARTBEAT  // nothing changed; lets the follower tell idle from behind
+    }
+
+    private final Kind kind;
+    private final long timestamp; // when the primary made the change
+    private final ArrayList<Clinic> clinics;
+    private final ClinicEvent event;
+
+    private ReplicationRecord(Kind kind, long timestamp, ArrayList<Clinic> clinics, ClinicEvent event) {
+        this.kind = kind;
+        this.timestamp = timestamp;
+        this.clinics = clinics;
+        this.event = event;
+    }
+
+    public static ReplicationRecord snapshot(ArrayList<Clinic> clinics) {
+        return new ReplicationRecord(Kind.SNAPSHOT, System.currentTimeMillis(), clinics, null);
+    }
+
+    public static ReplicationRecord change(ClinicEvent event) {
+        return new ReplicationRecord(Kind.CHANGE, event.getTimestamp(), null, event);
+    }
+
+    public static ReplicationRecord heartbeat() {
+        return new ReplicationRecord(Kind.HEARTBEAT, System.currentTimeMillis(), null, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public ArrayList<Clinic> getClinics() {
+        return clinics;
+    }
+
+    public ClinicEvent getEvent() {
+        return event;
+    }
+}
@@ -0,0 +1,106 @@
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which server process (shard) owns which clinic.
+ *
+ * A clinic belongs to shard hash(clinicId) mod shardCount, unless it has been
+ * moved; moves are kept in data/routing.properties so the router and every
+ * server process agree on them after a restart.
+ */
+public class ShardMap {
+    private static final String ROUTING_FILE = "data/routing.properties";
+
+    private final int shardCount;
+    private final ConcurrentHashMap<String, Integer> moved = new ConcurrentHashMap<>();
+
+    private ShardMap(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * The map for shardCount shards, with the moves saved so far.
+     */
+    public static ShardMap load(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Need at least one shard");
+        }
+        ShardMap map = new ShardMap(shardCount);
+        File file = new File(ROUTING_FILE);
+        if (file.exists()) {
+            Properties saved = new Properties();
+            try (InputStream in = new FileInputStream(file)) {
+                saved.load(in);
+            } catch (IOException e) {
+                System.out.println("Error loading " + ROUTING_FILE + ": " + e.getMessage());
+            }
+            for (String clinicId : saved.stringPropertyNames()) {
+                try {
+                    int shard = Integer.parseInt(saved.getProperty(clinicId).trim());
+                    if (shard >= 0 && shard < shardCount) {
+                        map.moved.put(clinicId, shard);
+                    }
+                } catch (NumberFormatException e) {
+                    System.out.println("Error: Bad shard for " + clinicId + " in " + ROUTING_FILE);
+                }
+            }
+        }
+        return map;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int ownerOf(String clinicId) {
+        Integer shard = moved.get(clinicId);
+        return shard != null ? shard : Math.floorMod(clinicId.hashCode(), shardCount);
+    }
+
+    /**
+     * Record that clinicId now lives on shard, and save the moves.
+     */
+    public synchronized boolean move(String clinicId, int shard) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("No shard " + shard);
+        }
+        if (shard == Math.floorMod(clinicId.hashCode(), shardCount)) {
+            moved.remove(clinicId); // back home
+        } else {
+            moved.put(clinicId, shard);
+        }
+        return save();
+    }
+
+    private boolean save() {
+        Properties saved = new Properties();
+        for (Map.Entry<String, Integer> entry : moved.entrySet()) {
+            saved.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        FileManager.initializeDataFolder();
+        File target = new File(ROUTING_FILE);
+        File temp = new File(ROUTING_FILE + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            saved.store(out, "Clinics moved away from their hash shard");
+        } catch (IOException e) {
+            System.out.println("Error saving " + ROUTING_FILE + ": " + e.getMessage());
+            return false;
+        }
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error saving " + ROUTING_FILE + ": " + e.getMessage());
+            return false;
+        }
+    }
+}
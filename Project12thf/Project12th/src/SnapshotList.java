@@ -0,0 +1,117 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An immutable list that is cheap to "change": with() and without() return a
+ * new list and leave this one as it was, so a reader holding a list never sees
+ * it move under them.
+ *
+ * Elements live in fixed-size segments. Appending to the newest version writes
+ * into free room of the shared segments instead of copying, because older
+ * versions only ever look at the indices below their own size. Appending to an
+ * older version, or removing, copies.
+ */
+public final class SnapshotList<T> extends AbstractList<T> implements RandomAccess {
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS; // 64
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    // Segments shared by every version built by appending to the previous one
+    private static final class Storage {
+        volatile Object[][] segments;
+        final AtomicInteger used = new AtomicInteger(); // size of the longest version
+
+        Storage(int spine) {
+            segments = new Object[Math.max(1, spine)][];
+        }
+    }
+
+    private final Storage storage;
+    private final int size;
+
+    private SnapshotList(Storage storage, int size) {
+        this.storage = storage;
+        this.size = size;
+    }
+
+    // Each empty list gets its own storage, so lists grown from it don't share
+    public static <T> SnapshotList<T> empty() {
+        return new SnapshotList<>(new Storage(1), 0);
+    }
+
+    public static <T> SnapshotList<T> of(Collection<? extends T> items) {
+        SnapshotList<T> list = empty();
+        return list.withAll(items);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (T) storage.segments[index >>> SEGMENT_BITS][index & SEGMENT_MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // A list with item added at the end
+    public SnapshotList<T> with(T item) {
+        // Only the version that owns the end of the storage may write past it
+        if (storage.used.compareAndSet(size, size + 1)) {
+            append(storage, size, item);
+            return new SnapshotList<>(storage, size + 1);
+        }
+        return copy(size + 1).with(item);
+    }
+
+    public SnapshotList<T> withAll(Collection<? extends T> items) {
+        SnapshotList<T> list = this;
+        for (T item : items) {
+            list = list.with(item);
+        }
+        return list;
+    }
+
+    // A list without the item at index
+    public SnapshotList<T> without(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        ArrayList<T> rest = new ArrayList<>(this);
+        rest.remove(index);
+        return of(rest);
+    }
+
+    // Copy into fresh storage with room for at least capacity items
+    private SnapshotList<T> copy(int capacity) {
+        Storage fresh = new Storage((capacity + SEGMENT_MASK) >>> SEGMENT_BITS);
+        for (int i = 0; i < size; i++) {
+            append(fresh, i, get(i));
+        }
+        fresh.used.set(size);
+        return new SnapshotList<>(fresh, size);
+    }
+
+    private static void append(Storage storage, int index, Object item) {
+        int segment = index >>> SEGMENT_BITS;
+        Object[][] segments = storage.segments;
+        if (segment == segments.length) {
+            Object[][] grown = new Object[segments.length * 2][];
+            System.arraycopy(segments, 0, grown, 0, segments.length);
+            segments = grown;
+        }
+        if (segments[segment] == null) {
+            segments[segment] = new Object[SEGMENT_SIZE];
+        }
+        segments[segment][index & SEGMENT_MASK] = item;
+        // The volatile write publishes the item together with any new spine
+        storage.segments = segments;
+    }
+}
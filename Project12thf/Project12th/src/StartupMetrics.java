@@ -0,0 +1,60 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * How long the GUI takes to start, counted from the launch of the JVM.
+ *
+ * First frame is when the window has been painted for the first time;
+ * interactive is when every clinic has been loaded and the screen shows
+ * them. Both are printed and added to data/startup-times.csv, one line per
+ * start, so a slower start is easy to spot.
+ */
+public class StartupMetrics {
+    private static final String LOG_FILE = "data/startup-times.csv";
+
+    private static long firstFrameMillis = -1;
+    private static long interactiveMillis = -1;
+
+    // Milliseconds since the JVM was started
+    public static long sinceLaunch() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    public static synchronized void firstFrame() {
+        if (firstFrameMillis < 0) {
+            firstFrameMillis = sinceLaunch();
+            System.out.println("Startup: first frame after " + firstFrameMillis + " ms");
+        }
+    }
+
+    public static synchronized void interactive(int clinics) {
+        if (interactiveMillis >= 0) {
+            return;
+        }
+        interactiveMillis = sinceLaunch();
+        System.out.println("Startup: interactive after " + interactiveMillis + " ms (" + clinics + " clinics)");
+        FileManager.initializeDataFolder();
+        boolean header = !new java.io.File(LOG_FILE).exists();
+        try (PrintWriter out = new PrintWriter(new FileWriter(LOG_FILE, true))) {
+            if (header) {
+                out.println("date,first_frame_ms,interactive_ms,clinics");
+            }
+            out.println(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date())
+                + "," + firstFrameMillis + "," + interactiveMillis + "," + clinics);
+        } catch (IOException e) {
+            System.out.println("Error writing startup times: " + e.getMessage());
+        }
+    }
+
+    public static synchronized long getFirstFrameMillis() {
+        return firstFrameMillis;
+    }
+
+    public static synchronized long getInteractiveMillis() {
+        return interactiveMillis;
+    }
+}
@@ -0,0 +1,42 @@
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared out by key (e.g. a doctor ID).
+ * Two keys only wait on each other when they hash to the same stripe,
+ * so work for different doctors can run side by side without one big lock.
+ */
+public class StripedLock {
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] stripes;
+
+    public StripedLock() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public StripedLock(int stripeCount) {
+        // Round up to a power of two so the index is a simple mask
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public int stripeIndex(String key) {
+        int h = key == null ? 0 : key.hashCode();
+        h ^= (h >>> 16);
+        return h & (stripes.length - 1);
+    }
+
+    public ReentrantLock lockFor(String key) {
+        return stripes[stripeIndex(key)];
+    }
+
+    public ReentrantLock lockAt(int index) {
+        return stripes[index];
+    }
+}
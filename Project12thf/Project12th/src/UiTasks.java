@@ -0,0 +1,244 @@
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs GUI work off the event dispatch thread.
+ * Work goes to a bounded executor (virtual threads when the JVM has them),
+ * and its result or error is handed back on the EDT. Every call returns a
+ * Future that can be cancelled; a cancelled task never calls back.
+ */
+public class UiTasks {
+    private static final int QUEUE_LIMIT = 1024;
+
+    // Told on the EDT whenever the number of running tasks changes
+    public interface BusyListener {
+        void busyChanged(int running, String label);
+    }
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final Set<Task<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Task<?>> latest = new ConcurrentHashMap<>();
+    private volatile BusyListener busyListener;
+
+    private class Task<T> extends FutureTask<T> {
+        final String label;
+        final String key;
+        final boolean cancellable;
+        final Consumer<T> onSuccess;
+        final Consumer<Throwable> onError;
+
+        Task(String label, String key, boolean cancellable, Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+            super(work);
+            this.label = label;
+            this.key = key;
+            this.cancellable = cancellable;
+            this.onSuccess = onSuccess;
+            this.onError = onError;
+        }
+
+        void fail(Throwable error) {
+            setException(error);
+        }
+
+        @Override
+        protected void done() {
+            inFlight.remove(this);
+            if (key != null) {
+                latest.remove(key, this);
+            }
+            SwingUtilities.invokeLater(() -> {
+                fireBusyChanged();
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    T value = get();
+                    if (onSuccess != null) onSuccess.accept(value);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof CancellationException) {
+                        return; // the work noticed it was cancelled and stopped
+                    }
+                    if (onError != null) {
+                        onError.accept(e.getCause());
+                    } else {
+                        System.err.println("Error in background task '" + label + "': " + e.getCause());
+                        e.getCause().printStackTrace();
+                    }
+                } catch (InterruptedException | CancellationException e) {
+                    // cancelled while we were collecting the result
+                }
+            });
+        }
+    }
+
+    public UiTasks() {
+        this(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public UiTasks(int maxConcurrent) {
+        this.permits = new Semaphore(maxConcurrent);
+        this.executor = createExecutor(maxConcurrent);
+    }
+
+    public void setBusyListener(BusyListener listener) {
+        this.busyListener = listener;
+    }
+
+    /**
+     * Run work in the background. onSuccess and onError run on the EDT;
+     * either may be null. Returns a Future that can be used to cancel it.
+     */
+    public <T> Future<T> run(String label, Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        return submit(new Task<>(label, null, true, work, onSuccess, onError));
+    }
+
+    /**
+     * Like run(), but first cancels the earlier task started with the same key,
+     * e.g. a table load for a screen that has been opened again.
+     */
+    public <T> Future<T> runLatest(String key, String label, Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        Task<T> task = new Task<>(label, key, true, work, onSuccess, onError);
+        Task<?> previous = latest.put(key, task);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        return submit(task);
+    }
+
+    // Work that must not be cancelled from the GUI, such as saving
+    public <T> Future<T> runUninterruptible(String label, Callable<T> work, Consumer<Throwable> onError) {
+        return submit(new Task<>(label, null, false, work, null, onError));
+    }
+
+    public void cancel(String key) {
+        Task<?> task = latest.remove(key);
+        if (task != null) {
+            task.cancel(true);
+        }
+    }
+
+    // Cancel everything the user started; saves carry on
+    public void cancelAll() {
+        for (Iterator<Task<?>> it = inFlight.iterator(); it.hasNext(); ) {
+            Task<?> task = it.next();
+            if (task.cancellable) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    public int getRunningCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Stop taking work and wait for running tasks (e.g. a save) to finish.
+     */
+    public void shutdown(long timeoutMillis) {
+        cancelAll();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Long loops in background work should call this now and then so a
+     * cancelled task stops early instead of running to the end.
+     */
+    public static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+    }
+
+    private <T> Future<T> submit(Task<T> task) {
+        inFlight.add(task);
+        fireBusyChanged();
+        try {
+            executor.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    task.cancel(false);
+                    return;
+                }
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            task.fail(new IllegalStateException("Too many background tasks, please try again", e));
+        }
+        return task;
+    }
+
+    private void fireBusyChanged() {
+        BusyListener listener = busyListener;
+        if (listener == null) {
+            return;
+        }
+        Runnable notify = () -> {
+            String label = null;
+            for (Task<?> task : inFlight) {
+                label = task.label;
+                break;
+            }
+            listener.busyChanged(inFlight.size(), label);
+        };
+        if (SwingUtilities.isEventDispatchThread()) {
+            notify.run();
+        } else {
+            SwingUtilities.invokeLater(notify);
+        }
+    }
+
+    /**
+     * A thread-per-task executor on virtual threads, or null if the JVM has none.
+     * Looked up reflectively (Java 21+) so the app still runs on older JVMs.
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService createExecutor(int maxConcurrent) {
+        ExecutorService virtual = newVirtualThreadExecutor();
+        if (virtual != null) {
+            return virtual;
+        }
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(QUEUE_LIMIT), r -> {
+                Thread t = new Thread(r, "ui-task-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -0,0 +1,118 @@
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.io.Serializable;
+
+/**
+ * Per-doctor, per-day waiting lists.
+ * Each list is a priority heap, so taking the next patient when a slot frees
+ * up is O(log n) and only locks that one doctor's day. Lists for days that
+ * have passed are dropped once a day, the first time the waitlist is used.
+ */
+public class Waitlist implements Serializable {
+    private ConcurrentHashMap<String, PriorityBlockingQueue<WaitlistEntry>> queues;
+    private AtomicLong nextSequence;
+    private transient volatile LocalDate prunedOn; // null after loading, so old days are dropped then too
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    public Waitlist() {
+        this.queues = new ConcurrentHashMap<>();
+        this.nextSequence = new AtomicLong();
+    }
+
+    private static String key(String doctorId, String date) {
+        return doctorId + "|" + date;
+    }
+
+    public void add(WaitlistEntry entry) {
+        entry.setSequence(nextSequence.incrementAndGet());
+        queues.computeIfAbsent(key(entry.getDoctor().getId(), entry.getDate()), k -> new PriorityBlockingQueue<>())
+              .add(entry);
+        System.out.println("Added to waitlist: " + entry.getEntryDetails());
+    }
+
+    // Take the highest-priority patient waiting for this doctor and day, or null if nobody is waiting
+    public WaitlistEntry poll(String doctorId, String date) {
+        pruneOnNewDay();
+        if (isPast(date)) {
+            queues.remove(key(doctorId, date)); // a slot freed after its day can't be given to anyone
+            return null;
+        }
+        PriorityBlockingQueue<WaitlistEntry> queue = queues.get(key(doctorId, date));
+        return queue == null ? null : queue.poll();
+    }
+
+    // Put an entry back without losing its place in the queue
+    void restore(WaitlistEntry entry) {
+        queues.computeIfAbsent(key(entry.getDoctor().getId(), entry.getDate()), k -> new PriorityBlockingQueue<>())
+              .add(entry);
+    }
+
+    public boolean remove(WaitlistEntry entry) {
+        PriorityBlockingQueue<WaitlistEntry> queue = queues.get(key(entry.getDoctor().getId(), entry.getDate()));
+        return queue != null && queue.remove(entry);
+    }
+
+    // The entry with this key (see WaitlistEntry.getKey()), or null
+    WaitlistEntry find(String doctorId, String date, String entryKey) {
+        PriorityBlockingQueue<WaitlistEntry> queue = queues.get(key(doctorId, date));
+        if (queue != null) {
+            for (WaitlistEntry entry : queue) {
+                if (entry.getKey().equals(entryKey)) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    public int size(String doctorId, String date) {
+        PriorityBlockingQueue<WaitlistEntry> queue = queues.get(key(doctorId, date));
+        return queue == null ? 0 : queue.size();
+    }
+
+    // Every waiting entry, highest priority first within each doctor and day
+    public ArrayList<WaitlistEntry> getEntries() {
+        pruneOnNewDay();
+        ArrayList<WaitlistEntry> entries = new ArrayList<>();
+        for (PriorityBlockingQueue<WaitlistEntry> queue : queues.values()) {
+            WaitlistEntry[] waiting = queue.toArray(new WaitlistEntry[0]);
+            java.util.Arrays.sort(waiting);
+            for (WaitlistEntry entry : waiting) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private void pruneOnNewDay() {
+        LocalDate today = LocalDate.now();
+        if (today.equals(prunedOn)) {
+            return;
+        }
+        prunedOn = today;
+        int dropped = 0;
+        for (java.util.Map.Entry<String, PriorityBlockingQueue<WaitlistEntry>> entry : queues.entrySet()) {
+            String date = entry.getKey().substring(entry.getKey().lastIndexOf('|') + 1);
+            if (isPast(date) && queues.remove(entry.getKey(), entry.getValue())) {
+                dropped += entry.getValue().size();
+            }
+        }
+        if (dropped > 0) {
+            System.out.println("Removed " + dropped + " waitlist entries for days that have passed");
+        }
+    }
+
+    private static boolean isPast(String date) {
+        try {
+            return LocalDate.parse(date, DATE_FORMAT).isBefore(LocalDate.now());
+        } catch (DateTimeParseException e) {
+            return false; // not ours to judge; keep it
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.Date;
+import java.io.Serializable;
+
+/**
+ * A patient waiting for a slot with a doctor on a given day.
+ * Higher priority is served first; equal priorities are served in the order they joined.
+ */
+public class WaitlistEntry implements Serializable, Comparable<WaitlistEntry> {
+    public static final int PRIORITY_NORMAL = 1;
+    public static final int PRIORITY_HIGH = 2;
+    public static final int PRIORITY_URGENT = 3;
+
+    private Patient patient;
+    private Doctor doctor;
+    private String date; // "dd/MM/yyyy", same as the doctor's booked slots
+    private int priority;
+    private String reason;
+    private long sequence;
+    private Date joinedAt;
+
+    public WaitlistEntry(Patient patient, Doctor doctor, String date, int priority, String reason) {
+        this.patient = patient;
+        this.doctor = doctor;
+        this.date = date;
+        this.priority = priority;
+        this.reason = reason;
+        this.joinedAt = new Date();
+    }
+
+    public Patient getPatient() {
+        return patient;
+    }
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    // Who is waiting for whom on which day; the same on every copy of the entry
+    public String getKey() {
+        return keyOf(patient.getId(), doctor.getId(), date);
+    }
+
+    static String keyOf(String patientId, String doctorId, String date) {
+        return patientId + "|" + doctorId + "|" + date;
+    }
+
+    // Point a copy of the entry at this process's own patient and doctor
+    void setPatient(Patient patient) {
+        this.patient = patient;
+    }
+
+    void setDoctor(Doctor doctor) {
+        this.doctor = doctor;
+    }
+
+    public Date getJoinedAt() {
+        return joinedAt;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    @Override
+    public int compareTo(WaitlistEntry other) {
+        if (priority != other.priority) {
+            return Integer.compare(other.priority, priority);
+        }
+        return Long.compare(sequence, other.sequence);
+    }
+
+    public String getEntryDetails() {
+        String level = priority >= PRIORITY_URGENT ? "Urgent" : priority == PRIORITY_HIGH ? "High" : "Normal";
+        return patient.getName() + " (" + patient.getId() + ") - Dr. " + doctor.getName() +
+               " on " + date + " [" + level + "] " + reason;
+    }
+}